@@ -0,0 +1,90 @@
+package com.inventaro.backend.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Request dispatch through the DispatcherServlet with MockMvc: routing, argument resolution,
+ * validation and JSON writing, without the network. The article caches keep their default
+ * settings, so reads mostly measure the web layer rather than the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArticleControllerBenchmark {
+
+    private static final String CREATED_NAME = "JMH created article";
+    private static final String CREATE_BODY = """
+            {"name": "%s", "quantity": 100, "unit": "pcs", "lowStockThreshold": 10}
+            """.formatted(CREATED_NAME);
+
+    @Param({"1000", "100000"})
+    int datasetSize;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private UUID[] ids;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkApplication.start(datasetSize);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        ids = BenchmarkApplication.articleIds(context);
+    }
+
+    @TearDown(Level.Iteration)
+    public void resetDataset() {
+        BenchmarkApplication.deleteCreatedArticles(context, CREATED_NAME);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult getById() throws Exception {
+        UUID id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        return mockMvc.perform(get("/articles/{id}", id)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getFirstPage() throws Exception {
+        return mockMvc.perform(get("/articles/page")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult create() throws Exception {
+        return mockMvc.perform(post("/articles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(CREATE_BODY))
+                .andReturn();
+    }
+}
@@ -0,0 +1,73 @@
+package com.inventaro.backend.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventaro.backend.model.Article;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of article lists, the way GET /articles and the listing endpoints write them,
+ * as JSON and as CBOR (Accept: application/cbor). The ObjectMappers are built with Spring's
+ * Jackson2ObjectMapperBuilder, which applies the same defaults as the ones used by the controllers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArticleSerializationBenchmark {
+
+    private static final TypeReference<List<Article>> ARTICLE_LIST = new TypeReference<>() {
+    };
+
+    @Param({"10", "1000", "100000"})
+    int size;
+
+    @Param({"json", "cbor"})
+    String format;
+
+    private ObjectMapper objectMapper;
+    private List<Article> articles;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = format.equals("cbor")
+                ? Jackson2ObjectMapperBuilder.cbor().build()
+                : Jackson2ObjectMapperBuilder.json().build();
+        articles = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int quantity = i % 500;
+            articles.add(new Article(UUID.randomUUID(), "Article " + i, quantity, "pcs", 50, 0, 50 - quantity, 0, 0));
+        }
+        payload = objectMapper.writeValueAsBytes(articles);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(articles);
+    }
+
+    @Benchmark
+    public List<Article> deserialize() throws IOException {
+        return objectMapper.readValue(payload, ARTICLE_LIST);
+    }
+}
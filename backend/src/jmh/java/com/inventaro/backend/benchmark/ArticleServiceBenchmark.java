@@ -0,0 +1,104 @@
+package com.inventaro.backend.benchmark;
+
+import com.inventaro.backend.dto.AdjustQuantityRequest;
+import com.inventaro.backend.dto.ArticlePageResponse;
+import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.dto.UpdateArticleRequest;
+import com.inventaro.backend.model.Article;
+import com.inventaro.backend.service.ArticleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ArticleServiceImpl operations against H2 with the article caches disabled, so every call
+ * reaches the repository. The table is seeded with -p datasetSize=... articles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArticleServiceBenchmark {
+
+    private static final String CREATED_NAME = "JMH created article";
+
+    @Param({"1000", "100000"})
+    int datasetSize;
+
+    private ConfigurableApplicationContext context;
+    private ArticleService articleService;
+    private UUID[] ids;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkApplication.start(datasetSize,
+                "--spring.main.web-application-type=none",
+                // A zero TTL expires entries on read, unlike a zero maximum size, which evicts asynchronously.
+                "--inventaro.cache.articles.ttl=0s",
+                "--inventaro.cache.listings.ttl=0s");
+        articleService = context.getBean(ArticleService.class);
+        ids = BenchmarkApplication.articleIds(context);
+    }
+
+    @TearDown(Level.Iteration)
+    public void resetDataset() {
+        BenchmarkApplication.deleteCreatedArticles(context, CREATED_NAME);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Article create() {
+        return articleService.createArticle(new CreateArticleRequest(CREATED_NAME, 100, "pcs", 10));
+    }
+
+    @Benchmark
+    public Article getById() {
+        return articleService.getArticleById(randomId());
+    }
+
+    @Benchmark
+    public Article updateArticleData() {
+        return articleService.updateArticleData(randomId(), new UpdateArticleRequest("JMH updated article", "pcs", 50), null);
+    }
+
+    @Benchmark
+    public Article adjustQuantity() {
+        return articleService.adjustQuantity(randomId(), new AdjustQuantityRequest(1), null);
+    }
+
+    @Benchmark
+    public ArticlePageResponse listFirstPage() {
+        return articleService.getArticlePage(null, null);
+    }
+
+    @Benchmark
+    public List<Article> listAll() {
+        return articleService.getAllArticles();
+    }
+
+    private UUID randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
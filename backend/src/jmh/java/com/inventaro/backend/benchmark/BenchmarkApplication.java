@@ -0,0 +1,47 @@
+package com.inventaro.backend.benchmark;
+
+import com.inventaro.backend.InventaroBackendApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Starts the application for a JMH trial, each time with its own in-memory database
+ * seeded with the requested number of articles.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(int datasetSize, String... args) {
+        String[] defaults = {
+                "--spring.profiles.active=test",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:inventaro-jmh-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1"
+        };
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(InventaroBackendApplication.class)
+                .run(Stream.concat(Stream.of(defaults), Stream.of(args)).toArray(String[]::new));
+
+        BenchmarkSupport.seedArticles(context.getBean(JdbcTemplate.class), datasetSize);
+        return context;
+    }
+
+    static UUID[] articleIds(ConfigurableApplicationContext context) {
+        List<UUID> ids = context.getBean(JdbcTemplate.class).queryForList("SELECT id FROM article", UUID.class);
+        return ids.toArray(UUID[]::new);
+    }
+
+    /**
+     * Removes articles created during an iteration so every iteration sees the seeded dataset size.
+     */
+    static void deleteCreatedArticles(ConfigurableApplicationContext context, String name) {
+        context.getBean(JdbcTemplate.class).update("DELETE FROM article WHERE name = ?", name);
+    }
+}
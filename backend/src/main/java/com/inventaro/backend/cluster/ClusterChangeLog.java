@@ -0,0 +1,289 @@
+package com.inventaro.backend.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventaro.backend.event.ArticleChangeEvent;
+import com.inventaro.backend.event.ArticleChangeType;
+import com.inventaro.backend.event.StockMovementEvent;
+import com.inventaro.backend.model.ChangeLogEntry;
+import com.inventaro.backend.repository.ChangeLogRepository;
+import com.inventaro.backend.service.ArticleCache;
+import com.inventaro.backend.service.CatalogueVersion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Keeps the in-memory state of several instances sharing one database coherent.
+ *
+ * Every ArticleChangeEvent and StockMovementEvent is also written to the change_log table, in the
+ * transaction of the change itself, so an entry exists exactly when the change was committed.
+ * Each instance tails the table from a single thread, every inventaro.cluster.poll-interval, and
+ * for each entry written by another instance evicts the article caches and publishes the event
+ * locally (marked remote), so the search index, catalogue version, forecasts and live streams of
+ * every instance see every change.
+ *
+ * Entries are read in id order. Ids are handed out when an entry is written but become visible when
+ * its transaction commits, so a later id can be read before an earlier one: skipped ids are kept as
+ * gaps and looked up again until they show up, or until inventaro.cluster.gap-timeout has passed
+ * (a rolled back transaction leaves a gap that never fills).
+ *
+ * The position before the first open gap is also the CatalogueVersion, so every instance that has
+ * applied the same entries hands out the same listing ETags.
+ */
+@Slf4j
+@Component
+public class ClusterChangeLog {
+
+    static final String APPLIED = "inventaro.cluster.changes.applied";
+    static final String LAG = "inventaro.cluster.lag";
+
+    // How often the entries past the retention are deleted. Every instance does it; deleting twice is harmless.
+    private static final Duration CLEANUP_INTERVAL = Duration.ofMinutes(1);
+
+    // Beyond this many open gaps (e.g. after a burst of rollbacks), further skipped ids are not looked up again.
+    private static final int MAX_GAPS = 1000;
+
+    private final ChangeLogRepository changeLogRepository;
+    private final ArticleCache articleCache;
+    private final CatalogueVersion catalogueVersion;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transaction;
+
+    private final boolean enabled;
+    private final String nodeId;
+    private final Duration pollInterval;
+    private final int batchSize;
+    private final Duration gapTimeout;
+    private final Duration retention;
+
+    private final Counter applied;
+    private final Timer lag;
+
+    // Only used by the poller thread.
+    private long lastId;
+    private final TreeMap<Long, Instant> gaps = new TreeMap<>();
+    private Instant nextCleanup = Instant.MIN;
+
+    private volatile Thread poller;
+
+    public ClusterChangeLog(ChangeLogRepository changeLogRepository,
+                            ArticleCache articleCache,
+                            CatalogueVersion catalogueVersion,
+                            ApplicationEventPublisher eventPublisher,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry registry,
+                            @Value("${inventaro.cluster.enabled:false}") boolean enabled,
+                            @Value("${inventaro.cluster.node-id:}") String nodeId,
+                            @Value("${inventaro.cluster.poll-interval:100ms}") Duration pollInterval,
+                            @Value("${inventaro.cluster.batch-size:500}") int batchSize,
+                            @Value("${inventaro.cluster.gap-timeout:5s}") Duration gapTimeout,
+                            @Value("${inventaro.cluster.retention:1h}") Duration retention) {
+        this.changeLogRepository = changeLogRepository;
+        this.articleCache = articleCache;
+        this.catalogueVersion = catalogueVersion;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.pollInterval = pollInterval;
+        this.batchSize = Math.max(batchSize, 1);
+        this.gapTimeout = gapTimeout;
+        this.retention = retention;
+
+        applied = Counter.builder(APPLIED)
+                .description("Changes of other instances applied by this one")
+                .register(registry);
+        lag = Timer.builder(LAG)
+                .description("Time from writing a change on another instance to applying it on this one")
+                .register(registry);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /*
+     * NOTE:
+     * Written before commit, in the same transaction as the change, rather than after it: a change that
+     * commits always has its entry, and an entry never describes a change that was rolled back.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onArticleChange(ArticleChangeEvent event) {
+        if (enabled && !event.isRemote()) {
+            append(ChangeLogEntry.Kind.ARTICLE, event);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onStockMovements(StockMovementEvent event) {
+        if (enabled && !event.isRemote()) {
+            append(ChangeLogEntry.Kind.MOVEMENTS, event);
+        }
+    }
+
+    private void append(ChangeLogEntry.Kind kind, Object event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write " + kind + " change to the change log", e);
+        }
+        long entryId = changeLogRepository.save(new ChangeLogEntry(null, nodeId, kind, payload, Instant.now())).getId();
+        if (kind == ChangeLogEntry.Kind.ARTICLE) {
+            trackOwnEntry(entryId);
+        }
+    }
+
+    // Until the poller has read past it, the entry keeps this instance's catalogue version apart from the others'.
+    private void trackOwnEntry(long entryId) {
+        catalogueVersion.ownEntryWritten(entryId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    catalogueVersion.ownEntryDiscarded(entryId);
+                }
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        // Earlier entries are not replayed: the caches of a starting instance are empty anyway.
+        lastId = changeLogRepository.findLastId();
+        catalogueVersion.logAppliedUpTo(lastId);
+        poller = Thread.ofVirtual().name("cluster-change-log").start(this::run);
+        log.info("Tailing the cluster change log as node {} from entry {}", nodeId, lastId);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (poller != null) {
+            poller.interrupt();
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            int read;
+            try {
+                read = poll();
+                cleanUp();
+            } catch (RuntimeException ex) {
+                log.warn("Reading the cluster change log failed, retrying in {}", pollInterval, ex);
+                read = 0;
+            }
+            try {
+                // A full batch means there is more to read right away.
+                if (read < batchSize) {
+                    Thread.sleep(pollInterval);
+                }
+            } catch (InterruptedException ex) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Applies the entries written since the last poll, and those of earlier gaps that have been
+     * committed since, and returns how many new entries were read.
+     */
+    private int poll() {
+        Instant now = Instant.now();
+        if (!gaps.isEmpty()) {
+            for (ChangeLogEntry entry : changeLogRepository.findAllByIdIn(new ArrayList<>(gaps.keySet()))) {
+                gaps.remove(entry.getId());
+                apply(entry);
+            }
+        }
+
+        List<ChangeLogEntry> entries = changeLogRepository.findAfter(lastId, Limit.of(batchSize));
+        for (ChangeLogEntry entry : entries) {
+            for (long skipped = lastId + 1; skipped < entry.getId() && gaps.size() < MAX_GAPS; skipped++) {
+                gaps.put(skipped, now);
+            }
+            lastId = entry.getId();
+            apply(entry);
+        }
+
+        Instant expired = now.minus(gapTimeout);
+        gaps.values().removeIf(since -> since.isBefore(expired));
+        // After the entries have been applied, so a new version never comes with old caches.
+        catalogueVersion.logAppliedUpTo(gaps.isEmpty() ? lastId : gaps.firstKey() - 1);
+        return entries.size();
+    }
+
+    private void apply(ChangeLogEntry entry) {
+        // This instance's own changes were delivered to its listeners when they were committed.
+        if (nodeId.equals(entry.getNodeId())) {
+            return;
+        }
+        try {
+            switch (entry.getKind()) {
+                case ARTICLE -> {
+                    ArticleChangeEvent event = objectMapper.readValue(entry.getPayload(), ArticleChangeEvent.class);
+                    if (event.getType() == ArticleChangeType.RESYNC) {
+                        articleCache.evictEverything();
+                    } else {
+                        articleCache.evict(event.getArticleId());
+                    }
+                    eventPublisher.publishEvent(event.asRemote());
+                }
+                case MOVEMENTS -> eventPublisher.publishEvent(
+                        objectMapper.readValue(entry.getPayload(), StockMovementEvent.class).asRemote());
+            }
+        } catch (JsonProcessingException | RuntimeException ex) {
+            // Skipped rather than retried, so one unreadable entry (e.g. from a newer version during a
+            // rolling upgrade) does not hold up every later one.
+            log.warn("Could not apply change log entry {} of node {}", entry.getId(), entry.getNodeId(), ex);
+            return;
+        }
+        applied.increment();
+        // Clocks of different hosts may disagree slightly; a negative lag is recorded as none.
+        Duration sinceWritten = Duration.between(entry.getCreatedAt(), Instant.now());
+        lag.record(sinceWritten.isNegative() ? Duration.ZERO : sinceWritten);
+    }
+
+    private void cleanUp() {
+        Instant now = Instant.now();
+        if (now.isBefore(nextCleanup)) {
+            return;
+        }
+        nextCleanup = now.plus(CLEANUP_INTERVAL);
+        Integer deleted = transaction.execute(status -> changeLogRepository.deleteCreatedBefore(now.minus(retention)));
+        if (deleted != null && deleted > 0) {
+            log.debug("Deleted {} change log entries older than {}", deleted, retention);
+        }
+    }
+}
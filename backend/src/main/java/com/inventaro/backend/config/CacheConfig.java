@@ -0,0 +1,63 @@
+package com.inventaro.backend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inventaro.backend.dto.ArticlePageResponse;
+import com.inventaro.backend.service.ArticleCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${inventaro.cache.articles.max-size:10000}") long articlesMaxSize,
+            @Value("${inventaro.cache.articles.ttl:5m}") Duration articlesTtl,
+            @Value("${inventaro.cache.listings.max-articles:50000}") long listingsMaxArticles,
+            @Value("${inventaro.cache.listings.ttl:30s}") Duration listingsTtl) {
+
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+        // Only the caches registered below exist; a typo in a cache name should fail instead of
+        // silently creating an unbounded cache.
+        caffeineCacheManager.setCacheNames(List.of());
+        caffeineCacheManager.registerCustomCache(ArticleCache.ARTICLES, Caffeine.newBuilder()
+                .maximumSize(articlesMaxSize)
+                .expireAfterWrite(articlesTtl)
+                .recordStats()
+                .build());
+        // Bounded by the number of articles held rather than the number of listings: a single full
+        // list of a large catalogue can outweigh thousands of pages. A listing heavier than the bound
+        // is not kept at all.
+        caffeineCacheManager.registerCustomCache(ArticleCache.LISTINGS, Caffeine.newBuilder()
+                .maximumWeight(listingsMaxArticles)
+                .weigher((Object key, Object listing) -> articles(listing))
+                .expireAfterWrite(listingsTtl)
+                .recordStats()
+                .build());
+
+        // NOTE:
+        // Transaction-aware: puts and evictions made inside a transaction are applied after commit
+        // (and dropped on rollback), so readers never see a cached value that was rolled back.
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+
+    static int articles(Object listing) {
+        if (listing instanceof Collection<?> articles) {
+            return Math.max(articles.size(), 1);
+        }
+        if (listing instanceof ArticlePageResponse page) {
+            return Math.max(page.getItems().size(), 1);
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,12 @@
+package com.inventaro.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled jobs (the inventory reports). A job whose cron expression is "-" is disabled.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,17 +1,52 @@
 package com.inventaro.backend.controller;
 
+import com.inventaro.backend.dto.AdjustQuantityRequest;
+import com.inventaro.backend.dto.ArticleForecastResponse;
+import com.inventaro.backend.dto.ArticleImportResult;
+import com.inventaro.backend.dto.ArticlePageResponse;
+import com.inventaro.backend.dto.ArticleStockResponse;
 import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.dto.CreateReservationRequest;
+import com.inventaro.backend.dto.StockLevelResponse;
+import com.inventaro.backend.dto.StockMovementPageResponse;
+import com.inventaro.backend.dto.StockMovementRequest;
+import com.inventaro.backend.dto.StockMovementResult;
+import com.inventaro.backend.dto.TransferRequest;
 import com.inventaro.backend.dto.UpdateArticleRequest;
 import com.inventaro.backend.dto.UpdateQuantityRequest;
+import com.inventaro.backend.exception.BatchTooLargeException;
+import com.inventaro.backend.exception.InsufficientStockException;
+import com.inventaro.backend.exception.InvalidCursorException;
+import com.inventaro.backend.exception.InvalidImportFileException;
+import com.inventaro.backend.exception.PreconditionFailedException;
 import com.inventaro.backend.model.Article;
+import com.inventaro.backend.model.Reservation;
+import com.inventaro.backend.service.ArticleFileFormat;
+import com.inventaro.backend.service.ArticleImportExportService;
 import com.inventaro.backend.service.ArticleService;
+import com.inventaro.backend.service.CatalogueVersion;
+import com.inventaro.backend.service.LocationService;
+import com.inventaro.backend.service.ReservationService;
+import com.inventaro.backend.stream.ArticleEventBroadcaster;
+import com.inventaro.backend.writebehind.QuantityWriteBehind;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,30 +56,168 @@ import java.util.UUID;
 public class ArticleController {
 
     private final ArticleService articleService;
+    private final ArticleImportExportService importExportService;
+    private final ArticleEventBroadcaster eventBroadcaster;
+    private final LocationService locationService;
+    private final ReservationService reservationService;
+    private final CatalogueVersion catalogueVersion;
+    private final QuantityWriteBehind writeBehind;
 
     @PostMapping
-    public ResponseEntity<Article> create(@Valid @RequestBody CreateArticleRequest request) {
+    public ResponseEntity<Article> create(
+            @Valid @RequestBody CreateArticleRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         Article created = articleService.createArticle(request);
 
         return ResponseEntity
                 .created(URI.create("/articles/" + created.getId()))
+                .eTag(ArticleETags.of(created, accept))
+                .varyBy(HttpHeaders.ACCEPT)
                 .body(created);
     }
 
+    /**
+     * Returns all articles. The response carries the catalogue version as its ETag, so a client that
+     * polls with If-None-Match gets an empty 304 Not Modified until some article has changed.
+     */
     @GetMapping
-    public ResponseEntity<List<Article>> getAll() {
-        return ResponseEntity.ok(articleService.getAllArticles());
+    public ResponseEntity<List<Article>> getAll(WebRequest webRequest) {
+        // NOTE:
+        // The tag is read before the articles, so it is never newer than the data sent with it.
+        // On a match nothing is loaded or serialized at all.
+        // Pending write-behind changes are not counted in the catalogue version, so while there are
+        // any the list is always sent.
+        if (!writeBehind.hasPending() && webRequest.checkNotModified(
+                ArticleETags.ofCatalogue(catalogueVersion.current(), webRequest.getHeader(HttpHeaders.ACCEPT)))) {
+            return notModified();
+        }
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(writeBehind.overlay(articleService.getAllArticles()));
     }
 
+    /**
+     * Returns one page of articles sorted by name (then id), using keyset pagination.
+     *
+     * Pass the returned nextCursor as the cursor parameter to fetch the following page.
+     * The page size defaults to inventaro.articles.page.default-size and is capped at
+     * inventaro.articles.page.max-size.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<ArticlePageResponse> getPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+
+        ArticlePageResponse page = articleService.getArticlePage(cursor, size);
+        return ResponseEntity.ok(new ArticlePageResponse(writeBehind.overlay(page.getItems()), page.getNextCursor()));
+    }
+
+    /**
+     * Returns the articles with low stock (quantity at or below lowStockThreshold),
+     * sorted by shortage severity: the largest lowStockThreshold - quantity first.
+     */
+    @GetMapping("/low-stock")
+    public ResponseEntity<List<Article>> getLowStock(@RequestParam(required = false) Integer limit,
+                                                     WebRequest webRequest) {
+        // Same catalogue-level ETag as GET /articles; dashboards poll this list too.
+        if (!writeBehind.hasPending() && webRequest.checkNotModified(
+                ArticleETags.ofCatalogue(catalogueVersion.current(), webRequest.getHeader(HttpHeaders.ACCEPT)))) {
+            return notModified();
+        }
+        // NOTE:
+        // Membership and order come from the stored quantities; a pending count moves an article
+        // in or out of this list once it has been flushed.
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(writeBehind.overlay(articleService.getLowStockArticles(limit)));
+    }
+
+    /**
+     * Type-ahead search over article names, ignoring case and accents: every word of q must be
+     * the beginning of a word in the name, e.g. "hand nitr" finds "Handskar nitril M".
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<Article>> search(@RequestParam("q") String query,
+                                                @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(writeBehind.overlay(articleService.searchArticles(query, limit)));
+    }
+
+    /**
+     * Opens a server-sent event stream with one "article" event per committed change
+     * (CREATED, UPDATED, QUANTITY_CHANGED or DELETED), so dashboards don't need to re-poll GET /articles.
+     *
+     * Optional filters: articleId (a single article) and lowStockOnly (changes to articles that are,
+     * or just stopped being, low on stock). A "resync" event means the client should reload its data.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestParam(required = false) UUID articleId,
+            @RequestParam(defaultValue = "false") boolean lowStockOnly) {
+
+        return eventBroadcaster.subscribe(articleId, lowStockOnly);
+    }
+
+    /**
+     * Returns one article with its version (and format, see ArticleETags) as a strong ETag. With a
+     * matching If-None-Match the response is an empty 304 Not Modified.
+     *
+     * With a pending write-behind quantity the article is returned with that quantity and without
+     * an ETag: its version only changes when the quantity is flushed.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Article> getById(@PathVariable UUID id) {
-        Article article = articleService.getArticleById(id);
-        return ResponseEntity.ok(article);
+    public ResponseEntity<Article> getById(@PathVariable UUID id, WebRequest webRequest) {
+        Article stored = articleService.getArticleById(id);
+        Article article = writeBehind.overlay(stored);
+        if (article != stored) {
+            return ResponseEntity.ok(article);
+        }
+        if (webRequest.checkNotModified(ArticleETags.of(article, webRequest.getHeader(HttpHeaders.ACCEPT)))) {
+            return notModified();
+        }
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(article);
     }
 
+    /**
+     * Returns the stock movements of an article in the order they happened, oldest first.
+     *
+     * Optional time range: from (inclusive) and to (exclusive), as ISO-8601 instants.
+     * Pass the returned nextCursor as the cursor parameter, together with the same to, for the next page.
+     * History stays available after the article has been deleted.
+     */
+    @GetMapping("/{id}/movements")
+    public ResponseEntity<StockMovementPageResponse> getMovements(
+            @PathVariable UUID id,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+
+        return ResponseEntity.ok(articleService.getMovements(id, from, to, cursor, size));
+    }
+
+    /**
+     * Returns the quantity in stock of an article at the given instant (ISO-8601), e.g. for audits.
+     */
+    @GetMapping("/{id}/quantity")
+    public ResponseEntity<StockLevelResponse> getQuantityAt(@PathVariable UUID id, @RequestParam Instant at) {
+        return ResponseEntity.ok(articleService.getQuantityAt(id, at));
+    }
+
+    /**
+     * Returns the consumption rate of an article, how many days its stock lasts at that rate and
+     * a suggested reorder point, computed from the movements recorded in the ledger.
+     */
+    @GetMapping("/{id}/forecast")
+    public ResponseEntity<ArticleForecastResponse> getForecast(@PathVariable UUID id) {
+        return ResponseEntity.ok(articleService.getForecast(id));
+    }
+
+    /**
+     * Deletes an article. With If-Match (the ETag from an earlier read) the article is only deleted
+     * if it has not changed since; otherwise the response is 412 Precondition Failed.
+     */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable UUID id) {
-        articleService.deleteArticle(id);
+    public ResponseEntity<Void> delete(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        articleService.deleteArticle(id, ArticleETags.expectedVersions(ifMatch));
         return ResponseEntity.noContent().build();
     }
 
@@ -53,23 +226,174 @@ public class ArticleController {
      *
      * NOTE: This endpoint does NOT update the quantity in stock.
      * Quantity updates are handled separately through PATCH /articles/{id}/quantity.
+     *
+     * Like all writes to an article, this honors an If-Match precondition (412 Precondition Failed
+     * when the article has changed) and returns the new ETag.
      */
     @PutMapping("/{id}")
     public ResponseEntity<Article> updateArticleData(
             @PathVariable UUID id,
-            @Valid @RequestBody UpdateArticleRequest request) {
+            @Valid @RequestBody UpdateArticleRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 
-        Article updated = articleService.updateArticleData(id, request);
-        return ResponseEntity.ok(updated);
+        Article updated = articleService.updateArticleData(id, request, ArticleETags.expectedVersions(ifMatch));
+        return ResponseEntity.ok().eTag(ArticleETags.of(updated, accept)).varyBy(HttpHeaders.ACCEPT).body(updated);
     }
 
+    /**
+     * Sets the quantity in stock, e.g. after a count.
+     *
+     * NOTE: With write-behind enabled, an update without If-Match or version is checked, acknowledged
+     * with 202 Accepted and the article as it will be, and written in the next flush.
+     */
     @PatchMapping("/{id}/quantity")
     public ResponseEntity<Article> updateQuantity(
             @PathVariable UUID id,
-            @Valid @RequestBody UpdateQuantityRequest request) {
+            @Valid @RequestBody UpdateQuantityRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        if (ifMatch == null && request.getVersion() == null && writeBehind.isAccepting()) {
+            return ResponseEntity.accepted().body(writeBehind.setQuantity(id, request.getQuantity()));
+        }
+        Article updated = articleService.updateQuantity(id, request, ArticleETags.expectedVersions(ifMatch));
+        return ResponseEntity.ok().eTag(ArticleETags.of(updated, accept)).varyBy(HttpHeaders.ACCEPT).body(updated);
+    }
+
+    /**
+     * Adjusts the quantity in stock by a relative amount, e.g. {"delta": -3} when three items are taken out.
+     *
+     * NOTE: Unlike PATCH /articles/{id}/quantity, concurrent adjustments never overwrite each other.
+     * An adjustment that would make the stock negative is rejected with 409 Conflict.
+     * Like PATCH /articles/{id}/quantity, it may be acknowledged with 202 Accepted under write-behind.
+     */
+    @PatchMapping("/{id}/quantity/delta")
+    public ResponseEntity<Article> adjustQuantity(
+            @PathVariable UUID id,
+            @Valid @RequestBody AdjustQuantityRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 
-        Article updated = articleService.updateQuantity(id, request);
-        return ResponseEntity.ok(updated);
+        if (ifMatch == null && writeBehind.isAccepting()) {
+            return ResponseEntity.accepted().body(writeBehind.adjustQuantity(id, request.getDelta()));
+        }
+        Article updated = articleService.adjustQuantity(id, request, ArticleETags.expectedVersions(ifMatch));
+        return ResponseEntity.ok().eTag(ArticleETags.of(updated, accept)).varyBy(HttpHeaders.ACCEPT).body(updated);
+    }
+
+    /**
+     * Returns the stock of an article per location, with its total and the part not stored at any location.
+     */
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<ArticleStockResponse> getStock(@PathVariable UUID id) {
+        return ResponseEntity.ok(locationService.getArticleStock(id));
+    }
+
+    /**
+     * Adjusts the stock of an article at one location, e.g. {"delta": -3} when three items are taken
+     * out of a ward's storeroom. The total quantity of the article changes by the same amount.
+     */
+    @PatchMapping("/{id}/stock/{locationId}/delta")
+    public ResponseEntity<ArticleStockResponse> adjustStock(
+            @PathVariable UUID id,
+            @PathVariable UUID locationId,
+            @Valid @RequestBody AdjustQuantityRequest request) {
+
+        return ResponseEntity.ok(locationService.adjustStock(id, locationId, request));
+    }
+
+    /**
+     * Moves stock of an article from one location to another in one transaction; either both
+     * locations change or neither does. The total quantity of the article does not change.
+     */
+    @PostMapping("/{id}/transfers")
+    public ResponseEntity<ArticleStockResponse> transfer(
+            @PathVariable UUID id,
+            @Valid @RequestBody TransferRequest request) {
+
+        return ResponseEntity.ok(locationService.transfer(id, request));
+    }
+
+    /**
+     * Reserves stock of an article without taking it out yet, e.g. {"quantity": 20, "ttl": "PT4H",
+     * "reference": "OR 3, 14:00"} ahead of a procedure. Only stock that is not already reserved can be
+     * reserved (409 Conflict otherwise). The hold is released when it expires, unless it is confirmed
+     * (POST /reservations/{id}/confirm) or released (DELETE /reservations/{id}) first.
+     */
+    @PostMapping("/{id}/reservations")
+    public ResponseEntity<Reservation> reserve(
+            @PathVariable UUID id,
+            @Valid @RequestBody CreateReservationRequest request) {
+
+        Reservation created = reservationService.createReservation(id, request);
+        return ResponseEntity
+                .created(URI.create("/reservations/" + created.getId()))
+                .body(created);
+    }
+
+    /**
+     * Returns the active reservations of an article, the first to expire first.
+     */
+    @GetMapping("/{id}/reservations")
+    public ResponseEntity<List<Reservation>> getReservations(@PathVariable UUID id) {
+        return ResponseEntity.ok(reservationService.getArticleReservations(id));
+    }
+
+    /**
+     * Applies a batch of stock movements, e.g. a burst of counts uploaded from a ward scanner.
+     *
+     * Each line is either {"id": ..., "delta": n} or {"id": ..., "quantity": n}. All lines are applied
+     * in one transaction, in order, and the response has one result per line (APPLIED, NOT_FOUND or REJECTED).
+     * A rejected line does not stop the other lines from being applied. A batch longer than
+     * inventaro.movements.batch.max-size is rejected as a whole with 400.
+     */
+    @PostMapping("/movements:batch")
+    public ResponseEntity<List<StockMovementResult>> applyMovements(@RequestBody List<StockMovementRequest> movements) {
+        return ResponseEntity.ok(articleService.applyMovements(movements));
+    }
+
+    /**
+     * Imports new articles from a CSV (text/csv) or NDJSON (application/x-ndjson) request body.
+     *
+     * CSV files need a header row with the columns name, quantity, unit and lowStockThreshold
+     * (other columns such as id are ignored, so an export can be imported again).
+     * Rows are validated like POST /articles; invalid rows are skipped and reported in the response.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ArticleImportResult> importArticles(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+
+        ArticleFileFormat format = MediaType.valueOf(ArticleFileFormat.NDJSON.getMediaType()).isCompatibleWith(contentType)
+                ? ArticleFileFormat.NDJSON
+                : ArticleFileFormat.CSV;
+        return ResponseEntity.ok(importExportService.importArticles(format, body));
+    }
+
+    /**
+     * Streams the whole catalogue as CSV (default) or NDJSON, sorted by name.
+     *
+     * NOTE: Rows are written while they are read from the database, so memory use does not
+     * depend on the size of the catalogue.
+     */
+    @GetMapping("/export")
+    public void exportArticles(
+            @RequestParam(defaultValue = "CSV") ArticleFileFormat format,
+            HttpServletResponse response) throws IOException {
+
+        response.setContentType(format.getMediaType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("articles." + format.getFileExtension())
+                .build()
+                .toString());
+        importExportService.exportArticles(format, response.getOutputStream());
+    }
+
+    // The body of a 304 response is empty, but a cache still needs to know that it depends on Accept.
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build();
     }
 
     // Handles validation errors for endpoints that use @Valid request bodies.
@@ -86,6 +410,37 @@ public class ArticleController {
         return ResponseEntity.badRequest().body(errorMessage);
     }
 
+    // Handles page cursors that were not produced by GET /articles/page.
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> handleInvalidCursor(InvalidCursorException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    // Handles movement batches with more lines than one transaction may lock.
+    @ExceptionHandler(BatchTooLargeException.class)
+    public ResponseEntity<String> handleBatchTooLarge(BatchTooLargeException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    // Handles import files that cannot be read at all (e.g. a CSV header without the required columns).
+    @ExceptionHandler(InvalidImportFileException.class)
+    public ResponseEntity<String> handleInvalidImportFile(InvalidImportFileException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    // Handles writes that conflict with the current state of the article: stock that would go negative,
+    // or an update based on a version of the article that has since been changed by someone else.
+    @ExceptionHandler({InsufficientStockException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<String> handleConflict(RuntimeException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    // Handles If-Match preconditions that name another version than the article's current one.
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<String> handlePreconditionFailed(PreconditionFailedException ex) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(ex.getMessage());
+    }
+
     // Handles "not found" cases for all endpoints when an article with the given ID does not exist.
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleNotFound(IllegalArgumentException ex) {
@@ -0,0 +1,96 @@
+package com.inventaro.backend.controller;
+
+import com.inventaro.backend.model.Article;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ETags of article resources. An article's tag is its @Version, which every write bumps;
+ * a listing's tag is the CatalogueVersion.
+ *
+ * The same data is sent as JSON or CBOR, depending on Accept, so a tag also names the
+ * representation: "3" for JSON, "3-cbor" for CBOR. Responses with a tag carry Vary: Accept.
+ *
+ * Listing tags are weak: If-None-Match compares weakly anyway, and Tomcat does not gzip a
+ * response with a strong ETag, which would rule out compressing the largest responses.
+ */
+final class ArticleETags {
+
+    private static final String CBOR_SUFFIX = "-cbor";
+
+    private ArticleETags() {
+    }
+
+    static String of(Article article, String accept) {
+        return quote(article.getVersion() + suffix(accept));
+    }
+
+    static String ofCatalogue(String catalogueVersion, String accept) {
+        return "W/" + quote(catalogueVersion + suffix(accept));
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+
+    // NOTE:
+    // Mirrors how Spring MVC picks the response format: the most specific, highest-quality accepted
+    // type decides, and JSON is preferred where both would do (e.g. */*).
+    private static String suffix(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return "";
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (type.includes(MediaType.APPLICATION_JSON)) {
+                return "";
+            }
+            if (type.includes(MediaType.APPLICATION_CBOR)) {
+                return CBOR_SUFFIX;
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Returns the article versions an If-Match header lists, or null when there is no
+     * precondition (no header, or "*"). Weak and unknown tags never match, as If-Match uses the
+     * strong comparison, so the result may be empty.
+     */
+    static Set<Long> expectedVersions(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        for (String part : ifMatch.split(",")) {
+            String tag = part.trim();
+            if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+                continue;
+            }
+            String value = tag.substring(1, tag.length() - 1);
+            if (value.endsWith(CBOR_SUFFIX)) {
+                value = value.substring(0, value.length() - CBOR_SUFFIX.length());
+            }
+            try {
+                versions.add(Long.parseLong(value));
+            } catch (NumberFormatException e) {
+                // Not a tag of ours.
+            }
+        }
+        return versions;
+    }
+}
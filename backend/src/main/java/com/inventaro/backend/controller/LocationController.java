@@ -0,0 +1,83 @@
+package com.inventaro.backend.controller;
+
+import com.inventaro.backend.dto.CreateLocationRequest;
+import com.inventaro.backend.dto.LocationStockPageResponse;
+import com.inventaro.backend.exception.InvalidCursorException;
+import com.inventaro.backend.model.Location;
+import com.inventaro.backend.service.LocationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/locations")
+public class LocationController {
+
+    private final LocationService locationService;
+
+    @PostMapping
+    public ResponseEntity<Location> create(@Valid @RequestBody CreateLocationRequest request) {
+        Location created = locationService.createLocation(request);
+
+        return ResponseEntity
+                .created(URI.create("/locations/" + created.getId()))
+                .body(created);
+    }
+
+    /**
+     * Returns all locations sorted by name, each with the total quantity and number of articles in stock there.
+     */
+    @GetMapping
+    public ResponseEntity<List<Location>> getAll() {
+        return ResponseEntity.ok(locationService.getAllLocations());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Location> getById(@PathVariable UUID id) {
+        return ResponseEntity.ok(locationService.getLocationById(id));
+    }
+
+    /**
+     * Returns the articles in stock at a location, one page at a time.
+     * Pass the returned nextCursor as the cursor parameter for the next page.
+     */
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<LocationStockPageResponse> getStock(
+            @PathVariable UUID id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+
+        return ResponseEntity.ok(locationService.getLocationStock(id, cursor, size));
+    }
+
+    // Handles validation errors for endpoints that use @Valid request bodies (first error only, as in ArticleController).
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<String> handleValidationError(MethodArgumentNotValidException ex) {
+        return ResponseEntity.badRequest().body(ex.getBindingResult().getAllErrors().get(0).getDefaultMessage());
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> handleInvalidCursor(InvalidCursorException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    // Location names are unique.
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<String> handleDuplicateName(DataIntegrityViolationException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("A location with this name already exists");
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleNotFound(IllegalArgumentException ex) {
+        return ResponseEntity.status(404).body(ex.getMessage());
+    }
+}
@@ -0,0 +1,24 @@
+package com.inventaro.backend.controller;
+
+import com.inventaro.backend.dto.InventoryReportResult;
+import com.inventaro.backend.report.InventoryReportGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/reports")
+public class ReportController {
+
+    private final InventoryReportGenerator reportGenerator;
+
+    /**
+     * Generates the inventory reports (low-stock, units and movements) now, in addition to the
+     * scheduled runs, and returns what was written. Waits for a run that is already in progress.
+     */
+    @PostMapping
+    public ResponseEntity<InventoryReportResult> generate() {
+        return ResponseEntity.ok(reportGenerator.generate());
+    }
+}
@@ -0,0 +1,66 @@
+package com.inventaro.backend.controller;
+
+import com.inventaro.backend.exception.InsufficientStockException;
+import com.inventaro.backend.exception.ReservationExpiredException;
+import com.inventaro.backend.model.Article;
+import com.inventaro.backend.model.Reservation;
+import com.inventaro.backend.service.ReservationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+/**
+ * Reservations are created per article (POST /articles/{id}/reservations) and handled here by their own id.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/reservations")
+public class ReservationController {
+
+    private final ReservationService reservationService;
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Reservation> getById(@PathVariable UUID id) {
+        return ResponseEntity.ok(reservationService.getReservationById(id));
+    }
+
+    /**
+     * Takes the reserved stock out: the quantity of the article decreases by the reserved amount
+     * and the reservation ends. Returns the article with its new ETag.
+     */
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<Article> confirm(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Article updated = reservationService.confirmReservation(id);
+        return ResponseEntity.ok().eTag(ArticleETags.of(updated, accept)).varyBy(HttpHeaders.ACCEPT).body(updated);
+    }
+
+    // Releases the reserved stock without taking it out, e.g. when a procedure is cancelled.
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> release(@PathVariable UUID id) {
+        reservationService.releaseReservation(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Confirming needs the reserved stock outside of locations, like PATCH /articles/{id}/quantity/delta.
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<String> handleConflict(InsufficientStockException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    // An expired reservation can no longer be confirmed, even before it has been released.
+    @ExceptionHandler(ReservationExpiredException.class)
+    public ResponseEntity<String> handleExpired(ReservationExpiredException ex) {
+        return ResponseEntity.status(HttpStatus.GONE).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleNotFound(IllegalArgumentException ex) {
+        return ResponseEntity.status(404).body(ex.getMessage());
+    }
+}
@@ -0,0 +1,17 @@
+package com.inventaro.backend.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+public class AdjustQuantityRequest {
+
+    @NotNull(message = "delta is required")
+    private Integer delta;
+
+    // NOTE:
+    // delta is relative to the current stock: negative when supplies are taken out,
+    // positive when they are replenished. The adjustment is rejected if it would
+    // make the stock negative.
+}
@@ -0,0 +1,29 @@
+package com.inventaro.backend.dto;
+
+import lombok.*;
+
+import java.util.UUID;
+
+@Getter
+@NoArgsConstructor @AllArgsConstructor
+public class ArticleForecastResponse {
+
+    private UUID articleId;
+
+    private int quantity;
+
+    // Exponentially weighted over recent movements, in the article's unit per day.
+    private double consumptionPerDay;
+
+    // NOTE:
+    // How many days the current quantity lasts at that rate; null when nothing is being consumed.
+    private Double daysOfCover;
+
+    // Suggested quantity to reorder at, covering the lead time plus the safety stock.
+    private int reorderPoint;
+
+    // The threshold staff have set by hand, for comparison with the suggestion.
+    private int lowStockThreshold;
+
+    private boolean reorderNow;
+}
@@ -0,0 +1,29 @@
+package com.inventaro.backend.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@NoArgsConstructor @AllArgsConstructor
+public class ArticleImportResult {
+
+    private int imported;
+
+    private int rejected;
+
+    private List<RejectedRow> rejections;
+
+    @Getter
+    @NoArgsConstructor @AllArgsConstructor
+    public static class RejectedRow {
+
+        private long line;
+
+        private String message;
+    }
+
+    // NOTE:
+    // rejected is the total number of rejected rows, while rejections only lists the first
+    // rows (see inventaro.import.max-reported-rejections) to keep the response bounded.
+}
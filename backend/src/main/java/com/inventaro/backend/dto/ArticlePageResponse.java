@@ -0,0 +1,19 @@
+package com.inventaro.backend.dto;
+
+import com.inventaro.backend.model.Article;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@NoArgsConstructor @AllArgsConstructor
+public class ArticlePageResponse {
+
+    private List<Article> items;
+
+    private String nextCursor;
+
+    // NOTE:
+    // nextCursor is an opaque token. Clients pass it back unchanged to get the next page,
+    // and it is null when there are no more articles.
+}
@@ -0,0 +1,30 @@
+package com.inventaro.backend.dto;
+
+import com.inventaro.backend.repository.LocationQuantity;
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@NoArgsConstructor @AllArgsConstructor
+public class ArticleStockResponse {
+
+    private UUID articleId;
+
+    // Total stock of the article, the same as its quantity.
+    private int quantity;
+
+    private int locatedQuantity;
+
+    // Not stored at any location yet (quantity - locatedQuantity).
+    private int unlocatedQuantity;
+
+    // Held by active reservations.
+    private int reservedQuantity;
+
+    // Neither stored at a location nor held (quantity - locatedQuantity - reservedQuantity); what can still be reserved.
+    private int availableQuantity;
+
+    private List<LocationQuantity> locations;
+}
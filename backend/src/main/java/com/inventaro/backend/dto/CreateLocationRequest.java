@@ -0,0 +1,12 @@
+package com.inventaro.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.*;
+
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+public class CreateLocationRequest {
+
+    @NotBlank(message = "name must not be empty")
+    private String name;
+}
@@ -0,0 +1,35 @@
+package com.inventaro.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.Duration;
+
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+public class CreateReservationRequest {
+
+    @NotNull(message = "quantity is required")
+    @Min(value = 1, message = "quantity must be ≥ 1")
+    private Integer quantity;
+
+    // How long the hold lasts, as an ISO-8601 duration (e.g. "PT2H") or in seconds.
+    private Duration ttl;
+
+    @Size(max = 255, message = "reference must be at most 255 characters")
+    private String reference;
+
+    @JsonIgnore
+    @AssertTrue(message = "ttl must be positive")
+    public boolean isTtlPositive() {
+        return ttl == null || ttl.isPositive();
+    }
+
+    // NOTE:
+    // Without a ttl the hold lasts inventaro.reservations.default-ttl; longer ttls are capped at
+    // inventaro.reservations.max-ttl, so a forgotten hold does not block stock indefinitely.
+}
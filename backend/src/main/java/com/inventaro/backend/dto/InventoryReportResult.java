@@ -0,0 +1,32 @@
+package com.inventaro.backend.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+@NoArgsConstructor @AllArgsConstructor
+public class InventoryReportResult {
+
+    private Instant generatedAt;
+
+    private Instant movementsFrom;
+
+    private long articles;
+
+    private long lowStockArticles;
+
+    private int lowStockRows;
+
+    private List<String> files;
+
+    private long aggregateMillis;
+
+    private long writeMillis;
+
+    // NOTE:
+    // files are the names of the CSV files written to inventaro.reports.directory. The low-stock
+    // file lists at most inventaro.reports.low-stock.max-rows articles (lowStockRows), the most
+    // severe shortages first, while lowStockArticles counts all of them.
+}
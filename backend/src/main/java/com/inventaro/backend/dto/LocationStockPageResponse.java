@@ -0,0 +1,16 @@
+package com.inventaro.backend.dto;
+
+import com.inventaro.backend.repository.ArticleQuantity;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@NoArgsConstructor @AllArgsConstructor
+public class LocationStockPageResponse {
+
+    private List<ArticleQuantity> items;
+
+    // Opaque token for the next page, null on the last page (same contract as ArticlePageResponse).
+    private String nextCursor;
+}
@@ -0,0 +1,17 @@
+package com.inventaro.backend.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Getter
+@NoArgsConstructor @AllArgsConstructor
+public class StockLevelResponse {
+
+    private UUID articleId;
+
+    private Instant at;
+
+    private int quantity;
+}
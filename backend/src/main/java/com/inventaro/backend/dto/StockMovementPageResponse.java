@@ -0,0 +1,16 @@
+package com.inventaro.backend.dto;
+
+import com.inventaro.backend.model.StockMovement;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@NoArgsConstructor @AllArgsConstructor
+public class StockMovementPageResponse {
+
+    private List<StockMovement> items;
+
+    // Opaque token for the next page within the same time range, null on the last page.
+    private String nextCursor;
+}
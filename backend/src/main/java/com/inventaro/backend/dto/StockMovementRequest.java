@@ -0,0 +1,21 @@
+package com.inventaro.backend.dto;
+
+import lombok.*;
+
+import java.util.UUID;
+
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+public class StockMovementRequest {
+
+    private UUID id;
+
+    private Integer delta;
+
+    private Integer quantity;
+
+    // NOTE:
+    // One line of a batch upload. Each line carries either a relative delta or an absolute
+    // quantity, never both. Lines are validated one by one in the service, so a single bad
+    // line is reported in its result instead of rejecting the whole batch.
+}
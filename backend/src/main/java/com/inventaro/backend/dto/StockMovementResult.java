@@ -0,0 +1,34 @@
+package com.inventaro.backend.dto;
+
+import lombok.*;
+
+import java.util.UUID;
+
+@Getter
+@NoArgsConstructor @AllArgsConstructor
+public class StockMovementResult {
+
+    public enum Status { APPLIED, NOT_FOUND, REJECTED }
+
+    private int line;
+
+    private UUID id;
+
+    private Status status;
+
+    private Integer quantity;
+
+    private String message;
+
+    public static StockMovementResult applied(int line, UUID id, int quantity) {
+        return new StockMovementResult(line, id, Status.APPLIED, quantity, null);
+    }
+
+    public static StockMovementResult notFound(int line, UUID id) {
+        return new StockMovementResult(line, id, Status.NOT_FOUND, null, "Article not found with id: " + id);
+    }
+
+    public static StockMovementResult rejected(int line, UUID id, String message) {
+        return new StockMovementResult(line, id, Status.REJECTED, null, message);
+    }
+}
@@ -0,0 +1,32 @@
+package com.inventaro.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.util.UUID;
+
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+public class TransferRequest {
+
+    private UUID fromLocationId;
+
+    private UUID toLocationId;
+
+    @NotNull(message = "quantity is required")
+    @Min(value = 1, message = "quantity must be ≥ 1")
+    private Integer quantity;
+
+    @JsonIgnore
+    @AssertTrue(message = "fromLocationId and toLocationId must be different locations")
+    public boolean isBetweenDifferentLocations() {
+        return fromLocationId == null ? toLocationId != null : !fromLocationId.equals(toLocationId);
+    }
+
+    // NOTE:
+    // A missing fromLocationId takes the stock from the part of the article that is not stored
+    // at any location yet (putting it away); a missing toLocationId returns it there.
+}
@@ -12,7 +12,15 @@ public class UpdateQuantityRequest {
     @Min(value = 0, message = "quantity must be ≥ 0")
     private Integer quantity;
 
+    private Long version;
+
+    public UpdateQuantityRequest(Integer quantity) {
+        this.quantity = quantity;
+    }
+
     // NOTE:
     // Using Integer + @NotNull ensures we catch missing fields.
     // The @Min annotation prevents negative stock values.
+    // version is optional. If the client sends the version it last read, the update is
+    // rejected when someone else has changed the article since (optimistic locking).
 }
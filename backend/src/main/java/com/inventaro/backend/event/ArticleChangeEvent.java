@@ -0,0 +1,59 @@
+package com.inventaro.backend.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.inventaro.backend.model.Article;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published by ArticleServiceImpl for every change to an article, and delivered to
+ * listeners after the change has been committed.
+ */
+@Getter
+@NoArgsConstructor @AllArgsConstructor
+public class ArticleChangeEvent {
+
+    private ArticleChangeType type;
+
+    private UUID articleId;
+
+    // State of the article after the change (the last known state for DELETED, null for RESYNC).
+    private Article article;
+
+    private boolean lowStock;
+
+    private boolean wasLowStock;
+
+    private Instant timestamp;
+
+    // Set when the change was committed by another instance and delivered by ClusterChangeLog.
+    @JsonIgnore
+    private boolean remote;
+
+    public static ArticleChangeEvent of(ArticleChangeType type, Article article, boolean wasLowStock) {
+        Article snapshot = new Article(article.getId(), article.getName(), article.getQuantity(), article.getUnit(),
+                article.getLowStockThreshold(), article.getVersion(), article.getShortage(), article.getLocatedQuantity(),
+                article.getReservedQuantity());
+        boolean lowStock = type != ArticleChangeType.DELETED && isLowStock(article);
+        return new ArticleChangeEvent(type, article.getId(), snapshot, lowStock, wasLowStock, Instant.now(), false);
+    }
+
+    public static ArticleChangeEvent resync() {
+        return new ArticleChangeEvent(ArticleChangeType.RESYNC, null, null, false, false, Instant.now(), false);
+    }
+
+    public ArticleChangeEvent asRemote() {
+        return new ArticleChangeEvent(type, articleId, article, lowStock, wasLowStock, timestamp, true);
+    }
+
+    // Same rule as the low-stock endpoint and the frontend warning.
+    public static boolean isLowStock(Article article) {
+        return isLowStock(article.getQuantity(), article.getLowStockThreshold());
+    }
+
+    public static boolean isLowStock(int quantity, int lowStockThreshold) {
+        return quantity <= lowStockThreshold;
+    }
+}
@@ -0,0 +1,10 @@
+package com.inventaro.backend.event;
+
+public enum ArticleChangeType {
+    CREATED,
+    UPDATED,
+    QUANTITY_CHANGED,
+    DELETED,
+    // Many articles changed at once (e.g. a bulk import); listeners should reload instead of patching.
+    RESYNC
+}
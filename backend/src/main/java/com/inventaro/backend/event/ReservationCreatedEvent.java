@@ -0,0 +1,19 @@
+package com.inventaro.backend.event;
+
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published by ReservationServiceImpl for every new reservation, and delivered to listeners
+ * after it has been committed.
+ */
+@Getter
+@NoArgsConstructor @AllArgsConstructor
+public class ReservationCreatedEvent {
+
+    private UUID reservationId;
+
+    private Instant expiresAt;
+}
@@ -0,0 +1,30 @@
+package com.inventaro.backend.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.inventaro.backend.model.StockMovement;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Published by StockLedger for every batch of movements it appends, and delivered to
+ * listeners after the movements have been committed.
+ */
+@Getter
+@NoArgsConstructor @AllArgsConstructor
+public class StockMovementEvent {
+
+    private List<StockMovement> movements;
+
+    // Set when the movements were committed by another instance and delivered by ClusterChangeLog.
+    @JsonIgnore
+    private boolean remote;
+
+    public StockMovementEvent(List<StockMovement> movements) {
+        this(movements, false);
+    }
+
+    public StockMovementEvent asRemote() {
+        return new StockMovementEvent(movements, true);
+    }
+}
@@ -0,0 +1,8 @@
+package com.inventaro.backend.exception;
+
+public class BatchTooLargeException extends RuntimeException {
+
+    public BatchTooLargeException(int size, int maxSize) {
+        super("Batch of " + size + " lines exceeds the maximum of " + maxSize);
+    }
+}
@@ -0,0 +1,32 @@
+package com.inventaro.backend.exception;
+
+import java.util.UUID;
+
+public class InsufficientStockException extends RuntimeException {
+
+    public InsufficientStockException(UUID id, int quantity, int delta) {
+        super("Insufficient stock for article " + id + ": cannot apply " + delta + " to quantity " + quantity);
+    }
+
+    // For changes that would take stock that is stored at a location; that stock can only be changed per location.
+    public InsufficientStockException(UUID id, int quantity, int delta, int locatedQuantity) {
+        super("Insufficient stock for article " + id + ": cannot apply " + delta + " to quantity " + quantity
+                + ", of which " + locatedQuantity + " is stored at locations");
+    }
+
+    private InsufficientStockException(String message) {
+        super(message);
+    }
+
+    // For changes that would take stock that is held by reservations; it can only be taken by confirming them.
+    public static InsufficientStockException reserved(UUID id, int quantity, int delta, int reservedQuantity) {
+        return new InsufficientStockException("Insufficient stock for article " + id + ": cannot apply " + delta
+                + " to quantity " + quantity + ", of which " + reservedQuantity + " is reserved");
+    }
+
+    // For reservations of more than is available (quantity - locatedQuantity - reservedQuantity).
+    public static InsufficientStockException unavailable(UUID id, int available, int requested) {
+        return new InsufficientStockException("Insufficient stock for article " + id + ": cannot reserve "
+                + requested + ", only " + available + " available");
+    }
+}
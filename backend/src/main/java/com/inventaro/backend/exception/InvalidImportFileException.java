@@ -0,0 +1,8 @@
+package com.inventaro.backend.exception;
+
+public class InvalidImportFileException extends RuntimeException {
+
+    public InvalidImportFileException(String message) {
+        super(message);
+    }
+}
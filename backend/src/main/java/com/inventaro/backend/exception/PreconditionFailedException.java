@@ -0,0 +1,13 @@
+package com.inventaro.backend.exception;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(UUID id, long version, Collection<Long> expectedVersions) {
+        super("Article " + id + " has been modified (version " + version + ", If-Match "
+                + expectedVersions.stream().sorted().map(String::valueOf).collect(Collectors.joining(", ")) + ")");
+    }
+}
@@ -0,0 +1,11 @@
+package com.inventaro.backend.exception;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public class ReservationExpiredException extends RuntimeException {
+
+    public ReservationExpiredException(UUID id, Instant expiresAt) {
+        super("Reservation " + id + " expired at " + expiresAt);
+    }
+}
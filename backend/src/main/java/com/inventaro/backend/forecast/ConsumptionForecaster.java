@@ -0,0 +1,213 @@
+package com.inventaro.backend.forecast;
+
+import com.inventaro.backend.event.ArticleChangeEvent;
+import com.inventaro.backend.event.ArticleChangeType;
+import com.inventaro.backend.event.StockMovementEvent;
+import com.inventaro.backend.model.StockMovement;
+import com.inventaro.backend.model.StockMovementType;
+import com.inventaro.backend.repository.ArticleConsumption;
+import com.inventaro.backend.repository.StockMovementRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-article consumption rates for GET /articles/{id}/forecast, derived from the stock movement ledger.
+ *
+ * Consumption is every decrease recorded by an absolute update (SET), an adjustment (ADJUSTED) or a
+ * confirmed reservation (CONFIRMED); creations and imports add stock, and deletions are not
+ * consumption. Rates are exponentially weighted with a configurable half-life, so recent weeks
+ * count more than last season.
+ *
+ * Rates are recomputed from the ledger on startup and after bulk imports, and kept up to date from
+ * committed StockMovementEvents in between, at O(1) per movement.
+ */
+@Component
+public class ConsumptionForecaster {
+
+    private static final Set<StockMovementType> CONSUMPTION_TYPES = Set.of(
+            StockMovementType.SET, StockMovementType.ADJUSTED, StockMovementType.CONFIRMED);
+
+    // Movements older than this many half-lives weigh less than 2^-20 and are not read by a recompute.
+    private static final int HORIZON_HALF_LIVES = 20;
+
+    private final StockMovementRepository stockMovementRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final double tauSeconds;
+    private final Duration halfLife;
+    private final double coverDays;
+    private final int parallelism;
+
+    private final ReentrantLock recomputeLock = new ReentrantLock();
+
+    private volatile Map<UUID, ConsumptionRate> rates = new ConcurrentHashMap<>();
+
+    // Movements committed while a recompute reads the ledger; replayed into the new rates before they replace the old ones.
+    private List<StockMovement> pendingMovements;
+
+    public ConsumptionForecaster(StockMovementRepository stockMovementRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${inventaro.forecast.half-life:14d}") Duration halfLife,
+                                 @Value("${inventaro.forecast.lead-time:7d}") Duration leadTime,
+                                 @Value("${inventaro.forecast.safety-stock:3d}") Duration safetyStock,
+                                 @Value("${inventaro.forecast.recompute.parallelism:4}") int parallelism) {
+        this.stockMovementRepository = stockMovementRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.halfLife = halfLife;
+        this.tauSeconds = halfLife.toSeconds() / Math.log(2);
+        this.coverDays = (leadTime.toSeconds() + safetyStock.toSeconds()) / (double) Duration.ofDays(1).toSeconds();
+        this.parallelism = Math.max(parallelism, 1);
+    }
+
+    /**
+     * Forecast for an article that currently has the given quantity in stock.
+     */
+    public Forecast forecast(UUID articleId, int quantity) {
+        ConsumptionRate rate = rates.get(articleId);
+        double perDay = rate == null ? 0 : rate.perDay(Instant.now(), tauSeconds);
+        Double daysOfCover = perDay > 0 ? quantity / perDay : null;
+        // NOTE:
+        // Reorder when the stock only covers the lead time plus the safety stock at the current
+        // rate, so the delivery arrives before the safety stock is used up.
+        int reorderPoint = (int) Math.min(Math.ceil(perDay * coverDays), Integer.MAX_VALUE);
+        return new Forecast(perDay, daysOfCover, reorderPoint);
+    }
+
+    public int size() {
+        return rates.size();
+    }
+
+    /**
+     * Replaces all rates with rates computed from the ledger. The article id space is split into
+     * ranges that are aggregated in parallel, each as one grouped query, so the database does the
+     * heavy lifting and only one row per article is transferred.
+     *
+     * Forecasts are not blocked while the ledger is read; they are answered from the previous rates.
+     */
+    public void recompute() {
+        recomputeLock.lock();
+        try {
+            synchronized (this) {
+                pendingMovements = new ArrayList<>();
+            }
+            Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+            Instant horizon = now.minus(halfLife.multipliedBy(HORIZON_HALF_LIVES));
+            Map<UUID, ConsumptionRate> recomputed = new ConcurrentHashMap<>();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> partitions = new ArrayList<>(parallelism);
+                for (UUID[] range : idRanges(parallelism)) {
+                    partitions.add(executor.submit(() -> readOnlyTransaction.executeWithoutResult(status -> {
+                        for (ArticleConsumption consumption : stockMovementRepository.sumDecayedConsumption(
+                                range[0], range[1], CONSUMPTION_TYPES, horizon, now, tauSeconds)) {
+                            recomputed.put(consumption.articleId(), new ConsumptionRate(
+                                    consumption.decayedConsumption(), now, consumption.firstMovementAt()));
+                        }
+                    })));
+                }
+                for (Future<?> partition : partitions) {
+                    partition.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while recomputing consumption rates", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Could not recompute consumption rates", e.getCause());
+            }
+
+            synchronized (this) {
+                // The recompute read everything before "now"; later movements are applied on top. A movement
+                // timestamped before "now" but committed after its partition was read is missed until the next recompute.
+                for (StockMovement movement : pendingMovements) {
+                    if (!movement.getOccurredAt().isBefore(now)) {
+                        apply(recomputed, movement);
+                    }
+                }
+                rates = recomputed;
+            }
+        } finally {
+            synchronized (this) {
+                pendingMovements = null;
+            }
+            recomputeLock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void recomputeInBackground() {
+        Thread.ofVirtual().name("consumption-forecaster").start(this::recompute);
+    }
+
+    // Runs after commit, so movements of rolled back changes are never counted.
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStockMovements(StockMovementEvent event) {
+        for (StockMovement movement : event.getMovements()) {
+            apply(rates, movement);
+            if (pendingMovements != null) {
+                pendingMovements.add(movement);
+            }
+        }
+    }
+
+    // The bulk import records its movements without a StockMovementEvent and publishes a resync instead.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleChange(ArticleChangeEvent event) {
+        if (event.getType() == ArticleChangeType.RESYNC) {
+            recomputeInBackground();
+        }
+    }
+
+    private void apply(Map<UUID, ConsumptionRate> target, StockMovement movement) {
+        if (movement.getType() == StockMovementType.DELETED) {
+            target.remove(movement.getArticleId());
+            return;
+        }
+        int consumed = CONSUMPTION_TYPES.contains(movement.getType()) && movement.getDelta() < 0 ? -movement.getDelta() : 0;
+        target.compute(movement.getArticleId(), (id, rate) -> (rate == null ? ConsumptionRate.start(movement.getOccurredAt()) : rate)
+                .plus(consumed, movement.getOccurredAt(), tauSeconds));
+    }
+
+    /**
+     * Splits the UUID space into the given number of contiguous, inclusive [lower, upper] ranges,
+     * in the unsigned order the database compares UUIDs in.
+     */
+    public static List<UUID[]> idRanges(int count) {
+        long step = Long.divideUnsigned(-1L, count);
+        List<UUID[]> ranges = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID lower = new UUID(step * i, 0L);
+            UUID upper = i == count - 1 ? new UUID(-1L, -1L) : new UUID(step * (i + 1) - 1, -1L);
+            ranges.add(new UUID[]{lower, upper});
+        }
+        return ranges;
+    }
+
+    /**
+     * @param consumptionPerDay exponentially weighted consumption, in the article's unit per day
+     * @param daysOfCover       how long the current stock lasts at that rate; null if nothing is consumed
+     * @param reorderPoint      the quantity at which to reorder
+     */
+    public record Forecast(double consumptionPerDay, Double daysOfCover, int reorderPoint) {
+    }
+}
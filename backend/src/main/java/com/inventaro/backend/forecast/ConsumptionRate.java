@@ -0,0 +1,59 @@
+package com.inventaro.backend.forecast;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Exponentially weighted consumption of one article, kept as the sum of all consumed quantities
+ * weighted by exp(-age / tau) as of the instant {@code at}. Adding a movement or reading the rate
+ * is O(1): the sum is decayed to the new instant and the movement is added on top, no history is needed.
+ *
+ * For a steady consumption of r units per day the sum converges to r * tau (tau in days), so the rate
+ * is the sum divided by tau. Articles younger than a few tau have not accumulated a full window yet;
+ * their rate is corrected for the part of the window that did not exist (since the first movement).
+ *
+ * @param decayed quantities consumed before {@code at}, weighted by their age as of {@code at}
+ * @param at      the instant the weights refer to
+ * @param since   the first movement of the article
+ */
+public record ConsumptionRate(double decayed, Instant at, Instant since) {
+
+    private static final double SECONDS_PER_DAY = Duration.ofDays(1).toSeconds();
+
+    public static ConsumptionRate start(Instant since) {
+        return new ConsumptionRate(0, since, since);
+    }
+
+    /**
+     * Returns the state after consuming the given quantity at the given instant. Movements may
+     * arrive slightly out of order (they are timestamped before their transaction commits);
+     * an older one is weighted down to the current instant instead of moving it back.
+     */
+    public ConsumptionRate plus(int consumed, Instant when, double tauSeconds) {
+        Instant first = when.isBefore(since) ? when : since;
+        if (when.isBefore(at)) {
+            return new ConsumptionRate(decayed + consumed * weight(when, at, tauSeconds), at, first);
+        }
+        return new ConsumptionRate(decayed * weight(at, when, tauSeconds) + consumed, when, first);
+    }
+
+    /**
+     * Consumption per day as of now; 0 for an article that has not been consumed.
+     */
+    public double perDay(Instant now, double tauSeconds) {
+        Instant until = now.isBefore(at) ? at : now;
+        double value = decayed * weight(at, until, tauSeconds);
+        // At least a day of history, so one movement right after creation does not read as a huge rate.
+        double ageSeconds = Math.max(seconds(since, until), SECONDS_PER_DAY);
+        double windowCovered = 1 - Math.exp(-ageSeconds / tauSeconds);
+        return value / windowCovered / (tauSeconds / SECONDS_PER_DAY);
+    }
+
+    private static double weight(Instant from, Instant to, double tauSeconds) {
+        return Math.exp(-seconds(from, to) / tauSeconds);
+    }
+
+    private static double seconds(Instant from, Instant to) {
+        return Duration.between(from, to).toNanos() / 1e9;
+    }
+}
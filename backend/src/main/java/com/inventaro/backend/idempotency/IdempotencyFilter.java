@@ -0,0 +1,241 @@
+package com.inventaro.backend.idempotency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes POST, PUT, PATCH and DELETE requests with an Idempotency-Key header safe to retry,
+ * e.g. uploads from ward scanners on flaky Wi-Fi.
+ *
+ * The first request with a key runs as usual and its response is stored. A retry with the same
+ * key (and the same method and path) gets that response again, marked with Idempotent-Replayed,
+ * instead of creating a second article or re-applying an old quantity over a newer one.
+ * A request that reuses a key with another body is not a retry: it gets 422 Unprocessable Entity
+ * rather than the response to a request it did not send. A retry that arrives while the first request is still running waits for its response.
+ * Server errors (5xx) are not stored, so they can be retried. Requests without the header are
+ * passed through untouched.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private static final Set<String> MUTATING_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+
+    @Value("${inventaro.idempotency.in-flight-wait:10s}")
+    private Duration inFlightWait;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(IDEMPOTENCY_KEY) == null || !MUTATING_METHODS.contains(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY).trim();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        // The same key on another endpoint is another request, not a retry.
+        String key = request.getMethod() + " " + request.getRequestURI() + " " + idempotencyKey;
+
+        // NOTE:
+        // A claim can be released by a request that failed with a server error; the retries that
+        // were waiting for it then try to claim the key themselves, so exactly one of them runs.
+        long deadline = System.nanoTime() + inFlightWait.toNanos();
+        while (true) {
+            IdempotencyStore.Claim claim = store.claim(key);
+            if (claim.owner()) {
+                execute(claim, request, response, chain);
+                return;
+            }
+            try {
+                IdempotentResponse previous = claim.response().get(
+                        Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (!MessageDigest.isEqual(previous.requestDigest(), digest(request.getInputStream()))) {
+                    writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                            "This " + IDEMPOTENCY_KEY + " has already been used with another request body");
+                    return;
+                }
+                replay(previous, response);
+                return;
+            } catch (ExecutionException released) {
+                // The first request did not complete; claim again.
+            } catch (TimeoutException e) {
+                writeError(response, HttpStatus.CONFLICT,
+                        "A request with this " + IDEMPOTENCY_KEY + " is still being processed");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            }
+        }
+    }
+
+    private void execute(IdempotencyStore.Claim claim, HttpServletRequest request, HttpServletResponse response,
+                         FilterChain chain) throws ServletException, IOException {
+
+        DigestingRequestWrapper digesting = new DigestingRequestWrapper(request);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        byte[] requestDigest;
+        try {
+            chain.doFilter(digesting, wrapper);
+            requestDigest = digesting.digest();
+        } catch (ServletException | IOException | RuntimeException e) {
+            store.release(claim);
+            throw e;
+        }
+
+        if (wrapper.getStatus() >= 500) {
+            store.release(claim);
+        } else {
+            store.complete(claim, capture(wrapper, requestDigest));
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private static IdempotentResponse capture(ContentCachingResponseWrapper wrapper, byte[] requestDigest) {
+        Map<String, List<String>> headers = new LinkedCaseInsensitiveMap<>();
+        for (String name : wrapper.getHeaderNames()) {
+            headers.put(name, List.copyOf(wrapper.getHeaders(name)));
+        }
+        // The content length is set again on replay, from the stored body.
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        if (wrapper.getContentType() != null) {
+            headers.put(HttpHeaders.CONTENT_TYPE, List.of(wrapper.getContentType()));
+        }
+        return new IdempotentResponse(wrapper.getStatus(), headers, wrapper.getContentAsByteArray(), requestDigest);
+    }
+
+    private static byte[] digest(InputStream body) throws IOException {
+        DigestInputStream in = new DigestInputStream(body, sha256());
+        in.transferTo(OutputStream.nullOutputStream());
+        return in.getMessageDigest().digest();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void replay(IdempotentResponse previous, HttpServletResponse response) throws IOException {
+        response.setStatus(previous.status());
+        previous.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setHeader(IDEMPOTENT_REPLAYED, "true");
+        response.setContentLength(previous.body().length);
+        response.getOutputStream().write(previous.body());
+    }
+
+    private static void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(message);
+    }
+
+    /**
+     * Hashes the request body while the request reads it, so that even a large import is
+     * never held in memory.
+     */
+    private static class DigestingRequestWrapper extends HttpServletRequestWrapper {
+
+        private ServletInputStream inputStream;
+        private DigestInputStream digestStream;
+
+        DigestingRequestWrapper(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                ServletInputStream original = super.getInputStream();
+                digestStream = new DigestInputStream(original, sha256());
+                inputStream = new ServletInputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        return digestStream.read();
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        return digestStream.read(b, off, len);
+                    }
+
+                    @Override
+                    public boolean isFinished() {
+                        return original.isFinished();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return original.isReady();
+                    }
+
+                    @Override
+                    public void setReadListener(ReadListener listener) {
+                        original.setReadListener(listener);
+                    }
+                };
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        // Reads what the request left of its body, and returns the hash of the whole body.
+        byte[] digest() throws IOException {
+            getInputStream().transferTo(OutputStream.nullOutputStream());
+            return digestStream.getMessageDigest().digest();
+        }
+    }
+}
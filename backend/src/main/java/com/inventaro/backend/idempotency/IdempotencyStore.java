@@ -0,0 +1,96 @@
+package com.inventaro.backend.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Idempotency keys and the responses of the requests that used them, kept for
+ * inventaro.idempotency.ttl. Batch and import responses can be large, so the store is bounded by
+ * the size of the stored responses (inventaro.idempotency.max-size) rather than the number of keys;
+ * the least recently used keys are forgotten first.
+ *
+ * The first request with a key claims it and runs; retries with the same key wait for its
+ * response instead of running again. Claiming is a single putIfAbsent on Caffeine's concurrent
+ * map, so only requests with the same key ever wait for each other, and looking up a completed
+ * key takes no lock at all.
+ */
+@Component
+public class IdempotencyStore {
+
+    // Counted for every key besides its response body, for the key itself, the headers and the entry.
+    private static final int ENTRY_OVERHEAD = 512;
+
+    private final Cache<String, CompletableFuture<IdempotentResponse>> responses;
+
+    public IdempotencyStore(
+            @Value("${inventaro.idempotency.max-size:64MB}") DataSize maxSize,
+            @Value("${inventaro.idempotency.ttl:24h}") Duration ttl) {
+
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher(IdempotencyStore::weigh)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    // A claim is weighed again when its response is stored (see complete).
+    private static int weigh(String key, CompletableFuture<IdempotentResponse> response) {
+        IdempotentResponse completed = response.isDone() && !response.isCompletedExceptionally()
+                ? response.getNow(null)
+                : null;
+        return ENTRY_OVERHEAD + key.length() + (completed != null ? completed.body().length : 0);
+    }
+
+    /**
+     * Claims the key for the calling request, or returns the request that claimed it first.
+     * The owner of a claim must either complete or release it.
+     */
+    public Claim claim(String key) {
+        ConcurrentMap<String, CompletableFuture<IdempotentResponse>> map = responses.asMap();
+        CompletableFuture<IdempotentResponse> existing = map.get(key);
+        if (existing != null) {
+            return new Claim(key, existing, false);
+        }
+        CompletableFuture<IdempotentResponse> claimed = new CompletableFuture<>();
+        existing = map.putIfAbsent(key, claimed);
+        return existing != null ? new Claim(key, existing, false) : new Claim(key, claimed, true);
+    }
+
+    // Stores the response, and hands it to the retries that are waiting for it.
+    public void complete(Claim claim, IdempotentResponse response) {
+        claim.response().complete(response);
+        // Replacing the entry with itself makes Caffeine weigh it again, now with its body.
+        responses.asMap().replace(claim.key(), claim.response(), claim.response());
+    }
+
+    // Forgets the key (e.g. after a server error), so the next retry runs the request again.
+    public void release(Claim claim) {
+        responses.asMap().remove(claim.key(), claim.response());
+        claim.response().completeExceptionally(new IllegalStateException("Released: " + claim.key()));
+    }
+
+    // The number of stored keys, after pending evictions have run.
+    long size() {
+        responses.cleanUp();
+        return responses.estimatedSize();
+    }
+
+    // The weight of the stored keys and responses, in bytes, after pending evictions have run.
+    long weightedSize() {
+        responses.cleanUp();
+        return responses.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+    }
+
+    /**
+     * A key and the response of the request that claimed it; owner is true for that request.
+     */
+    public record Claim(String key, CompletableFuture<IdempotentResponse> response, boolean owner) {
+    }
+}
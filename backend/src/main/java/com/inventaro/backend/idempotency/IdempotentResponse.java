@@ -0,0 +1,11 @@
+package com.inventaro.backend.idempotency;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A completed response to a request with an Idempotency-Key, replayed to retries of that request.
+ * requestDigest is the SHA-256 of the request body, which a retry must repeat.
+ */
+public record IdempotentResponse(int status, Map<String, List<String>> headers, byte[] body, byte[] requestDigest) {
+}
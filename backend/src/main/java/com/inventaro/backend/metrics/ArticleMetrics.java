@@ -0,0 +1,61 @@
+package com.inventaro.backend.metrics;
+
+import com.inventaro.backend.event.ArticleChangeEvent;
+import com.inventaro.backend.event.ArticleChangeType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Business counters derived from committed article changes.
+ *
+ * Request, service and repository timings come from Spring Boot's own instrumentation
+ * (http.server.requests, @Timed on ArticleServiceImpl, spring.data.repository.invocations).
+ */
+@Component
+public class ArticleMetrics {
+
+    static final String STOCK_MOVEMENTS = "inventaro.stock.movements";
+    static final String LOW_STOCK_TRANSITIONS = "inventaro.stock.low.transitions";
+
+    private final Counter stockMovements;
+    private final Counter enteredLowStock;
+    private final Counter leftLowStock;
+
+    public ArticleMetrics(MeterRegistry registry) {
+        stockMovements = Counter.builder(STOCK_MOVEMENTS)
+                .description("Applied quantity changes (absolute updates, adjustments and batch lines)")
+                .register(registry);
+        enteredLowStock = Counter.builder(LOW_STOCK_TRANSITIONS)
+                .description("Articles whose quantity crossed their low-stock threshold")
+                .tag("direction", "entered")
+                .register(registry);
+        leftLowStock = Counter.builder(LOW_STOCK_TRANSITIONS)
+                .description("Articles whose quantity crossed their low-stock threshold")
+                .tag("direction", "left")
+                .register(registry);
+    }
+
+    // NOTE:
+    // Counted after commit so rolled back changes (e.g. a rejected batch) are not counted.
+    // Changes of other instances are counted by the instance that made them.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleChange(ArticleChangeEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        if (event.getType() == ArticleChangeType.QUANTITY_CHANGED) {
+            stockMovements.increment();
+        }
+        // A deleted article is no longer low on stock, but it did not get restocked either.
+        if (event.getType() == ArticleChangeType.RESYNC || event.getType() == ArticleChangeType.DELETED) {
+            return;
+        }
+        if (event.isLowStock() && !event.isWasLowStock()) {
+            enteredLowStock.increment();
+        } else if (!event.isLowStock() && event.isWasLowStock()) {
+            leftLowStock.increment();
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package com.inventaro.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.UUID;
 
 @Entity
-@Table(name = "article")
+@Table(name = "article", indexes = {
+        @Index(name = "idx_article_name_id", columnList = "name, id"),
+        @Index(name = "idx_article_shortage", columnList = "shortage")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,4 +32,46 @@ public class Article {
 
     @Column(name = "low_stock_threshold", nullable = false)
     private int lowStockThreshold;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    /*
+     * NOTE:
+     * shortage = lowStockThreshold - quantity, kept in its own indexed column so that
+     * low-stock articles (shortage >= 0, i.e. quantity <= lowStockThreshold, the same rule
+     * the frontend uses for its warning) can be found with an index range scan.
+     * Bulk updates that bypass these callbacks must set it themselves.
+     */
+    @JsonIgnore
+    @Column(nullable = false)
+    private int shortage;
+
+    /*
+     * NOTE:
+     * The part of quantity that is stored at a location (the sum of location_stock for this
+     * article), maintained by LocationServiceImpl. The rest has not been put away at a location
+     * yet, and only that part can be changed through the article's own quantity endpoints.
+     */
+    @ColumnDefault("0")
+    @Column(name = "located_quantity", nullable = false)
+    private int locatedQuantity;
+
+    /*
+     * NOTE:
+     * The part of quantity that is held by active reservations (the sum of their quantities),
+     * maintained by ReservationServiceImpl and ReservationExpiry. Holds are on unlocated stock, so
+     * only quantity - locatedQuantity - reservedQuantity is available for new reservations, and no
+     * other change may take quantity below locatedQuantity + reservedQuantity.
+     */
+    @ColumnDefault("0")
+    @Column(name = "reserved_quantity", nullable = false)
+    private int reservedQuantity;
+
+    @PrePersist
+    @PreUpdate
+    void updateShortage() {
+        shortage = lowStockThreshold - quantity;
+    }
 }
@@ -0,0 +1,54 @@
+package com.inventaro.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+/**
+ * One committed change, as read by the other instances sharing the database (ClusterChangeLog).
+ * Entries are written in the transaction of the change itself and deleted after
+ * inventaro.cluster.retention.
+ */
+@Entity
+@Immutable
+@Table(name = "change_log", indexes = {
+        @Index(name = "idx_change_log_created", columnList = "created_at")
+})
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogEntry {
+
+    // An identity rather than a pooled sequence: instances tail the log in id order, so ids must
+    // follow the order the entries are written in, whichever instance writes them.
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "node_id", nullable = false, length = 64)
+    private String nodeId;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 16)
+    private Kind kind;
+
+    // The event as JSON, so peers deliver the same event their own listeners would have received.
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public enum Kind {
+        // An ArticleChangeEvent
+        ARTICLE,
+        // A StockMovementEvent
+        MOVEMENTS
+    }
+}
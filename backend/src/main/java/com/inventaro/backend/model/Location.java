@@ -0,0 +1,37 @@
+package com.inventaro.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * A ward, storeroom or other place where stock is kept.
+ */
+@Entity
+@Table(name = "location", uniqueConstraints = @UniqueConstraint(name = "uk_location_name", columnNames = "name"))
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Location {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(nullable = false)
+    private String name;
+
+    /*
+     * NOTE:
+     * Totals over the location_stock rows of this location, updated in the same transaction as
+     * every change to them (see LocationServiceImpl). Listing locations with their
+     * totals is therefore a read of this table, not a GROUP BY over all stock rows.
+     */
+    @Column(name = "total_quantity", nullable = false)
+    private long totalQuantity;
+
+    // Number of articles in stock at this location, i.e. of its location_stock rows.
+    @Column(name = "article_count", nullable = false)
+    private int articleCount;
+}
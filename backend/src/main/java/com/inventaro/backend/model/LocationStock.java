@@ -0,0 +1,36 @@
+package com.inventaro.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * The quantity of one article at one location. A row only exists while the quantity is above 0.
+ */
+@Entity
+@IdClass(LocationStock.Key.class)
+@Table(name = "location_stock", indexes = {
+        @Index(name = "idx_location_stock_location", columnList = "location_id, article_id")
+})
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationStock {
+
+    // The primary key (article_id, location_id) serves the per-article reads, the index the per-location ones.
+    @Id
+    @Column(name = "article_id", nullable = false)
+    private UUID articleId;
+
+    @Id
+    @Column(name = "location_id", nullable = false)
+    private UUID locationId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    public record Key(UUID articleId, UUID locationId) implements Serializable {
+    }
+}
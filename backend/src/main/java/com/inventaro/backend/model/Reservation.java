@@ -0,0 +1,41 @@
+package com.inventaro.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A hold on stock of one article, e.g. for a planned procedure. A row only exists while the hold
+ * is active: confirming, releasing or expiring it deletes the row.
+ */
+@Entity
+@Table(name = "reservation", indexes = {
+        @Index(name = "idx_reservation_expires", columnList = "expires_at"),
+        @Index(name = "idx_reservation_article", columnList = "article_id, expires_at")
+})
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Reservation {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(name = "article_id", nullable = false)
+    private UUID articleId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    // Free text for the people handling the hold, e.g. the procedure it is for.
+    private String reference;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
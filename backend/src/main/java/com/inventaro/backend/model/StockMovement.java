@@ -0,0 +1,59 @@
+package com.inventaro.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One change to the quantity of an article. Movements are only ever inserted, never updated
+ * or deleted, so together they form the audit trail of an article's stock.
+ */
+@Entity
+@Immutable
+@Table(name = "stock_movement", indexes = {
+        @Index(name = "idx_stock_movement_article_time", columnList = "article_id, occurred_at, id")
+})
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovement {
+
+    // Sequence ids are allocated in blocks of 50, so inserts need no extra round trip and can be JDBC-batched.
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movement_seq")
+    @SequenceGenerator(name = "stock_movement_seq", sequenceName = "stock_movement_seq", allocationSize = 50)
+    private Long id;
+
+    // No foreign key: the history of an article outlives the article.
+    @Column(name = "article_id", nullable = false)
+    private UUID articleId;
+
+    // A plain VARCHAR rather than H2's native ENUM, so adding a type does not require a schema change.
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 16)
+    private StockMovementType type;
+
+    @Column(nullable = false)
+    private int delta;
+
+    /*
+     * NOTE:
+     * The quantity right after this movement. Every movement is a checkpoint of the stock,
+     * so "quantity at time T" is one index lookup of the last movement before T instead of
+     * a replay of the history.
+     */
+    @Column(name = "quantity_after", nullable = false)
+    private int quantityAfter;
+
+    @Column(name = "article_version", nullable = false)
+    private long articleVersion;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+}
@@ -0,0 +1,11 @@
+package com.inventaro.backend.model;
+
+public enum StockMovementType {
+    CREATED,
+    IMPORTED,
+    SET,
+    ADJUSTED,
+    // Stock taken out by confirming a reservation.
+    CONFIRMED,
+    DELETED
+}
@@ -0,0 +1,105 @@
+package com.inventaro.backend.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sheds read traffic when the backend is overloaded, so that stock updates keep going through.
+ *
+ * Load is measured as the number of requests in progress and a moving average of their latency.
+ * When either crosses its threshold (inventaro.shedding.in-flight-threshold and latency-threshold),
+ * LIST requests are rejected; at inventaro.shedding.read-factor times the thresholds, READ requests
+ * are rejected too. WRITE requests are never shed; they are only limited by their rate budget.
+ *
+ * A single sample counts for at most MAX_SAMPLE_FACTOR times the latency threshold, so one slow
+ * request cannot push the average over the threshold on its own.
+ */
+@Component
+public class LoadShedder {
+
+    // Weight of a new latency sample in the moving average (1/8, as in TCP's smoothed RTT).
+    private static final int EWMA_SHIFT = 3;
+
+    // Upper bound of a latency sample, relative to the threshold; with EWMA_SHIFT = 3 it takes three
+    // slow requests in a row to reach the threshold.
+    private static final int MAX_SAMPLE_FACTOR = 4;
+
+    private final int inFlightThreshold;
+    private final long latencyThresholdNanos;
+    private final double readFactor;
+    private final long latencyWindowNanos;
+    private final long maxSampleNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong averageLatencyNanos = new AtomicLong();
+    private final AtomicLong lastSampleAt = new AtomicLong(System.nanoTime());
+
+    public LoadShedder(
+            @Value("${inventaro.shedding.in-flight-threshold:100}") int inFlightThreshold,
+            @Value("${inventaro.shedding.latency-threshold:500ms}") Duration latencyThreshold,
+            @Value("${inventaro.shedding.read-factor:2}") double readFactor,
+            MeterRegistry registry) {
+
+        this.inFlightThreshold = inFlightThreshold;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.readFactor = readFactor;
+        this.latencyWindowNanos = Math.max(latencyThresholdNanos * 2, Duration.ofSeconds(1).toNanos());
+        this.maxSampleNanos = latencyThresholdNanos * MAX_SAMPLE_FACTOR;
+        Gauge.builder("inventaro.requests.in_flight", inFlight, AtomicInteger::get)
+                .description("Requests in progress")
+                .register(registry);
+        Gauge.builder("inventaro.requests.latency.average", averageLatencyNanos, latency -> latency.get() / 1e9)
+                .description("Moving average of request latency, as used for load shedding")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    /**
+     * Admits a request, or returns false if it should be shed. Every admitted request must call
+     * {@link #exit(long)} or {@link #exit()} when it is done.
+     */
+    public boolean tryEnter(RequestClass requestClass) {
+        int current = inFlight.incrementAndGet();
+        if (requestClass != RequestClass.WRITE) {
+            double load = load(current - 1, System.nanoTime());
+            double limit = requestClass == RequestClass.LIST ? 1 : readFactor;
+            if (load >= limit) {
+                inFlight.decrementAndGet();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void exit(long latencyNanos) {
+        inFlight.decrementAndGet();
+        long sample = Math.min(latencyNanos, maxSampleNanos);
+        averageLatencyNanos.getAndUpdate(average -> average + ((sample - average) >> EWMA_SHIFT));
+        lastSampleAt.set(System.nanoTime());
+    }
+
+    /**
+     * Ends a request whose latency says nothing about the load (e.g. an export).
+     */
+    public void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    // NOTE:
+    // Load relative to the thresholds: 1.0 means a threshold has been reached. The latency average
+    // only counts while requests are completing; once all shed traffic has stopped, an old average
+    // must not keep the backend closed.
+    double load(int inFlightBefore, long now) {
+        double queueLoad = (double) inFlightBefore / inFlightThreshold;
+        if (now - lastSampleAt.get() > latencyWindowNanos) {
+            return queueLoad;
+        }
+        return Math.max(queueLoad, (double) averageLatencyNanos.get() / latencyThresholdNanos);
+    }
+}
@@ -0,0 +1,149 @@
+package com.inventaro.backend.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the per-client rate limits (429 Too Many Requests) and load shedding (503 Service
+ * Unavailable) to every API request, both with a Retry-After header. Actuator endpoints and CORS
+ * preflight requests are not limited.
+ *
+ * Runs before the other application filters (e.g. idempotency), so rejected requests cost as
+ * little as possible, but after Spring Boot's observation filter, so they still show up in
+ * http.server.requests.
+ *
+ * Exports, imports and reports take as long as the data they go through, not as long as a request
+ * usually takes: they count as in progress, but their latency is not fed into the load average.
+ */
+@Component
+@Order(0)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String REJECTED = "inventaro.requests.rejected";
+
+    private static final Pattern UNSAMPLED = Pattern.compile("^/(articles/(export|import)|reports)$");
+
+    private final RateLimiter rateLimiter;
+    private final LoadShedder loadShedder;
+    private final boolean rateLimitEnabled;
+    private final boolean sheddingEnabled;
+    private final String clientHeader;
+    private final Map<RequestClass, Counter> rateLimited = new EnumMap<>(RequestClass.class);
+    private final Map<RequestClass, Counter> shed = new EnumMap<>(RequestClass.class);
+
+    public RateLimitFilter(
+            RateLimiter rateLimiter,
+            LoadShedder loadShedder,
+            @Value("${inventaro.rate-limit.enabled:true}") boolean rateLimitEnabled,
+            @Value("${inventaro.shedding.enabled:true}") boolean sheddingEnabled,
+            @Value("${inventaro.rate-limit.client-header:}") String clientHeader,
+            MeterRegistry registry) {
+
+        this.rateLimiter = rateLimiter;
+        this.loadShedder = loadShedder;
+        this.rateLimitEnabled = rateLimitEnabled;
+        this.sheddingEnabled = sheddingEnabled;
+        this.clientHeader = clientHeader;
+        for (RequestClass requestClass : RequestClass.values()) {
+            rateLimited.put(requestClass, rejectedCounter(registry, "rate_limit", requestClass));
+            shed.put(requestClass, rejectedCounter(registry, "overload", requestClass));
+        }
+    }
+
+    private static Counter rejectedCounter(MeterRegistry registry, String reason, RequestClass requestClass) {
+        return Counter.builder(REJECTED)
+                .description("Requests rejected by the rate limiter or shed under overload")
+                .tag("reason", reason)
+                .tag("class", requestClass.tag())
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return (!rateLimitEnabled && !sheddingEnabled)
+                || request.getMethod().equals("OPTIONS")
+                || request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        RequestClass requestClass = RequestClass.of(request);
+
+        if (rateLimitEnabled) {
+            long retryAfterNanos = rateLimiter.tryAcquire(clientKey(request), requestClass);
+            if (retryAfterNanos > 0) {
+                rateLimited.get(requestClass).increment();
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, retryAfterNanos,
+                        "Rate limit exceeded for " + requestClass.tag() + " requests");
+                return;
+            }
+        }
+        if (!sheddingEnabled) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (!loadShedder.tryEnter(requestClass)) {
+            shed.get(requestClass).increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1),
+                    "Server is overloaded, please retry");
+            return;
+        }
+        boolean sampled = !UNSAMPLED.matcher(request.getRequestURI().substring(request.getContextPath().length())).matches();
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (sampled) {
+                loadShedder.exit(System.nanoTime() - start);
+            } else {
+                loadShedder.exit();
+            }
+        }
+    }
+
+    // NOTE:
+    // By default clients are told apart by their IP address. Behind a reverse proxy, set
+    // inventaro.rate-limit.client-header to a header the proxy sets (e.g. X-Real-IP); a header
+    // that clients can set themselves would let them pick a fresh budget for every request.
+    private String clientKey(HttpServletRequest request) {
+        if (!clientHeader.isEmpty()) {
+            String value = request.getHeader(clientHeader);
+            if (value != null && !value.isBlank()) {
+                return value.trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterNanos, String message)
+            throws IOException {
+
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(
+                retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1))));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(message);
+    }
+}
@@ -0,0 +1,65 @@
+package com.inventaro.backend.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Per-client token buckets, with separate budgets for reads (LIST and READ) and writes, so that a
+ * client flooding GET /articles cannot use up its own, or anyone else's, budget for stock updates.
+ *
+ * Buckets are created on a client's first request and dropped after inventaro.rate-limit.idle-timeout
+ * without requests; at most inventaro.rate-limit.max-clients are kept.
+ */
+@Component
+public class RateLimiter {
+
+    private final Cache<String, Buckets> clients;
+    private final double readsPerSecond;
+    private final int readBurst;
+    private final double writesPerSecond;
+    private final int writeBurst;
+
+    public RateLimiter(
+            @Value("${inventaro.rate-limit.reads.per-second:50}") double readsPerSecond,
+            @Value("${inventaro.rate-limit.reads.burst:100}") int readBurst,
+            @Value("${inventaro.rate-limit.writes.per-second:20}") double writesPerSecond,
+            @Value("${inventaro.rate-limit.writes.burst:50}") int writeBurst,
+            @Value("${inventaro.rate-limit.max-clients:10000}") long maxClients,
+            @Value("${inventaro.rate-limit.idle-timeout:10m}") Duration idleTimeout,
+            MeterRegistry registry) {
+
+        this.readsPerSecond = readsPerSecond;
+        this.readBurst = readBurst;
+        this.writesPerSecond = writesPerSecond;
+        this.writeBurst = writeBurst;
+        this.clients = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idleTimeout)
+                .build();
+        Gauge.builder("inventaro.rate_limit.clients", clients, Cache::estimatedSize)
+                .description("Clients with rate-limit buckets")
+                .register(registry);
+    }
+
+    /**
+     * Takes one token from the client's budget for this kind of request. Returns 0 if the request
+     * may proceed, otherwise the number of nanoseconds until it may be retried.
+     */
+    public long tryAcquire(String client, RequestClass requestClass) {
+        long now = System.nanoTime();
+        Buckets buckets = clients.get(client, key -> new Buckets(
+                new TokenBucket(readsPerSecond, readBurst, now),
+                new TokenBucket(writesPerSecond, writeBurst, now)));
+        TokenBucket bucket = requestClass == RequestClass.WRITE ? buckets.writes() : buckets.reads();
+        return bucket.tryAcquire(now);
+    }
+
+    private record Buckets(TokenBucket reads, TokenBucket writes) {
+    }
+}
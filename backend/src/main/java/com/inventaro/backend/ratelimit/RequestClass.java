@@ -0,0 +1,36 @@
+package com.inventaro.backend.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Kinds of requests with their own rate budget and shedding priority. Under overload, LIST
+ * requests are shed first, then READ requests; WRITE requests (stock updates) are never shed.
+ */
+public enum RequestClass {
+
+    // GET requests for collections: GET /articles, /articles/page, /articles/search, /locations, ...
+    LIST,
+    // GET requests for one resource, e.g. GET /articles/{id} or /articles/{id}/stock.
+    READ,
+    // Everything that changes data (POST, PUT, PATCH, DELETE).
+    WRITE;
+
+    private static final Pattern SINGLE_RESOURCE = Pattern.compile(
+            "^/[a-z-]+/[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}(/.*)?$");
+
+    public static RequestClass of(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!method.equals("GET") && !method.equals("HEAD")) {
+            return WRITE;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return SINGLE_RESOURCE.matcher(path).matches() ? READ : LIST;
+    }
+
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
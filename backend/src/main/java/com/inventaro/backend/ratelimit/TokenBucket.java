@@ -0,0 +1,44 @@
+package com.inventaro.backend.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket that refills at a fixed rate up to a burst size, kept in a single AtomicLong so
+ * that taking a token is one compare-and-set and never blocks.
+ *
+ * Instead of a token count, the bucket stores the instant at which it will be full again
+ * (the "theoretical arrival time" of the generic cell rate algorithm). Taking a token moves that
+ * instant one refill interval further; a request is rejected when it would move it more than
+ * burst intervals past now.
+ */
+final class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(double tokensPerSecond, int burst, long now) {
+        this.nanosPerToken = Math.max(1, (long) (1_000_000_000L / tokensPerSecond));
+        this.burstNanos = nanosPerToken * burst;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Takes a token at the given instant (System.nanoTime()). Returns 0 if a token was taken,
+     * otherwise the number of nanoseconds until the next token is available.
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            // An idle bucket is full, but does not save up more than burst tokens.
+            long next = (current - now > 0 ? current : now) + nanosPerToken;
+            long ahead = next - now;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.inventaro.backend.report;
+
+import com.inventaro.backend.dto.InventoryReportResult;
+import com.inventaro.backend.forecast.ConsumptionForecaster;
+import com.inventaro.backend.model.StockMovementType;
+import com.inventaro.backend.repository.ArticleRepository;
+import com.inventaro.backend.repository.ArticleStockLevel;
+import com.inventaro.backend.repository.StockMovementRepository;
+import com.inventaro.backend.service.CsvReader;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Writes the inventory reports as CSV files to inventaro.reports.directory, on the
+ * inventaro.reports.cron schedule and on demand (POST /reports):
+ * - low-stock: the low-stock articles, most severe shortage first
+ * - units: per unit, the number of articles, the quantity in stock and reserved, and how many are low on stock
+ * - movements: per movement type, the ledger movements of the last inventaro.reports.movements.period
+ *
+ * All three come from a single pass over the article table. The id space is split into ranges
+ * that are streamed in parallel, each into its own {@link ReportAccumulator}, so memory use is
+ * bounded however large the catalogue is. Each range is read in its own transaction, so the
+ * report is not one snapshot of the whole catalogue while it is being changed.
+ */
+@Slf4j
+@Component
+public class InventoryReportGenerator {
+
+    static final String DURATION = "inventaro.reports.duration";
+
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final ArticleRepository articleRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Path directory;
+    private final int parallelism;
+    private final int maxLowStockRows;
+    private final Duration movementsPeriod;
+
+    private final Timer aggregateTimer;
+    private final Timer writeTimer;
+
+    // One report at a time; an on-demand run waits for a scheduled one and vice versa.
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public InventoryReportGenerator(ArticleRepository articleRepository,
+                                    StockMovementRepository stockMovementRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry registry,
+                                    @Value("${inventaro.reports.directory:reports}") Path directory,
+                                    @Value("${inventaro.reports.parallelism:4}") int parallelism,
+                                    @Value("${inventaro.reports.low-stock.max-rows:10000}") int maxLowStockRows,
+                                    @Value("${inventaro.reports.movements.period:1d}") Duration movementsPeriod) {
+        this.articleRepository = articleRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.directory = directory;
+        this.parallelism = Math.max(parallelism, 1);
+        this.maxLowStockRows = Math.max(maxLowStockRows, 0);
+        this.movementsPeriod = movementsPeriod;
+
+        aggregateTimer = Timer.builder(DURATION)
+                .description("Time spent generating inventory reports")
+                .tag("phase", "aggregate")
+                .register(registry);
+        writeTimer = Timer.builder(DURATION)
+                .description("Time spent generating inventory reports")
+                .tag("phase", "write")
+                .register(registry);
+    }
+
+    @Scheduled(cron = "${inventaro.reports.cron:-}")
+    void generateScheduled() {
+        generate();
+    }
+
+    public InventoryReportResult generate() {
+        lock.lock();
+        try {
+            Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+            Instant from = now.minus(movementsPeriod);
+
+            long start = System.nanoTime();
+            ReportAccumulator report = aggregate(from, now);
+            long aggregateNanos = System.nanoTime() - start;
+            aggregateTimer.record(aggregateNanos, TimeUnit.NANOSECONDS);
+
+            start = System.nanoTime();
+            List<ArticleStockLevel> lowStockRows = report.lowStockRows();
+            List<String> files = write(now, from, report, lowStockRows);
+            long writeNanos = System.nanoTime() - start;
+            writeTimer.record(writeNanos, TimeUnit.NANOSECONDS);
+
+            log.info("Inventory report {}: {} articles ({} low on stock) aggregated in {} ms, written in {} ms",
+                    FILE_TIMESTAMP.format(now), report.getArticles(), report.getLowStockArticles(),
+                    TimeUnit.NANOSECONDS.toMillis(aggregateNanos), TimeUnit.NANOSECONDS.toMillis(writeNanos));
+            return new InventoryReportResult(now, from, report.getArticles(), report.getLowStockArticles(),
+                    lowStockRows.size(), files,
+                    TimeUnit.NANOSECONDS.toMillis(aggregateNanos), TimeUnit.NANOSECONDS.toMillis(writeNanos));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReportAccumulator aggregate(Instant from, Instant to) {
+        ReportAccumulator report = new ReportAccumulator(maxLowStockRows);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<ReportAccumulator>> partitions = new ArrayList<>(parallelism);
+            for (UUID[] range : ConsumptionForecaster.idRanges(parallelism)) {
+                partitions.add(executor.submit(() -> readOnlyTransaction.execute(status -> aggregate(range, from, to))));
+            }
+            for (Future<ReportAccumulator> partition : partitions) {
+                report.merge(partition.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating the inventory report", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not generate the inventory report", e.getCause());
+        }
+        return report;
+    }
+
+    private ReportAccumulator aggregate(UUID[] range, Instant from, Instant to) {
+        ReportAccumulator partition = new ReportAccumulator(maxLowStockRows);
+        try (Stream<ArticleStockLevel> articles = articleRepository.streamStockLevels(range[0], range[1])) {
+            articles.forEach(partition::add);
+        }
+        stockMovementRepository.sumMovementsByType(range[0], range[1], from, to).forEach(partition::add);
+        return partition;
+    }
+
+    private List<String> write(Instant now, Instant from, ReportAccumulator report, List<ArticleStockLevel> lowStockRows) {
+        String prefix = "inventory-" + FILE_TIMESTAMP.format(now) + "-";
+        try {
+            Files.createDirectories(directory);
+            return List.of(
+                    writeFile(prefix + "low-stock.csv", writer -> {
+                        writer.write("id,name,unit,quantity,reservedQuantity,lowStockThreshold,shortage\n");
+                        for (ArticleStockLevel article : lowStockRows) {
+                            writer.write(article.id() + "," + CsvReader.escape(article.name()) + ","
+                                    + CsvReader.escape(article.unit()) + "," + article.quantity() + ","
+                                    + article.reservedQuantity() + "," + article.lowStockThreshold() + ","
+                                    + article.shortage() + "\n");
+                        }
+                    }),
+                    writeFile(prefix + "units.csv", writer -> {
+                        writer.write("unit,articles,quantity,reservedQuantity,availableQuantity,lowStockArticles\n");
+                        for (Map.Entry<String, ReportAccumulator.UnitTotals> unit : report.getUnits().entrySet()) {
+                            ReportAccumulator.UnitTotals totals = unit.getValue();
+                            writer.write(CsvReader.escape(unit.getKey()) + "," + totals.articles + ","
+                                    + totals.quantity + "," + totals.reservedQuantity + ","
+                                    + (totals.quantity - totals.reservedQuantity) + "," + totals.lowStockArticles + "\n");
+                        }
+                    }),
+                    writeFile(prefix + "movements.csv", writer -> {
+                        writer.write("from,to,type,movements,added,removed\n");
+                        for (Map.Entry<StockMovementType, ReportAccumulator.MovementTotals> type : report.getMovements().entrySet()) {
+                            ReportAccumulator.MovementTotals totals = type.getValue();
+                            writer.write(from + "," + now + "," + type.getKey() + "," + totals.movements + ","
+                                    + totals.added + "," + totals.removed + "\n");
+                        }
+                    }));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the inventory report to " + directory, e);
+        }
+    }
+
+    // Written next to the target and moved into place, so a half-written report is never picked up.
+    private String writeFile(String name, CsvContent content) throws IOException {
+        Path target = directory.resolve(name);
+        Path temporary = directory.resolve(name + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            content.writeTo(writer);
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return name;
+    }
+
+    @FunctionalInterface
+    private interface CsvContent {
+        void writeTo(Writer writer) throws IOException;
+    }
+}
@@ -0,0 +1,137 @@
+package com.inventaro.backend.report;
+
+import com.inventaro.backend.model.StockMovementType;
+import com.inventaro.backend.repository.ArticleStockLevel;
+import com.inventaro.backend.repository.MovementTotal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Everything an inventory report needs, aggregated from one pass over the rows of a partition.
+ * Memory does not grow with the catalogue: one entry per unit and per movement type, and at most
+ * maxLowStockRows low-stock articles (the most severe shortages; the rest are only counted).
+ *
+ * Not thread-safe: each partition fills its own accumulator, and they are merged at the end.
+ */
+final class ReportAccumulator {
+
+    // Most severe shortage first, then by name, as in GET /articles/low-stock.
+    static final Comparator<ArticleStockLevel> BY_SEVERITY = Comparator
+            .comparingInt(ArticleStockLevel::shortage).reversed()
+            .thenComparing(ArticleStockLevel::name)
+            .thenComparing(ArticleStockLevel::id);
+
+    private final int maxLowStockRows;
+
+    private final Map<String, UnitTotals> units = new TreeMap<>();
+    private final Map<StockMovementType, MovementTotals> movements = new EnumMap<>(StockMovementType.class);
+
+    // The least severe of the kept rows is at the head, so it is the one replaced by a more severe one.
+    private final PriorityQueue<ArticleStockLevel> lowStock;
+
+    private long articles;
+    private long lowStockArticles;
+
+    ReportAccumulator(int maxLowStockRows) {
+        this.maxLowStockRows = maxLowStockRows;
+        this.lowStock = new PriorityQueue<>(BY_SEVERITY.reversed());
+    }
+
+    void add(ArticleStockLevel article) {
+        articles++;
+        UnitTotals unit = units.computeIfAbsent(article.unit(), u -> new UnitTotals());
+        unit.articles++;
+        unit.quantity += article.quantity();
+        unit.reservedQuantity += article.reservedQuantity();
+        if (article.isLowStock()) {
+            unit.lowStockArticles++;
+            lowStockArticles++;
+            keepLowStock(article);
+        }
+    }
+
+    void add(MovementTotal total) {
+        MovementTotals totals = movements.computeIfAbsent(total.type(), t -> new MovementTotals());
+        totals.movements += total.movements();
+        totals.added += total.added();
+        totals.removed += total.removed();
+    }
+
+    /**
+     * Adds the totals and kept rows of another partition to this one.
+     */
+    ReportAccumulator merge(ReportAccumulator other) {
+        articles += other.articles;
+        lowStockArticles += other.lowStockArticles;
+        other.units.forEach((unit, totals) -> units.computeIfAbsent(unit, u -> new UnitTotals()).add(totals));
+        other.movements.forEach((type, totals) -> movements.computeIfAbsent(type, t -> new MovementTotals()).add(totals));
+        other.lowStock.forEach(this::keepLowStock);
+        return this;
+    }
+
+    private void keepLowStock(ArticleStockLevel article) {
+        if (lowStock.size() < maxLowStockRows) {
+            lowStock.add(article);
+        } else if (maxLowStockRows > 0 && BY_SEVERITY.compare(article, lowStock.peek()) < 0) {
+            lowStock.poll();
+            lowStock.add(article);
+        }
+    }
+
+    long getArticles() {
+        return articles;
+    }
+
+    long getLowStockArticles() {
+        return lowStockArticles;
+    }
+
+    /**
+     * The kept low-stock articles, most severe shortage first.
+     */
+    List<ArticleStockLevel> lowStockRows() {
+        List<ArticleStockLevel> rows = new ArrayList<>(lowStock);
+        rows.sort(BY_SEVERITY);
+        return rows;
+    }
+
+    Map<String, UnitTotals> getUnits() {
+        return units;
+    }
+
+    Map<StockMovementType, MovementTotals> getMovements() {
+        return movements;
+    }
+
+    static final class UnitTotals {
+        long articles;
+        long quantity;
+        long reservedQuantity;
+        long lowStockArticles;
+
+        private void add(UnitTotals other) {
+            articles += other.articles;
+            quantity += other.quantity;
+            reservedQuantity += other.reservedQuantity;
+            lowStockArticles += other.lowStockArticles;
+        }
+    }
+
+    static final class MovementTotals {
+        long movements;
+        long added;
+        long removed;
+
+        private void add(MovementTotals other) {
+            movements += other.movements;
+            added += other.added;
+            removed += other.removed;
+        }
+    }
+}
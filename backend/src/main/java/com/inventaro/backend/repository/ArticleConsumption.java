@@ -0,0 +1,11 @@
+package com.inventaro.backend.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Consumption of one article aggregated from the ledger: the consumed quantities weighted
+ * by their age, and the first movement that was read.
+ */
+public record ArticleConsumption(UUID articleId, Double decayedConsumption, Instant firstMovementAt) {
+}
@@ -0,0 +1,9 @@
+package com.inventaro.backend.repository;
+
+import java.util.UUID;
+
+/**
+ * Id and name of an article, read without loading the entity.
+ */
+public record ArticleName(UUID id, String name) {
+}
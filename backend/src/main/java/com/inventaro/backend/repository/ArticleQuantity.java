@@ -0,0 +1,9 @@
+package com.inventaro.backend.repository;
+
+import java.util.UUID;
+
+/**
+ * Quantity of one article at a location, with the name and unit of the article.
+ */
+public record ArticleQuantity(UUID articleId, String name, String unit, int quantity) {
+}
@@ -1,9 +1,107 @@
 package com.inventaro.backend.repository;
 
 import com.inventaro.backend.model.Article;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface ArticleRepository extends JpaRepository<Article, UUID> {
-}
\ No newline at end of file
+
+    List<Article> findAllByOrderByNameAscIdAsc(Limit limit);
+
+    // NOTE:
+    // Keyset ("seek") pagination: continue strictly after the (name, id) of the last row on the
+    // previous page. The redundant "a.name >= :name" gives the database a range start on the
+    // (name, id) index, so no rows are skipped with OFFSET no matter how deep the page is.
+    @Query("""
+            SELECT a FROM Article a
+            WHERE a.name >= :name AND (a.name > :name OR a.id > :id)
+            ORDER BY a.name ASC, a.id ASC
+            """)
+    List<Article> findPageAfter(@Param("name") String name, @Param("id") UUID id, Limit limit);
+
+    // NOTE:
+    // Applies a stock delta as one conditional UPDATE, so concurrent adjustments are serialized
+    // by the row lock instead of racing in a read-modify-write. Returns 0 if the article does not
+    // exist or if the delta would take stock that is stored at a location or held by reservations
+    // (or make the stock negative, as neither is below 0), or if version is given and the
+    // article is at another version (If-Match). The version is bumped by hand because bulk updates
+    // bypass Hibernate's automatic @Version handling.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Article a
+            SET a.quantity = a.quantity + :delta,
+                a.shortage = a.lowStockThreshold - (a.quantity + :delta),
+                a.version = a.version + 1
+            WHERE a.id = :id AND a.quantity + :delta >= a.locatedQuantity + a.reservedQuantity
+              AND (:version IS NULL OR a.version = :version)
+            """)
+    int adjustQuantity(@Param("id") UUID id, @Param("delta") int delta, @Param("version") Long version);
+
+    // Places a hold in the same way: one conditional UPDATE that only succeeds while at least
+    // quantity is available, so concurrent reservations of the last items cannot both succeed.
+    // Holds are drawn from unlocated stock, which is what a confirm takes out. Returns 0 if the
+    // article does not exist or not enough is available.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Article a
+            SET a.reservedQuantity = a.reservedQuantity + :quantity,
+                a.version = a.version + 1
+            WHERE a.id = :id AND a.quantity - a.locatedQuantity - a.reservedQuantity >= :quantity
+            """)
+    int reserve(@Param("id") UUID id, @Param("quantity") int quantity);
+
+    // Low-stock articles, most severe shortage first. Only reads the idx_article_shortage range.
+    @Query("SELECT a FROM Article a WHERE a.shortage >= 0 ORDER BY a.shortage DESC, a.name ASC")
+    List<Article> findLowStock(Limit limit);
+
+    // Reads the version without loading the article, e.g. before a bulk UPDATE of it.
+    @Query("SELECT a.version FROM Article a WHERE a.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    // Locks the articles of a batch (in id order, to avoid deadlocks between concurrent batches)
+    // so every line can be applied to the current quantity without racing other writers.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Article a WHERE a.id IN :ids ORDER BY a.id")
+    List<Article> findAllByIdForUpdate(@Param("ids") Collection<UUID> ids);
+
+    // NOTE:
+    // Used by the export to stream the whole catalogue. The fetch size keeps the JDBC driver from
+    // loading the full result at once; callers must consume the stream inside a transaction and
+    // detach rows they are done with.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM Article a ORDER BY a.name ASC, a.id ASC")
+    Stream<Article> streamAllOrderedByName();
+
+    // One range of the id space as flat rows, for the report pipeline: a range scan of the primary
+    // key that several readers can run side by side, without entities piling up in the persistence context.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            SELECT new com.inventaro.backend.repository.ArticleStockLevel(
+                a.id, a.name, a.unit, a.quantity, a.reservedQuantity, a.lowStockThreshold, a.shortage)
+            FROM Article a
+            WHERE a.id BETWEEN :lowerId AND :upperId
+            """)
+    Stream<ArticleStockLevel> streamStockLevels(@Param("lowerId") UUID lowerId, @Param("upperId") UUID upperId);
+
+    // Only id and name, for (re)building the search index without loading full entities.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.inventaro.backend.repository.ArticleName(a.id, a.name) FROM Article a")
+    Stream<ArticleName> streamAllNames();
+}
@@ -0,0 +1,15 @@
+package com.inventaro.backend.repository;
+
+import java.util.UUID;
+
+/**
+ * The stock of one article as read by the report pipeline, without loading the entity.
+ */
+public record ArticleStockLevel(UUID id, String name, String unit, int quantity, int reservedQuantity,
+                                int lowStockThreshold, int shortage) {
+
+    // Same rule as GET /articles/low-stock.
+    public boolean isLowStock() {
+        return shortage >= 0;
+    }
+}
@@ -0,0 +1,29 @@
+package com.inventaro.backend.repository;
+
+import com.inventaro.backend.model.ChangeLogEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    // The entries after the last one read; a range scan of the primary key.
+    @Query("SELECT c FROM ChangeLogEntry c WHERE c.id > :afterId ORDER BY c.id ASC")
+    List<ChangeLogEntry> findAfter(@Param("afterId") long afterId, Limit limit);
+
+    @Query("SELECT c FROM ChangeLogEntry c WHERE c.id IN :ids ORDER BY c.id ASC")
+    List<ChangeLogEntry> findAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM ChangeLogEntry c")
+    long findLastId();
+
+    @Modifying
+    @Query("DELETE FROM ChangeLogEntry c WHERE c.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+}
@@ -0,0 +1,9 @@
+package com.inventaro.backend.repository;
+
+import java.util.UUID;
+
+/**
+ * Quantity of an article at one location, with the name of the location.
+ */
+public record LocationQuantity(UUID locationId, String locationName, int quantity) {
+}
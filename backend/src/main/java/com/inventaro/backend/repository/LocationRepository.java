@@ -0,0 +1,23 @@
+package com.inventaro.backend.repository;
+
+import com.inventaro.backend.model.Location;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface LocationRepository extends JpaRepository<Location, UUID> {
+
+    List<Location> findAllByOrderByNameAscIdAsc();
+
+    // Locks a location whose totals are about to change, so concurrent changes at the same location
+    // are applied one after the other instead of overwriting each other's totals.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM Location l WHERE l.id = :id")
+    Optional<Location> findByIdForUpdate(@Param("id") UUID id);
+}
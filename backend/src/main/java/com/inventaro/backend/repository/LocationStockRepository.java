@@ -0,0 +1,35 @@
+package com.inventaro.backend.repository;
+
+import com.inventaro.backend.model.LocationStock;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface LocationStockRepository extends JpaRepository<LocationStock, LocationStock.Key> {
+
+    List<LocationStock> findAllByArticleId(UUID articleId);
+
+    // Stock of one article per location; reads only the primary key range of the article.
+    @Query("""
+            SELECT new com.inventaro.backend.repository.LocationQuantity(s.locationId, l.name, s.quantity)
+            FROM LocationStock s JOIN Location l ON l.id = s.locationId
+            WHERE s.articleId = :articleId
+            ORDER BY l.name ASC, l.id ASC
+            """)
+    List<LocationQuantity> findByArticle(@Param("articleId") UUID articleId);
+
+    // Keyset pagination over the articles in stock at one location, on the (location_id, article_id) index.
+    @Query("""
+            SELECT new com.inventaro.backend.repository.ArticleQuantity(s.articleId, a.name, a.unit, s.quantity)
+            FROM LocationStock s JOIN Article a ON a.id = s.articleId
+            WHERE s.locationId = :locationId AND s.articleId > :afterId
+            ORDER BY s.articleId ASC
+            """)
+    List<ArticleQuantity> findPageByLocation(@Param("locationId") UUID locationId,
+                                             @Param("afterId") UUID afterId,
+                                             Limit limit);
+}
@@ -0,0 +1,10 @@
+package com.inventaro.backend.repository;
+
+import com.inventaro.backend.model.StockMovementType;
+
+/**
+ * Ledger movements of one type in a period: how many there were, and the quantities they added
+ * and took out.
+ */
+public record MovementTotal(StockMovementType type, long movements, long added, long removed) {
+}
@@ -0,0 +1,37 @@
+package com.inventaro.backend.repository;
+
+import com.inventaro.backend.model.Reservation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ReservationRepository extends JpaRepository<Reservation, UUID> {
+
+    List<Reservation> findAllByArticleIdOrderByExpiresAtAscIdAsc(UUID articleId);
+
+    // Always a query, never the persistence context, so a hold deleted by a concurrent transaction is not found.
+    Optional<Reservation> findByIdAndArticleId(UUID id, UUID articleId);
+
+    // The holds that are due first; a range scan from the start of idx_reservation_expires.
+    @Query("SELECT r FROM Reservation r WHERE r.expiresAt <= :now ORDER BY r.expiresAt ASC")
+    List<Reservation> findExpired(@Param("now") Instant now, Limit limit);
+
+    @Query("SELECT r FROM Reservation r WHERE r.articleId IN :articleIds AND r.expiresAt <= :now")
+    List<Reservation> findExpiredByArticleIds(@Param("articleIds") Collection<UUID> articleIds, @Param("now") Instant now);
+
+    // The next deadline, read from the first entry of idx_reservation_expires (null when there are no holds).
+    @Query("SELECT MIN(r.expiresAt) FROM Reservation r")
+    Instant findEarliestExpiry();
+
+    @Modifying
+    @Query("DELETE FROM Reservation r WHERE r.articleId = :articleId")
+    int deleteAllByArticleId(@Param("articleId") UUID articleId);
+}
@@ -0,0 +1,90 @@
+package com.inventaro.backend.repository;
+
+import com.inventaro.backend.model.StockMovement;
+import com.inventaro.backend.model.StockMovementType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    @Query("""
+            SELECT m FROM StockMovement m
+            WHERE m.articleId = :articleId AND m.occurredAt >= :from AND m.occurredAt < :to
+            ORDER BY m.occurredAt ASC, m.id ASC
+            """)
+    List<StockMovement> findPage(@Param("articleId") UUID articleId,
+                                 @Param("from") Instant from,
+                                 @Param("to") Instant to,
+                                 Limit limit);
+
+    // Keyset pagination within a time range, continuing strictly after (occurredAt, id) of the previous page.
+    @Query("""
+            SELECT m FROM StockMovement m
+            WHERE m.articleId = :articleId
+              AND m.occurredAt >= :afterTime AND (m.occurredAt > :afterTime OR m.id > :afterId)
+              AND m.occurredAt < :to
+            ORDER BY m.occurredAt ASC, m.id ASC
+            """)
+    List<StockMovement> findPageAfter(@Param("articleId") UUID articleId,
+                                      @Param("afterTime") Instant afterTime,
+                                      @Param("afterId") long afterId,
+                                      @Param("to") Instant to,
+                                      Limit limit);
+
+    Optional<StockMovement> findFirstByArticleIdAndOccurredAtLessThanEqualOrderByOccurredAtDescIdDesc(
+            UUID articleId, Instant at);
+
+    Optional<StockMovement> findFirstByArticleIdAndOccurredAtGreaterThanOrderByOccurredAtAscIdAsc(
+            UUID articleId, Instant at);
+
+    // NOTE:
+    // Consumption per article in one grouped scan of the ledger: every consumed quantity is weighted
+    // by exp(-age / tau) as of :now, which is exactly the state the incremental exponentially weighted
+    // average reaches after applying the same movements one by one. Restricted to a range of article
+    // ids so the ledger can be read in parallel partitions, and to movements since :horizon, before
+    // which the weights are negligible.
+    @Query("""
+            SELECT new com.inventaro.backend.repository.ArticleConsumption(
+                m.articleId,
+                SUM(CASE WHEN m.type IN :consumptionTypes AND m.delta < 0
+                         THEN -m.delta * EXP(((m.occurredAt - :now) BY SECOND) / CAST(:tauSeconds AS Double))
+                         ELSE 0 END),
+                MIN(m.occurredAt))
+            FROM StockMovement m
+            WHERE m.articleId BETWEEN :lowerId AND :upperId
+              AND m.occurredAt >= :horizon AND m.occurredAt < :now
+            GROUP BY m.articleId
+            """)
+    List<ArticleConsumption> sumDecayedConsumption(@Param("lowerId") UUID lowerId,
+                                                   @Param("upperId") UUID upperId,
+                                                   @Param("consumptionTypes") Collection<StockMovementType> consumptionTypes,
+                                                   @Param("horizon") Instant horizon,
+                                                   @Param("now") Instant now,
+                                                   @Param("tauSeconds") double tauSeconds);
+
+    // Movement totals per type in [from, to) for a range of article ids, so the report pipeline
+    // can read the ledger in the same partitions as the articles.
+    @Query("""
+            SELECT new com.inventaro.backend.repository.MovementTotal(
+                m.type,
+                COUNT(m),
+                SUM(CASE WHEN m.delta > 0 THEN m.delta ELSE 0 END),
+                SUM(CASE WHEN m.delta < 0 THEN -m.delta ELSE 0 END))
+            FROM StockMovement m
+            WHERE m.articleId BETWEEN :lowerId AND :upperId
+              AND m.occurredAt >= :from AND m.occurredAt < :to
+            GROUP BY m.type
+            """)
+    List<MovementTotal> sumMovementsByType(@Param("lowerId") UUID lowerId,
+                                           @Param("upperId") UUID upperId,
+                                           @Param("from") Instant from,
+                                           @Param("to") Instant to);
+}
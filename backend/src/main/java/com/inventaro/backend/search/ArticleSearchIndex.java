@@ -0,0 +1,245 @@
+package com.inventaro.backend.search;
+
+import com.inventaro.backend.event.ArticleChangeEvent;
+import com.inventaro.backend.repository.ArticleName;
+import com.inventaro.backend.repository.ArticleRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory token index over article names for GET /articles/search.
+ *
+ * Names are split into tokens, lower-cased and stripped of accents ("Plåster" is indexed as "plaster"),
+ * and every token is stored as a (token, article id) posting in a sorted set. A query matches an
+ * article when every query token is a prefix of one of the article's tokens, so "hand nitr" finds
+ * "Handskar nitril M". Reads are lock-free; writes are serialized.
+ *
+ * The index is built on startup and kept in sync from committed ArticleChangeEvents.
+ */
+@Component
+public class ArticleSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    // Postings sort by token, then id; a null id sorts first, so (prefix, null) starts a prefix range.
+    private static final Comparator<Posting> POSTING_ORDER = Comparator.comparing(Posting::token)
+            .thenComparing(Posting::id, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final ArticleRepository articleRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile Index index = new Index();
+
+    // Writes made while a rebuild reads the table; replayed into the new index before it replaces the old one.
+    private List<Consumer<Index>> pendingWrites;
+
+    public ArticleSearchIndex(ArticleRepository articleRepository, PlatformTransactionManager transactionManager) {
+        this.articleRepository = articleRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Returns the ids of up to limit articles matching the query, or none for a query without tokens.
+     */
+    public List<UUID> search(String query, int limit) {
+        String[] queryTokens = tokenize(query);
+        if (queryTokens.length == 0) {
+            return List.of();
+        }
+
+        // NOTE:
+        // An article matching the query has a posting in the prefix range of every query token, so the
+        // ranges are scanned side by side: matches are found at the pace of the most selective token,
+        // and the scan is complete as soon as the narrowest range ends.
+        Index current = index;
+        List<Iterator<Posting>> ranges = new ArrayList<>(queryTokens.length);
+        for (String queryToken : queryTokens) {
+            ranges.add(current.postings.tailSet(new Posting(queryToken, null)).iterator());
+        }
+        Set<UUID> matches = new LinkedHashSet<>();
+        scan:
+        while (matches.size() < limit) {
+            for (int i = 0; i < queryTokens.length; i++) {
+                Iterator<Posting> range = ranges.get(i);
+                Posting posting = range.hasNext() ? range.next() : null;
+                if (posting == null || !posting.token().startsWith(queryTokens[i])) {
+                    break scan;
+                }
+                Document document = current.documents.get(posting.id());
+                if (document != null && document.matchesAll(queryTokens) && matches.add(posting.id())
+                        && matches.size() == limit) {
+                    break scan;
+                }
+            }
+        }
+        return List.copyOf(matches);
+    }
+
+    public int size() {
+        return index.documents.size();
+    }
+
+    /**
+     * Replaces the index with the current contents of the article table. Also used after writes
+     * that bypass the service layer, such as the bulk import or benchmark seeding.
+     *
+     * Searches and writes are not blocked while the table is read; until the new index is swapped
+     * in, searches are answered from the previous one.
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            synchronized (this) {
+                pendingWrites = new ArrayList<>();
+            }
+            Index rebuilt = new Index();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<ArticleName> names = articleRepository.streamAllNames()) {
+                    names.forEach(name -> rebuilt.put(name.id(), name.name()));
+                }
+            });
+            synchronized (this) {
+                pendingWrites.forEach(write -> write.accept(rebuilt));
+                index = rebuilt;
+            }
+        } finally {
+            synchronized (this) {
+                pendingWrites = null;
+            }
+            rebuildLock.unlock();
+        }
+    }
+
+    // NOTE:
+    // Built in the background, so a large catalogue does not delay startup. Until it is ready,
+    // searches only find articles created or renamed since the application started.
+    @EventListener(ApplicationReadyEvent.class)
+    void rebuildInBackground() {
+        Thread.ofVirtual().name("article-search-index").start(this::rebuild);
+    }
+
+    public synchronized void put(UUID id, String name) {
+        write(current -> current.put(id, name));
+    }
+
+    public synchronized void remove(UUID id) {
+        write(current -> current.remove(id));
+    }
+
+    private void write(Consumer<Index> write) {
+        write.accept(index);
+        if (pendingWrites != null) {
+            pendingWrites.add(write);
+        }
+    }
+
+    // Runs after commit, like the other ArticleChangeEvent listeners, so rolled back names are never indexed.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleChange(ArticleChangeEvent event) {
+        switch (event.getType()) {
+            case CREATED, UPDATED -> put(event.getArticleId(), event.getArticle().getName());
+            case DELETED -> remove(event.getArticleId());
+            case RESYNC -> rebuildInBackground();
+            case QUANTITY_CHANGED -> {
+                // The name did not change.
+            }
+        }
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return TOKEN_SEPARATOR.splitAsStream(folded.toLowerCase(Locale.ROOT))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    private record Posting(String token, UUID id) {
+    }
+
+    private record Document(String name, String[] tokens) {
+
+        boolean matchesAll(String[] queryTokens) {
+            for (String queryToken : queryTokens) {
+                if (!matches(queryToken)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean matches(String queryToken) {
+            for (String token : tokens) {
+                if (token.startsWith(queryToken)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Index {
+
+        private final NavigableSet<Posting> postings = new ConcurrentSkipListSet<>(POSTING_ORDER);
+        private final Map<UUID, Document> documents = new ConcurrentHashMap<>();
+
+        void put(UUID id, String name) {
+            Document previous = documents.get(id);
+            if (previous != null && previous.name().equals(name)) {
+                return;
+            }
+            Document document = new Document(name, tokenize(name));
+            // Add the new postings before removing the old ones, so a concurrent search does not miss the article.
+            for (String token : document.tokens()) {
+                postings.add(new Posting(token, id));
+            }
+            documents.put(id, document);
+            if (previous != null) {
+                for (String token : previous.tokens()) {
+                    if (!Arrays.asList(document.tokens()).contains(token)) {
+                        postings.remove(new Posting(token, id));
+                    }
+                }
+            }
+        }
+
+        void remove(UUID id) {
+            Document previous = documents.remove(id);
+            if (previous != null) {
+                for (String token : previous.tokens()) {
+                    postings.remove(new Posting(token, id));
+                }
+            }
+        }
+    }
+}
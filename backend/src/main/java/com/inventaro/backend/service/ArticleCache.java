@@ -0,0 +1,54 @@
+package com.inventaro.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Names of the article caches and the invalidation used by every write.
+ *
+ * Reads are cached with @Cacheable in ArticleServiceImpl: single articles by id in
+ * {@link #ARTICLES}, the full list and keyset pages in {@link #LISTINGS} (under the catalogue version).
+ * A change to one article evicts only that article, but all listings, since any listing may contain it.
+ */
+@Component
+@RequiredArgsConstructor
+public class ArticleCache {
+
+    public static final String ARTICLES = "articles";
+    public static final String LISTINGS = "articleListings";
+
+    private final CacheManager cacheManager;
+
+    public void evict(UUID id) {
+        cache(ARTICLES).evict(id);
+        evictListings();
+    }
+
+    public void evictAll(Collection<UUID> ids) {
+        Cache articles = cache(ARTICLES);
+        ids.forEach(articles::evict);
+        evictListings();
+    }
+
+    public void evictEverything() {
+        cache(ARTICLES).clear();
+        evictListings();
+    }
+
+    public void evictListings() {
+        cache(LISTINGS).clear();
+    }
+
+    private Cache cache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            throw new IllegalStateException("Cache not configured: " + name);
+        }
+        return cache;
+    }
+}
@@ -0,0 +1,36 @@
+package com.inventaro.backend.service;
+
+import com.inventaro.backend.exception.InvalidCursorException;
+import com.inventaro.backend.model.Article;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last article on a page, in the listing order (name, then id).
+ * Encoded as URL-safe Base64 so clients treat it as an opaque token.
+ */
+record ArticleCursor(String name, UUID id) {
+
+    private static final int UUID_LENGTH = 36;
+
+    static ArticleCursor after(Article article) {
+        return new ArticleCursor(article.getName(), article.getId());
+    }
+
+    String encode() {
+        byte[] raw = (id + name).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    static ArticleCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            UUID id = UUID.fromString(raw.substring(0, UUID_LENGTH));
+            return new ArticleCursor(raw.substring(UUID_LENGTH), id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw new InvalidCursorException(token);
+        }
+    }
+}
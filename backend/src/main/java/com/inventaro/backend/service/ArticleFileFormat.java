@@ -0,0 +1,24 @@
+package com.inventaro.backend.service;
+
+/**
+ * File formats supported by the article import and export endpoints.
+ */
+public enum ArticleFileFormat {
+
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    ArticleFileFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileExtension() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,12 @@
+package com.inventaro.backend.service;
+
+import com.inventaro.backend.dto.ArticleImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface ArticleImportExportService {
+    ArticleImportResult importArticles(ArticleFileFormat format, InputStream in) throws IOException;
+    void exportArticles(ArticleFileFormat format, OutputStream out) throws IOException;
+}
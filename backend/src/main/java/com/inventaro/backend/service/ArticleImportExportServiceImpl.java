@@ -0,0 +1,246 @@
+package com.inventaro.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventaro.backend.dto.ArticleImportResult;
+import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.event.ArticleChangeEvent;
+import com.inventaro.backend.exception.InvalidImportFileException;
+import com.inventaro.backend.model.Article;
+import com.inventaro.backend.model.StockMovementType;
+import com.inventaro.backend.repository.ArticleRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class ArticleImportExportServiceImpl implements ArticleImportExportService {
+
+    private static final String CSV_HEADER = "id,name,quantity,unit,lowStockThreshold";
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("name", "quantity", "unit", "lowStockThreshold");
+
+    private final ArticleRepository articleRepository;
+    private final ArticleCache articleCache;
+    private final StockLedger stockLedger;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${inventaro.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${inventaro.import.max-reported-rejections:1000}")
+    private int maxReportedRejections;
+
+    @Override
+    @Transactional
+    public ArticleImportResult importArticles(ArticleFileFormat format, InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Importer importer = new Importer();
+
+        if (format == ArticleFileFormat.CSV) {
+            importCsv(reader, importer);
+        } else {
+            importNdjson(reader, importer);
+        }
+        importer.flush();
+        if (importer.imported > 0) {
+            articleCache.evictListings();
+            // One resync instead of an event per imported row, which could be millions.
+            eventPublisher.publishEvent(ArticleChangeEvent.resync());
+        }
+
+        return new ArticleImportResult(importer.imported, importer.rejected, importer.rejections);
+    }
+
+    private void importCsv(BufferedReader reader, Importer importer) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        try {
+            List<String> header = csv.readRecord();
+            if (header == null) {
+                return;
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim(), i);
+            }
+            for (String column : REQUIRED_CSV_COLUMNS) {
+                if (!columns.containsKey(column)) {
+                    throw new InvalidImportFileException("CSV header is missing column: " + column);
+                }
+            }
+
+            long line = csv.getLineNumber();
+            List<String> record;
+            while ((record = csv.readRecord()) != null) {
+                if (!(record.size() == 1 && record.get(0).isBlank())) {
+                    importCsvRecord(line, record, columns, importer);
+                }
+                line = csv.getLineNumber();
+            }
+        } catch (IOException ex) {
+            // The CSV reader reports malformed input (e.g. an unterminated quote) as an IOException.
+            throw new InvalidImportFileException(ex.getMessage());
+        }
+    }
+
+    private void importCsvRecord(long line, List<String> record, Map<String, Integer> columns, Importer importer) {
+        try {
+            CreateArticleRequest request = new CreateArticleRequest(
+                    column(record, columns, "name"),
+                    parseInteger(column(record, columns, "quantity")),
+                    column(record, columns, "unit"),
+                    parseInteger(column(record, columns, "lowStockThreshold"))
+            );
+            importer.accept(line, request);
+        } catch (NumberFormatException ex) {
+            importer.reject(line, "quantity and lowStockThreshold must be whole numbers");
+        }
+    }
+
+    private void importNdjson(BufferedReader reader, Importer importer) throws IOException {
+        long line = 0;
+        String json;
+        while ((json = reader.readLine()) != null) {
+            line++;
+            if (json.isBlank()) {
+                continue;
+            }
+            try {
+                CreateArticleRequest request = objectMapper.readValue(json, CreateArticleRequest.class);
+                // A line holding the literal null reads as no request at all.
+                if (request == null) {
+                    importer.reject(line, "invalid JSON: expected an article object");
+                } else {
+                    importer.accept(line, request);
+                }
+            } catch (JsonProcessingException ex) {
+                importer.reject(line, "invalid JSON: " + ex.getOriginalMessage());
+            }
+        }
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        int index = columns.get(name);
+        return index < record.size() ? record.get(index) : null;
+    }
+
+    private static Integer parseInteger(String value) {
+        return value == null || value.isBlank() ? null : Integer.valueOf(value.trim());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportArticles(ArticleFileFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ArticleFileFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<Article> articles = articleRepository.streamAllOrderedByName()) {
+            Iterator<Article> iterator = articles.iterator();
+            while (iterator.hasNext()) {
+                Article article = iterator.next();
+                if (format == ArticleFileFormat.CSV) {
+                    writeCsvRow(writer, article);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(article));
+                    writer.write('\n');
+                }
+                // Detach each written row so the persistence context does not grow with the catalogue.
+                entityManager.detach(article);
+            }
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvRow(Writer writer, Article article) throws IOException {
+        writer.write(article.getId().toString());
+        writer.write(',');
+        writer.write(CsvReader.escape(article.getName()));
+        writer.write(',');
+        writer.write(Integer.toString(article.getQuantity()));
+        writer.write(',');
+        writer.write(CsvReader.escape(article.getUnit()));
+        writer.write(',');
+        writer.write(Integer.toString(article.getLowStockThreshold()));
+        writer.write('\n');
+    }
+
+    /**
+     * Collects valid rows into batches and reports invalid ones, for a single import.
+     */
+    private class Importer {
+
+        private final List<Article> batch = new ArrayList<>();
+        private final List<ArticleImportResult.RejectedRow> rejections = new ArrayList<>();
+        private int imported;
+        private int rejected;
+
+        void accept(long line, CreateArticleRequest request) {
+            Set<ConstraintViolation<CreateArticleRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                reject(line, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+
+            batch.add(ArticleServiceImpl.toNewArticle(request));
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long line, String message) {
+            rejected++;
+            if (rejections.size() < maxReportedRejections) {
+                rejections.add(new ArticleImportResult.RejectedRow(line, message));
+            }
+        }
+
+        // Inserts the current batch (sent as JDBC batches, see hibernate.jdbc.batch_size)
+        // and clears the persistence context so memory stays bounded for large files.
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            articleRepository.saveAll(batch);
+            stockLedger.recordBulk(batch.stream()
+                    .map(article -> StockLedger.movement(article.getId(), StockMovementType.IMPORTED,
+                            article.getQuantity(), article.getQuantity(), article.getVersion()))
+                    .toList());
+            entityManager.flush();
+            entityManager.clear();
+            imported += batch.size();
+            batch.clear();
+        }
+    }
+}
@@ -1,18 +1,41 @@
 package com.inventaro.backend.service;
 
+import com.inventaro.backend.dto.AdjustQuantityRequest;
+import com.inventaro.backend.dto.ArticleForecastResponse;
+import com.inventaro.backend.dto.ArticlePageResponse;
 import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.dto.StockLevelResponse;
+import com.inventaro.backend.dto.StockMovementPageResponse;
+import com.inventaro.backend.dto.StockMovementRequest;
+import com.inventaro.backend.dto.StockMovementResult;
 import com.inventaro.backend.dto.UpdateArticleRequest;
 import com.inventaro.backend.dto.UpdateQuantityRequest;
 import com.inventaro.backend.model.Article;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
+// NOTE:
+// expectedVersions are the versions an If-Match precondition lists (null for none). A write to an
+// article at any other version is rejected with PreconditionFailedException.
+// Every write first writes the article's pending write-behind changes (QuantityWriteBehind) within the
+// write's transaction, so it starts from, and is checked against, the quantity that has been acknowledged to
+// clients. The changes commit with the write; if it rolls back, they are pending again rather than written.
 public interface ArticleService {
     Article createArticle(CreateArticleRequest request);
     List<Article> getAllArticles();
+    ArticlePageResponse getArticlePage(String cursor, Integer size);
+    List<Article> getLowStockArticles(Integer limit);
+    List<Article> searchArticles(String query, Integer limit);
     Article getArticleById(UUID id);
-    void deleteArticle(UUID id);
-    Article updateArticleData(UUID id, UpdateArticleRequest request);
-    Article updateQuantity(UUID id, UpdateQuantityRequest request);
+    StockMovementPageResponse getMovements(UUID id, Instant from, Instant to, String cursor, Integer size);
+    StockLevelResponse getQuantityAt(UUID id, Instant at);
+    ArticleForecastResponse getForecast(UUID id);
+    void deleteArticle(UUID id, Set<Long> expectedVersions);
+    Article updateArticleData(UUID id, UpdateArticleRequest request, Set<Long> expectedVersions);
+    Article updateQuantity(UUID id, UpdateQuantityRequest request, Set<Long> expectedVersions);
+    Article adjustQuantity(UUID id, AdjustQuantityRequest request, Set<Long> expectedVersions);
+    List<StockMovementResult> applyMovements(List<StockMovementRequest> movements);
 }
@@ -1,70 +1,458 @@
 package com.inventaro.backend.service;
 
+import com.inventaro.backend.dto.AdjustQuantityRequest;
+import com.inventaro.backend.dto.ArticleForecastResponse;
+import com.inventaro.backend.dto.ArticlePageResponse;
 import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.dto.StockLevelResponse;
+import com.inventaro.backend.dto.StockMovementPageResponse;
+import com.inventaro.backend.dto.StockMovementRequest;
+import com.inventaro.backend.dto.StockMovementResult;
 import com.inventaro.backend.dto.UpdateArticleRequest;
 import com.inventaro.backend.dto.UpdateQuantityRequest;
+import com.inventaro.backend.event.ArticleChangeEvent;
+import com.inventaro.backend.event.ArticleChangeType;
+import com.inventaro.backend.exception.BatchTooLargeException;
+import com.inventaro.backend.exception.InsufficientStockException;
+import com.inventaro.backend.exception.PreconditionFailedException;
+import com.inventaro.backend.forecast.ConsumptionForecaster;
 import com.inventaro.backend.model.Article;
+import com.inventaro.backend.model.StockMovement;
+import com.inventaro.backend.model.StockMovementType;
 import com.inventaro.backend.repository.ArticleRepository;
+import com.inventaro.backend.repository.StockMovementRepository;
+import com.inventaro.backend.search.ArticleSearchIndex;
+import com.inventaro.backend.writebehind.QuantityWriteBehind;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+// One timer per public method, tagged with class and method (see management.observations.annotations.enabled).
+@Timed(value = "inventaro.article.service", histogram = true)
 public class ArticleServiceImpl implements ArticleService {
 
+    // Keeps the IN list of a single locking query well below common database parameter limits.
+    private static final int LOCK_CHUNK_SIZE = 1_000;
+
+    // Never the version of an article (versions start at 0), for an If-Match that cannot match.
+    private static final long NO_VERSION = -1;
+
+    // Open end of a movement time range; far beyond any real timestamp but still valid for SQL TIMESTAMP columns.
+    private static final Instant END_OF_TIME = Instant.parse("9999-12-31T23:59:59Z");
+
     private final ArticleRepository articleRepository;
+    private final ArticleCache articleCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ArticleSearchIndex searchIndex;
+    private final StockLedger stockLedger;
+    private final StockMovementRepository stockMovementRepository;
+    private final ConsumptionForecaster consumptionForecaster;
+    private final LocationService locationService;
+    private final ReservationService reservationService;
+    private final QuantityWriteBehind writeBehind;
+
+    @Value("${inventaro.articles.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${inventaro.articles.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${inventaro.articles.low-stock.max-size:1000}")
+    private int maxLowStockSize;
+
+    @Value("${inventaro.articles.search.default-limit:20}")
+    private int defaultSearchLimit;
+
+    @Value("${inventaro.articles.search.max-limit:100}")
+    private int maxSearchLimit;
+
+    @Value("${inventaro.movements.page.default-size:100}")
+    private int defaultMovementPageSize;
+
+    @Value("${inventaro.movements.page.max-size:1000}")
+    private int maxMovementPageSize;
+
+    @Value("${inventaro.movements.batch.max-size:1000}")
+    private int maxMovementBatchSize;
 
     @Override
+    @Transactional
     public Article createArticle(CreateArticleRequest request) {
+        Article created = articleRepository.save(toNewArticle(request));
+        stockLedger.record(created, StockMovementType.CREATED, created.getQuantity());
+        articleCache.evictListings();
+        eventPublisher.publishEvent(ArticleChangeEvent.of(ArticleChangeType.CREATED, created, false));
+        return created;
+    }
+
+    // Shared with the bulk import so imported articles are normalized the same way as created ones.
+    static Article toNewArticle(CreateArticleRequest request) {
         Article article = new Article();
         article.setName(request.getName().trim());
         article.setQuantity(request.getQuantity());
         article.setUnit(request.getUnit().trim());
         article.setLowStockThreshold(request.getLowStockThreshold());
-        return articleRepository.save(article);
+        return article;
     }
 
+    /*
+     * NOTE:
+     * Listings are cached under the catalogue version read before they are loaded, so an entry only
+     * holds data at least as new as its version. A reader that loaded before a change committed puts
+     * its result under the old version, where no later reader looks; it cannot bring back a listing
+     * that an eviction removed, and a listing sent with a catalogue ETag is never older than the tag.
+     */
     @Override
+    @Cacheable(cacheNames = ArticleCache.LISTINGS, key = "@catalogueVersion.current() + ':all'")
     public List<Article> getAllArticles() {
         return articleRepository.findAll();
     }
 
     @Override
+    @Cacheable(cacheNames = ArticleCache.LISTINGS, key = "@catalogueVersion.current() + ':page:' + #size + ':' + #cursor")
+    public ArticlePageResponse getArticlePage(String cursor, Integer size) {
+        int pageSize = size == null ? defaultPageSize : Math.clamp(size, 1, maxPageSize);
+
+        // Fetch one extra row to find out whether there is a next page without a COUNT query.
+        Limit limit = Limit.of(pageSize + 1);
+        List<Article> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = articleRepository.findAllByOrderByNameAscIdAsc(limit);
+        } else {
+            ArticleCursor after = ArticleCursor.decode(cursor);
+            rows = articleRepository.findPageAfter(after.name(), after.id(), limit);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new ArticlePageResponse(rows, null);
+        }
+        List<Article> items = rows.subList(0, pageSize);
+        String nextCursor = ArticleCursor.after(items.get(pageSize - 1)).encode();
+        return new ArticlePageResponse(items, nextCursor);
+    }
+
+    @Override
+    @Cacheable(cacheNames = ArticleCache.LISTINGS, key = "@catalogueVersion.current() + ':lowStock:' + #limit")
+    public List<Article> getLowStockArticles(Integer limit) {
+        int size = limit == null ? maxLowStockSize : Math.clamp(limit, 1, maxLowStockSize);
+        return articleRepository.findLowStock(Limit.of(size));
+    }
+
+    @Override
+    public List<Article> searchArticles(String query, Integer limit) {
+        int size = limit == null ? defaultSearchLimit : Math.clamp(limit, 1, maxSearchLimit);
+        List<UUID> ids = searchIndex.search(query, size);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // The index only finds the ids; quantities are always read from the database.
+        return articleRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(Article::getName).thenComparing(Article::getId))
+                .toList();
+    }
+
+    @Override
+    @Cacheable(cacheNames = ArticleCache.ARTICLES, key = "#id")
     public Article getArticleById(UUID id) {
         return articleRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Article not found with id: " + id));
     }
 
     @Override
-    public void deleteArticle(UUID id) {
-        if (!articleRepository.existsById(id)) {
-            throw new IllegalArgumentException("Article not found with id: " + id);
+    @Transactional(readOnly = true)
+    public StockMovementPageResponse getMovements(UUID id, Instant from, Instant to, String cursor, Integer size) {
+        int pageSize = size == null ? defaultMovementPageSize : Math.clamp(size, 1, maxMovementPageSize);
+        Instant rangeStart = from == null ? Instant.EPOCH : from;
+        Instant rangeEnd = to == null ? END_OF_TIME : to;
+
+        Limit limit = Limit.of(pageSize + 1);
+        List<StockMovement> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = stockMovementRepository.findPage(id, rangeStart, rangeEnd, limit);
+        } else {
+            MovementCursor after = MovementCursor.decode(cursor);
+            rows = stockMovementRepository.findPageAfter(id, after.occurredAt(), after.id(), rangeEnd, limit);
         }
-        articleRepository.deleteById(id);
+
+        if (rows.size() <= pageSize) {
+            return new StockMovementPageResponse(rows, null);
+        }
+        List<StockMovement> items = rows.subList(0, pageSize);
+        return new StockMovementPageResponse(items, MovementCursor.after(items.get(pageSize - 1)).encode());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StockLevelResponse getQuantityAt(UUID id, Instant at) {
+        // The last movement up to "at" carries the quantity at that time. Before the first recorded
+        // movement (or for stock that predates the ledger) it is the quantity the next movement started from.
+        int quantity = stockMovementRepository
+                .findFirstByArticleIdAndOccurredAtLessThanEqualOrderByOccurredAtDescIdDesc(id, at)
+                .map(StockMovement::getQuantityAfter)
+                .or(() -> stockMovementRepository
+                        .findFirstByArticleIdAndOccurredAtGreaterThanOrderByOccurredAtAscIdAsc(id, at)
+                        .map(next -> next.getQuantityAfter() - next.getDelta()))
+                .or(() -> articleRepository.findById(id).map(Article::getQuantity))
+                .orElseThrow(() -> new IllegalArgumentException("Article not found with id: " + id));
+        return new StockLevelResponse(id, at, quantity);
+    }
+
+    @Override
+    public ArticleForecastResponse getForecast(UUID id) {
+        Article article = articleRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Article not found with id: " + id));
+        ConsumptionForecaster.Forecast forecast = consumptionForecaster.forecast(id, article.getQuantity());
+        return new ArticleForecastResponse(id, article.getQuantity(), forecast.consumptionPerDay(),
+                forecast.daysOfCover(), forecast.reorderPoint(), article.getLowStockThreshold(),
+                article.getQuantity() <= forecast.reorderPoint() && forecast.consumptionPerDay() > 0);
+    }
+
+    @Override
+    @Transactional
+    public void deleteArticle(UUID id, Set<Long> expectedVersions) {
+        writeBehind.flush(id);
+        Article article = articleRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Article not found with id: " + id));
+        checkVersion(article, expectedVersions);
+
+        locationService.removeArticleStock(id);
+        reservationService.removeArticleReservations(id);
+        articleRepository.delete(article);
+        stockLedger.record(article.getId(), StockMovementType.DELETED, -article.getQuantity(), 0, article.getVersion());
+        articleCache.evict(id);
+        eventPublisher.publishEvent(ArticleChangeEvent.of(
+                ArticleChangeType.DELETED, article, ArticleChangeEvent.isLowStock(article)));
     }
 
     @Override
-    public Article updateArticleData(UUID id, UpdateArticleRequest request) {
+    @Transactional
+    public Article updateArticleData(UUID id, UpdateArticleRequest request, Set<Long> expectedVersions) {
+        writeBehind.flush(id);
         Article article = articleRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Article not found with id: " + id));
+        checkVersion(article, expectedVersions);
+        boolean wasLowStock = ArticleChangeEvent.isLowStock(article);
 
         article.setName(request.getName().trim());
         article.setUnit(request.getUnit().trim());
         article.setLowStockThreshold(request.getLowStockThreshold());
 
-        return articleRepository.save(article);
+        // Flushed so the returned article (and its ETag) carries the new version.
+        Article updated = articleRepository.saveAndFlush(article);
+        articleCache.evict(id);
+        eventPublisher.publishEvent(ArticleChangeEvent.of(ArticleChangeType.UPDATED, updated, wasLowStock));
+        return updated;
     }
 
     @Override
-    public Article updateQuantity(UUID id, UpdateQuantityRequest request) {
+    @Transactional
+    public Article updateQuantity(UUID id, UpdateQuantityRequest request, Set<Long> expectedVersions) {
+        writeBehind.flush(id);
         Article article = articleRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Article not found with id: " + id));
+        checkVersion(article, expectedVersions);
 
+        if (request.getVersion() != null && request.getVersion() != article.getVersion()) {
+            throw new OptimisticLockingFailureException("Article " + id + " has been modified (version "
+                    + article.getVersion() + ", expected " + request.getVersion() + ")");
+        }
+        if (request.getQuantity() < article.getLocatedQuantity()) {
+            throw new InsufficientStockException(id, article.getQuantity(),
+                    request.getQuantity() - article.getQuantity(), article.getLocatedQuantity());
+        }
+        if (request.getQuantity() < article.getLocatedQuantity() + article.getReservedQuantity()) {
+            throw InsufficientStockException.reserved(id, article.getQuantity(),
+                    request.getQuantity() - article.getQuantity(), article.getReservedQuantity());
+        }
+
+        boolean wasLowStock = ArticleChangeEvent.isLowStock(article);
+        int delta = request.getQuantity() - article.getQuantity();
         article.setQuantity(request.getQuantity());
-        return articleRepository.save(article);
+        // Flush so a concurrent writer that committed in between is detected here via @Version,
+        // and so the returned article carries its new version.
+        Article updated = articleRepository.saveAndFlush(article);
+        stockLedger.record(updated, StockMovementType.SET, delta);
+        articleCache.evict(id);
+        eventPublisher.publishEvent(ArticleChangeEvent.of(ArticleChangeType.QUANTITY_CHANGED, updated, wasLowStock));
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public Article adjustQuantity(UUID id, AdjustQuantityRequest request, Set<Long> expectedVersions) {
+        writeBehind.flush(id);
+        int updated = articleRepository.adjustQuantity(id, request.getDelta(), conditionalVersion(id, expectedVersions));
+        Article article = articleRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Article not found with id: " + id));
+
+        if (updated == 0) {
+            checkVersion(article, expectedVersions);
+            int after = article.getQuantity() + request.getDelta();
+            if (after >= article.getLocatedQuantity() && after < article.getLocatedQuantity() + article.getReservedQuantity()) {
+                throw InsufficientStockException.reserved(id, article.getQuantity(), request.getDelta(), article.getReservedQuantity());
+            }
+            throw article.getLocatedQuantity() > 0
+                    ? new InsufficientStockException(id, article.getQuantity(), request.getDelta(), article.getLocatedQuantity())
+                    : new InsufficientStockException(id, article.getQuantity(), request.getDelta());
+        }
+        stockLedger.record(article, StockMovementType.ADJUSTED, request.getDelta());
+        articleCache.evict(id);
+
+        boolean wasLowStock = ArticleChangeEvent.isLowStock(
+                article.getQuantity() - request.getDelta(), article.getLowStockThreshold());
+        eventPublisher.publishEvent(ArticleChangeEvent.of(ArticleChangeType.QUANTITY_CHANGED, article, wasLowStock));
+        return article;
+    }
+
+    @Override
+    @Transactional
+    public List<StockMovementResult> applyMovements(List<StockMovementRequest> movements) {
+        // Every article of the batch stays locked until it commits.
+        if (movements.size() > maxMovementBatchSize) {
+            throw new BatchTooLargeException(movements.size(), maxMovementBatchSize);
+        }
+        List<UUID> ids = movements.stream()
+                .filter(Objects::nonNull)
+                .map(StockMovementRequest::getId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+        writeBehind.flushAll(ids);
+
+        Map<UUID, Article> articles = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += LOCK_CHUNK_SIZE) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + LOCK_CHUNK_SIZE, ids.size()));
+            articleRepository.findAllByIdForUpdate(chunk).forEach(article -> articles.put(article.getId(), article));
+        }
+
+        Map<UUID, Boolean> wasLowStock = new HashMap<>();
+        Map<UUID, Integer> runningQuantity = new HashMap<>();
+        articles.values().forEach(article -> {
+            wasLowStock.put(article.getId(), ArticleChangeEvent.isLowStock(article));
+            runningQuantity.put(article.getId(), article.getQuantity());
+        });
+
+        List<StockMovementResult> results = new ArrayList<>(movements.size());
+        for (int line = 0; line < movements.size(); line++) {
+            results.add(applyMovement(line, movements.get(line), articles));
+        }
+
+        // NOTE:
+        // No explicit save is needed: the changed articles are managed entities, and Hibernate
+        // sends them as JDBC batches (see hibernate.jdbc.batch_size in application.properties).
+        // The flush happens here rather than at commit so the published events carry the new versions.
+        articleRepository.flush();
+
+        // One ledger entry per applied line, in line order, so the history shows every step of the batch.
+        List<StockMovement> ledgerEntries = new ArrayList<>();
+        for (StockMovementResult result : results) {
+            if (result.getStatus() == StockMovementResult.Status.APPLIED) {
+                UUID id = result.getId();
+                StockMovementType type = movements.get(result.getLine()).getDelta() != null
+                        ? StockMovementType.ADJUSTED
+                        : StockMovementType.SET;
+                int delta = result.getQuantity() - runningQuantity.put(id, result.getQuantity());
+                ledgerEntries.add(StockLedger.movement(id, type, delta, result.getQuantity(), articles.get(id).getVersion()));
+            }
+        }
+        stockLedger.recordAll(ledgerEntries);
+
+        Set<UUID> changed = results.stream()
+                .filter(result -> result.getStatus() == StockMovementResult.Status.APPLIED)
+                .map(StockMovementResult::getId)
+                .collect(Collectors.toSet());
+        articleCache.evictAll(changed);
+        for (UUID id : changed) {
+            eventPublisher.publishEvent(ArticleChangeEvent.of(
+                    ArticleChangeType.QUANTITY_CHANGED, articles.get(id), wasLowStock.get(id)));
+        }
+        return results;
+    }
+
+    // Rejects a write whose If-Match precondition does not list the article's current version.
+    private static void checkVersion(Article article, Set<Long> expectedVersions) {
+        if (expectedVersions != null && !expectedVersions.contains(article.getVersion())) {
+            throw new PreconditionFailedException(article.getId(), article.getVersion(), expectedVersions);
+        }
+    }
+
+    // The conditional UPDATE checks a single version. When If-Match lists several, that is the current
+    // one if it is listed; if it is not (or nothing is listed), a version no article has.
+    private Long conditionalVersion(UUID id, Set<Long> expectedVersions) {
+        if (expectedVersions == null) {
+            return null;
+        }
+        if (expectedVersions.size() == 1) {
+            return expectedVersions.iterator().next();
+        }
+        return articleRepository.findVersionById(id)
+                .filter(expectedVersions::contains)
+                .orElse(NO_VERSION);
+    }
+
+    private StockMovementResult applyMovement(int line, StockMovementRequest movement, Map<UUID, Article> articles) {
+        if (movement == null) {
+            return StockMovementResult.rejected(line, null, "line must be an object");
+        }
+        UUID id = movement.getId();
+        if (id == null) {
+            return StockMovementResult.rejected(line, null, "id is required");
+        }
+        if ((movement.getDelta() == null) == (movement.getQuantity() == null)) {
+            return StockMovementResult.rejected(line, id, "exactly one of delta or quantity is required");
+        }
+
+        Article article = articles.get(id);
+        if (article == null) {
+            return StockMovementResult.notFound(line, id);
+        }
+
+        int newQuantity;
+        if (movement.getDelta() != null) {
+            newQuantity = article.getQuantity() + movement.getDelta();
+            if (newQuantity < 0) {
+                return StockMovementResult.rejected(line, id, "Insufficient stock: cannot apply "
+                        + movement.getDelta() + " to quantity " + article.getQuantity());
+            }
+        } else {
+            newQuantity = movement.getQuantity();
+            if (newQuantity < 0) {
+                return StockMovementResult.rejected(line, id, "quantity must be ≥ 0");
+            }
+        }
+        // Stock stored at a location can only be changed per location.
+        if (newQuantity < article.getLocatedQuantity()) {
+            return StockMovementResult.rejected(line, id, "Insufficient stock: " + article.getLocatedQuantity()
+                    + " of quantity " + article.getQuantity() + " is stored at locations");
+        }
+        // Reserved stock can only be taken by confirming its reservations.
+        if (newQuantity < article.getLocatedQuantity() + article.getReservedQuantity()) {
+            return StockMovementResult.rejected(line, id, "Insufficient stock: " + article.getReservedQuantity()
+                    + " of quantity " + article.getQuantity() + " is reserved");
+        }
+
+        article.setQuantity(newQuantity);
+        return StockMovementResult.applied(line, id, newQuantity);
     }
 
 }
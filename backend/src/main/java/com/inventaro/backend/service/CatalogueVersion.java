@@ -0,0 +1,69 @@
+package com.inventaro.backend.service;
+
+import com.inventaro.backend.event.ArticleChangeEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the catalogue as a whole, used as the ETag of the article listings and in the keys
+ * under which they are cached: it changes after every committed change to any article.
+ *
+ * The counter lives in memory and is prefixed with the instant this instance started, so a
+ * restarted (or another) instance never hands out a tag that an earlier one used for other data.
+ *
+ * With inventaro.cluster.enabled the instances behind a load balancer should agree on the tag, or
+ * a client that lands on another instance at every poll gets the whole list every time. The
+ * version is then the change log position up to which the instance has applied every entry (see
+ * ClusterChangeLog), which is the same on every instance that has caught up. While one of the
+ * instance's own changes is not yet behind that position, the instance's counter is added, so a
+ * client that reads its own write never gets the tag from before it.
+ */
+@Component
+public class CatalogueVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong changes = new AtomicLong();
+
+    // Set while ClusterChangeLog tails the change log; -1 without it.
+    private volatile long logPosition = -1;
+    // Change log entries of this instance's own changes that are not yet behind logPosition.
+    private final ConcurrentSkipListSet<Long> ownEntriesAhead = new ConcurrentSkipListSet<>();
+
+    public String current() {
+        long position = logPosition;
+        if (position < 0) {
+            return epoch + "-" + changes.get();
+        }
+        if (ownEntriesAhead.isEmpty()) {
+            return Long.toString(position);
+        }
+        return position + "-" + epoch + "-" + changes.get();
+    }
+
+    // Every entry up to entryId has been applied; called by the change log poller only.
+    public void logAppliedUpTo(long entryId) {
+        logPosition = entryId;
+        ownEntriesAhead.headSet(entryId, true).clear();
+    }
+
+    // An entry for a change of this instance has been written, before the change commits.
+    public void ownEntryWritten(long entryId) {
+        ownEntriesAhead.add(entryId);
+    }
+
+    // The change of an entry passed to ownEntryWritten was rolled back.
+    public void ownEntryDiscarded(long entryId) {
+        ownEntriesAhead.remove(entryId);
+    }
+
+    // NOTE:
+    // Bumped after commit, like the other ArticleChangeEvent listeners. A listing read between the
+    // commit and the bump is sent with the previous tag, which only costs the client one more 200.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleChange(ArticleChangeEvent event) {
+        changes.incrementAndGet();
+    }
+}
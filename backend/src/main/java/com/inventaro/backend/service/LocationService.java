@@ -0,0 +1,22 @@
+package com.inventaro.backend.service;
+
+import com.inventaro.backend.dto.AdjustQuantityRequest;
+import com.inventaro.backend.dto.ArticleStockResponse;
+import com.inventaro.backend.dto.CreateLocationRequest;
+import com.inventaro.backend.dto.LocationStockPageResponse;
+import com.inventaro.backend.dto.TransferRequest;
+import com.inventaro.backend.model.Location;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface LocationService {
+    Location createLocation(CreateLocationRequest request);
+    List<Location> getAllLocations();
+    Location getLocationById(UUID id);
+    LocationStockPageResponse getLocationStock(UUID id, String cursor, Integer size);
+    ArticleStockResponse getArticleStock(UUID articleId);
+    ArticleStockResponse adjustStock(UUID articleId, UUID locationId, AdjustQuantityRequest request);
+    ArticleStockResponse transfer(UUID articleId, TransferRequest request);
+    void removeArticleStock(UUID articleId);
+}
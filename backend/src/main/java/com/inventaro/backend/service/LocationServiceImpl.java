@@ -0,0 +1,247 @@
+package com.inventaro.backend.service;
+
+import com.inventaro.backend.dto.AdjustQuantityRequest;
+import com.inventaro.backend.dto.ArticleStockResponse;
+import com.inventaro.backend.dto.CreateLocationRequest;
+import com.inventaro.backend.dto.LocationStockPageResponse;
+import com.inventaro.backend.dto.TransferRequest;
+import com.inventaro.backend.event.ArticleChangeEvent;
+import com.inventaro.backend.event.ArticleChangeType;
+import com.inventaro.backend.exception.InsufficientStockException;
+import com.inventaro.backend.exception.InvalidCursorException;
+import com.inventaro.backend.model.Article;
+import com.inventaro.backend.model.Location;
+import com.inventaro.backend.model.LocationStock;
+import com.inventaro.backend.model.StockMovementType;
+import com.inventaro.backend.repository.ArticleQuantity;
+import com.inventaro.backend.repository.ArticleRepository;
+import com.inventaro.backend.repository.LocationRepository;
+import com.inventaro.backend.repository.LocationStockRepository;
+import com.inventaro.backend.writebehind.QuantityWriteBehind;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Stock per (article, location).
+ *
+ * Every change locks the article row first, then the locations whose totals change, in location
+ * id order, so concurrent changes cannot deadlock. The article's quantity stays its total stock,
+ * and its locatedQuantity the part stored at locations.
+ */
+@Service
+@RequiredArgsConstructor
+@Timed(value = "inventaro.location.service", histogram = true)
+public class LocationServiceImpl implements LocationService {
+
+    // Sorts before every random (version 4) UUID, so the first page starts at the beginning of the index.
+    private static final UUID FIRST_ARTICLE = new UUID(0L, 0L);
+
+    private final LocationRepository locationRepository;
+    private final LocationStockRepository locationStockRepository;
+    private final ArticleRepository articleRepository;
+    private final ArticleCache articleCache;
+    private final StockLedger stockLedger;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final QuantityWriteBehind writeBehind;
+
+    @Value("${inventaro.locations.stock.page.default-size:100}")
+    private int defaultPageSize;
+
+    @Value("${inventaro.locations.stock.page.max-size:1000}")
+    private int maxPageSize;
+
+    @Override
+    @Transactional
+    public Location createLocation(CreateLocationRequest request) {
+        // Flushed here so a duplicate name fails inside this call, not at commit.
+        return locationRepository.saveAndFlush(new Location(null, request.getName().trim(), 0, 0));
+    }
+
+    @Override
+    public List<Location> getAllLocations() {
+        return locationRepository.findAllByOrderByNameAscIdAsc();
+    }
+
+    @Override
+    public Location getLocationById(UUID id) {
+        return locationRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Location not found with id: " + id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LocationStockPageResponse getLocationStock(UUID id, String cursor, Integer size) {
+        getLocationById(id);
+        int pageSize = size == null ? defaultPageSize : Math.clamp(size, 1, maxPageSize);
+        UUID after = cursor == null || cursor.isBlank() ? FIRST_ARTICLE : decodeCursor(cursor);
+
+        // Fetch one extra row to find out whether there is a next page without a COUNT query.
+        List<ArticleQuantity> rows = locationStockRepository.findPageByLocation(id, after, Limit.of(pageSize + 1));
+        if (rows.size() <= pageSize) {
+            return new LocationStockPageResponse(rows, null);
+        }
+        List<ArticleQuantity> items = rows.subList(0, pageSize);
+        return new LocationStockPageResponse(items, encodeCursor(items.get(pageSize - 1).articleId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ArticleStockResponse getArticleStock(UUID articleId) {
+        Article article = articleRepository.findById(articleId)
+                .orElseThrow(() -> new IllegalArgumentException("Article not found with id: " + articleId));
+        return articleStock(article);
+    }
+
+    @Override
+    @Transactional
+    public ArticleStockResponse adjustStock(UUID articleId, UUID locationId, AdjustQuantityRequest request) {
+        writeBehind.flush(articleId);
+        Article article = lockArticle(articleId);
+        boolean wasLowStock = ArticleChangeEvent.isLowStock(article);
+
+        int delta = request.getDelta();
+        if (article.getQuantity() + delta < article.getReservedQuantity()) {
+            throw InsufficientStockException.reserved(articleId, article.getQuantity(), delta, article.getReservedQuantity());
+        }
+        changeStock(articleId, lockLocation(locationId), delta);
+        article.setQuantity(article.getQuantity() + delta);
+        article.setLocatedQuantity(article.getLocatedQuantity() + delta);
+
+        // Flushed so the returned article and the ledger entry carry the new version.
+        Article updated = articleRepository.saveAndFlush(article);
+        stockLedger.record(updated, StockMovementType.ADJUSTED, delta);
+        articleCache.evict(articleId);
+        eventPublisher.publishEvent(ArticleChangeEvent.of(ArticleChangeType.QUANTITY_CHANGED, updated, wasLowStock));
+        return articleStock(updated);
+    }
+
+    @Override
+    @Transactional
+    public ArticleStockResponse transfer(UUID articleId, TransferRequest request) {
+        writeBehind.flush(articleId);
+        Article article = lockArticle(articleId);
+        int quantity = request.getQuantity();
+
+        Map<UUID, Integer> changes = new TreeMap<>();
+        if (request.getFromLocationId() != null) {
+            changes.put(request.getFromLocationId(), -quantity);
+        } else {
+            // Held stock stays unlocated until its reservation is confirmed or released.
+            int unlocated = article.getQuantity() - article.getLocatedQuantity() - article.getReservedQuantity();
+            if (unlocated < quantity) {
+                throw new InsufficientStockException(articleId, unlocated, -quantity);
+            }
+            article.setLocatedQuantity(article.getLocatedQuantity() + quantity);
+        }
+        if (request.getToLocationId() != null) {
+            changes.put(request.getToLocationId(), quantity);
+        } else {
+            article.setLocatedQuantity(article.getLocatedQuantity() - quantity);
+        }
+
+        Map<UUID, Location> locked = new TreeMap<>();
+        changes.keySet().forEach(locationId -> locked.put(locationId, lockLocation(locationId)));
+        // The source first, so a transfer without enough stock fails before anything has changed.
+        changes.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue())
+                .forEach(change -> changeStock(articleId, locked.get(change.getKey()), change.getValue()));
+
+        // The total does not change, so there is no ledger entry; only putting stock away at
+        // (or taking it back from) a location changes the article row itself.
+        if (request.getFromLocationId() == null || request.getToLocationId() == null) {
+            article = articleRepository.saveAndFlush(article);
+            articleCache.evict(articleId);
+        }
+        return articleStock(article);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeArticleStock(UUID articleId) {
+        List<Article> locked = articleRepository.findAllByIdForUpdate(List.of(articleId));
+        if (locked.isEmpty() || locked.getFirst().getLocatedQuantity() == 0) {
+            return;
+        }
+        List<LocationStock> stock = locationStockRepository.findAllByArticleId(articleId).stream()
+                .sorted(Comparator.comparing(LocationStock::getLocationId))
+                .toList();
+        for (LocationStock row : stock) {
+            Location location = lockLocation(row.getLocationId());
+            location.setTotalQuantity(location.getTotalQuantity() - row.getQuantity());
+            location.setArticleCount(location.getArticleCount() - 1);
+        }
+        locationStockRepository.deleteAllInBatch(stock);
+    }
+
+    // Serializes every stock change of the article, including those through the article's own quantity endpoints.
+    private Article lockArticle(UUID articleId) {
+        List<Article> locked = articleRepository.findAllByIdForUpdate(List.of(articleId));
+        if (locked.isEmpty()) {
+            throw new IllegalArgumentException("Article not found with id: " + articleId);
+        }
+        return locked.getFirst();
+    }
+
+    private Location lockLocation(UUID locationId) {
+        return locationRepository.findByIdForUpdate(locationId)
+                .orElseThrow(() -> new IllegalArgumentException("Location not found with id: " + locationId));
+    }
+
+    // Applies a delta to the stock of the article at the location and to the totals of the location.
+    private void changeStock(UUID articleId, Location location, int delta) {
+        UUID locationId = location.getId();
+        LocationStock row = locationStockRepository.findById(new LocationStock.Key(articleId, locationId)).orElse(null);
+        int before = row == null ? 0 : row.getQuantity();
+        int after = before + delta;
+        if (after < 0) {
+            throw new InsufficientStockException(articleId, before, delta);
+        }
+
+        if (row == null) {
+            if (after > 0) {
+                entityManager.persist(new LocationStock(articleId, locationId, after));
+            }
+        } else if (after == 0) {
+            locationStockRepository.delete(row);
+        } else {
+            row.setQuantity(after);
+        }
+        location.setTotalQuantity(location.getTotalQuantity() + delta);
+        location.setArticleCount(location.getArticleCount() + (after > 0 ? 1 : 0) - (before > 0 ? 1 : 0));
+    }
+
+    private ArticleStockResponse articleStock(Article article) {
+        return new ArticleStockResponse(article.getId(), article.getQuantity(), article.getLocatedQuantity(),
+                article.getQuantity() - article.getLocatedQuantity(), article.getReservedQuantity(),
+                article.getQuantity() - article.getLocatedQuantity() - article.getReservedQuantity(),
+                locationStockRepository.findByArticle(article.getId()));
+    }
+
+    private static String encodeCursor(UUID articleId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(articleId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static UUID decodeCursor(String cursor) {
+        try {
+            return UUID.fromString(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
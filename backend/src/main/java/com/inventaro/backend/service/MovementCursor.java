@@ -0,0 +1,36 @@
+package com.inventaro.backend.service;
+
+import com.inventaro.backend.exception.InvalidCursorException;
+import com.inventaro.backend.model.StockMovement;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position of the last movement on a page, in history order (occurredAt, then id).
+ * Encoded as URL-safe Base64 so clients treat it as an opaque token.
+ */
+record MovementCursor(Instant occurredAt, long id) {
+
+    static MovementCursor after(StockMovement movement) {
+        return new MovementCursor(movement.getOccurredAt(), movement.getId());
+    }
+
+    String encode() {
+        byte[] raw = (id + "@" + occurredAt).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    static MovementCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('@');
+            return new MovementCursor(Instant.parse(raw.substring(separator + 1)),
+                    Long.parseLong(raw.substring(0, separator)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException ex) {
+            throw new InvalidCursorException(token);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.inventaro.backend.service;
+
+import com.inventaro.backend.event.ArticleChangeEvent;
+import com.inventaro.backend.event.ArticleChangeType;
+import com.inventaro.backend.event.ReservationCreatedEvent;
+import com.inventaro.backend.model.Article;
+import com.inventaro.backend.model.Reservation;
+import com.inventaro.backend.repository.ArticleRepository;
+import com.inventaro.backend.repository.ReservationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Releases reservations when they expire.
+ *
+ * The deadlines of the holds are kept in a priority queue (a DelayQueue), so a single thread sleeps
+ * until the earliest one is due instead of polling. When it wakes up it releases every hold that has
+ * expired by then in one go, reading them from the expires_at index in batches, so holds that expire
+ * together cost one transaction rather than one each, and holds that are not due are never read.
+ */
+@Slf4j
+@Component
+public class ReservationExpiry {
+
+    // After a failed sweep, e.g. while the database is unavailable.
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+
+    private final ReservationRepository reservationRepository;
+    private final ArticleRepository articleRepository;
+    private final ArticleCache articleCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+
+    private final DelayQueue<Deadline> deadlines = new DelayQueue<>();
+    private volatile Thread sweeper;
+
+    public ReservationExpiry(ReservationRepository reservationRepository,
+                             ArticleRepository articleRepository,
+                             ArticleCache articleCache,
+                             ApplicationEventPublisher eventPublisher,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${inventaro.reservations.expiry.batch-size:500}") int batchSize) {
+        this.reservationRepository = reservationRepository;
+        this.articleRepository = articleRepository;
+        this.articleCache = articleCache;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    // NOTE:
+    // Only the earliest deadline in the database is queued on startup (holds created before a
+    // restart); every sweep queues the next one again, so the queue never has to hold them all.
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        schedule(Instant.now());
+        sweeper = Thread.ofVirtual().name("reservation-expiry").start(this::run);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (sweeper != null) {
+            sweeper.interrupt();
+        }
+    }
+
+    // Queued after commit, so the sweep that serves the deadline can see the hold.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationCreated(ReservationCreatedEvent event) {
+        schedule(event.getExpiresAt());
+    }
+
+    void schedule(Instant deadline) {
+        deadlines.add(new Deadline(deadline));
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                deadlines.take();
+                // Every deadline that is due by now is served by this one sweep.
+                while (deadlines.poll() != null) {
+                    // Drained.
+                }
+                sweep();
+            } catch (InterruptedException ex) {
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Releasing expired reservations failed, retrying in {}", RETRY_DELAY, ex);
+                schedule(Instant.now().plus(RETRY_DELAY));
+            }
+        }
+    }
+
+    private void sweep() {
+        Instant now = Instant.now();
+        while (releaseExpired(now) >= batchSize) {
+            // A full batch; there may be more.
+        }
+        Instant next = reservationRepository.findEarliestExpiry();
+        if (next != null) {
+            schedule(next);
+        }
+    }
+
+    /**
+     * Releases holds that expired at or before now, at most about one batch of them, and returns how many.
+     */
+    int releaseExpired(Instant now) {
+        Integer released = transaction.execute(status -> {
+            List<Reservation> due = reservationRepository.findExpired(now, Limit.of(batchSize));
+            if (due.isEmpty()) {
+                return 0;
+            }
+            // Locks the articles in id order, like every other multi-article write, and reads their expired
+            // holds again under the locks: a hold confirmed or released in the meantime is gone.
+            List<Article> articles = articleRepository.findAllByIdForUpdate(
+                    due.stream().map(Reservation::getArticleId).distinct().sorted().toList());
+            List<UUID> articleIds = articles.stream().map(Article::getId).toList();
+            List<Reservation> expired = new ArrayList<>(reservationRepository.findExpiredByArticleIds(articleIds, now));
+            // Holds of articles that no longer exist only need to be deleted.
+            due.stream().filter(reservation -> !articleIds.contains(reservation.getArticleId())).forEach(expired::add);
+            Map<UUID, Integer> releasedPerArticle = expired.stream()
+                    .collect(Collectors.groupingBy(Reservation::getArticleId, TreeMap::new,
+                            Collectors.summingInt(Reservation::getQuantity)));
+
+            for (Article article : articles) {
+                article.setReservedQuantity(article.getReservedQuantity() - releasedPerArticle.getOrDefault(article.getId(), 0));
+            }
+            reservationRepository.deleteAllInBatch(expired);
+            // Flushed here rather than at commit so the published events carry the new versions.
+            articleRepository.flush();
+
+            articleCache.evictAll(releasedPerArticle.keySet());
+            for (Article article : articles) {
+                if (releasedPerArticle.containsKey(article.getId())) {
+                    eventPublisher.publishEvent(ArticleChangeEvent.of(
+                            ArticleChangeType.UPDATED, article, ArticleChangeEvent.isLowStock(article)));
+                }
+            }
+            return expired.size();
+        });
+        return released == null ? 0 : released;
+    }
+
+    private record Deadline(Instant at) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(Instant.now(), at));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return at.compareTo(((Deadline) other).at);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.inventaro.backend.service;
+
+import com.inventaro.backend.dto.CreateReservationRequest;
+import com.inventaro.backend.model.Article;
+import com.inventaro.backend.model.Reservation;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ReservationService {
+    Reservation createReservation(UUID articleId, CreateReservationRequest request);
+    List<Reservation> getArticleReservations(UUID articleId);
+    Reservation getReservationById(UUID id);
+    Article confirmReservation(UUID id);
+    void releaseReservation(UUID id);
+    void removeArticleReservations(UUID articleId);
+}
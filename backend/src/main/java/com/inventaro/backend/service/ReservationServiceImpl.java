@@ -0,0 +1,169 @@
+package com.inventaro.backend.service;
+
+import com.inventaro.backend.dto.CreateReservationRequest;
+import com.inventaro.backend.event.ArticleChangeEvent;
+import com.inventaro.backend.event.ArticleChangeType;
+import com.inventaro.backend.event.ReservationCreatedEvent;
+import com.inventaro.backend.exception.InsufficientStockException;
+import com.inventaro.backend.exception.ReservationExpiredException;
+import com.inventaro.backend.model.Article;
+import com.inventaro.backend.model.Reservation;
+import com.inventaro.backend.model.StockMovementType;
+import com.inventaro.backend.repository.ArticleRepository;
+import com.inventaro.backend.repository.ReservationRepository;
+import com.inventaro.backend.writebehind.QuantityWriteBehind;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Holds on stock. An article's reservedQuantity is the sum of its active holds and changes in the
+ * same transaction as they do. A confirm takes the held stock out like an adjustment, which cannot
+ * take stock stored at a location, so holds are on unlocated stock: only
+ * quantity - locatedQuantity - reservedQuantity can be reserved.
+ *
+ * Placing a hold is one conditional UPDATE of the article row. Confirming or releasing one locks
+ * the article row first, as every change to its holds does (see ReservationExpiry), so a hold is
+ * confirmed, released or expired exactly once.
+ */
+@Service
+@RequiredArgsConstructor
+@Timed(value = "inventaro.reservation.service", histogram = true)
+public class ReservationServiceImpl implements ReservationService {
+
+    private final ReservationRepository reservationRepository;
+    private final ArticleRepository articleRepository;
+    private final ArticleCache articleCache;
+    private final StockLedger stockLedger;
+    private final ApplicationEventPublisher eventPublisher;
+    private final QuantityWriteBehind writeBehind;
+
+    @Value("${inventaro.reservations.default-ttl:2h}")
+    private Duration defaultTtl;
+
+    @Value("${inventaro.reservations.max-ttl:7d}")
+    private Duration maxTtl;
+
+    @Override
+    @Transactional
+    public Reservation createReservation(UUID articleId, CreateReservationRequest request) {
+        writeBehind.flush(articleId);
+        int quantity = request.getQuantity();
+        if (articleRepository.reserve(articleId, quantity) == 0) {
+            Article article = articleRepository.findById(articleId)
+                    .orElseThrow(() -> new IllegalArgumentException("Article not found with id: " + articleId));
+            throw InsufficientStockException.unavailable(articleId,
+                    article.getQuantity() - article.getLocatedQuantity() - article.getReservedQuantity(), quantity);
+        }
+
+        Duration ttl = request.getTtl() == null ? defaultTtl : request.getTtl();
+        // Truncated to the precision of the database column, so the returned hold matches a later read.
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        String reference = request.getReference() == null || request.getReference().isBlank()
+                ? null
+                : request.getReference().trim();
+        Reservation created = reservationRepository.save(new Reservation(null, articleId, quantity, reference,
+                now, now.plus(ttl.compareTo(maxTtl) > 0 ? maxTtl : ttl)));
+
+        Article article = articleRepository.findById(articleId).orElseThrow();
+        articleCache.evict(articleId);
+        eventPublisher.publishEvent(ArticleChangeEvent.of(
+                ArticleChangeType.UPDATED, article, ArticleChangeEvent.isLowStock(article)));
+        eventPublisher.publishEvent(new ReservationCreatedEvent(created.getId(), created.getExpiresAt()));
+        return created;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Reservation> getArticleReservations(UUID articleId) {
+        if (!articleRepository.existsById(articleId)) {
+            throw new IllegalArgumentException("Article not found with id: " + articleId);
+        }
+        return reservationRepository.findAllByArticleIdOrderByExpiresAtAscIdAsc(articleId);
+    }
+
+    @Override
+    public Reservation getReservationById(UUID id) {
+        return reservationRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Reservation not found with id: " + id));
+    }
+
+    @Override
+    @Transactional
+    public Article confirmReservation(UUID id) {
+        Article article = lockArticleOf(id);
+        Reservation reservation = activeReservation(id, article.getId());
+        boolean wasLowStock = ArticleChangeEvent.isLowStock(article);
+
+        // The held stock is taken out like an adjustment, so it must not be stored at a location.
+        // Every write keeps it unlocated; this only guards against rows changed by hand.
+        int quantity = reservation.getQuantity();
+        if (article.getQuantity() - quantity < article.getLocatedQuantity()) {
+            throw new InsufficientStockException(article.getId(), article.getQuantity(), -quantity,
+                    article.getLocatedQuantity());
+        }
+        article.setQuantity(article.getQuantity() - quantity);
+        article.setReservedQuantity(article.getReservedQuantity() - quantity);
+        reservationRepository.delete(reservation);
+
+        // Flushed so the returned article and the ledger entry carry the new version.
+        Article updated = articleRepository.saveAndFlush(article);
+        stockLedger.record(updated, StockMovementType.CONFIRMED, -quantity);
+        articleCache.evict(updated.getId());
+        eventPublisher.publishEvent(ArticleChangeEvent.of(ArticleChangeType.QUANTITY_CHANGED, updated, wasLowStock));
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public void releaseReservation(UUID id) {
+        Article article = lockArticleOf(id);
+        Reservation reservation = reservationRepository.findByIdAndArticleId(id, article.getId())
+                .orElseThrow(() -> new IllegalArgumentException("Reservation not found with id: " + id));
+
+        article.setReservedQuantity(article.getReservedQuantity() - reservation.getQuantity());
+        reservationRepository.delete(reservation);
+
+        Article updated = articleRepository.saveAndFlush(article);
+        articleCache.evict(updated.getId());
+        eventPublisher.publishEvent(ArticleChangeEvent.of(
+                ArticleChangeType.UPDATED, updated, ArticleChangeEvent.isLowStock(updated)));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeArticleReservations(UUID articleId) {
+        reservationRepository.deleteAllByArticleId(articleId);
+    }
+
+    // Locks the article of a reservation. Its holds cannot change until the transaction ends.
+    private Article lockArticleOf(UUID reservationId) {
+        UUID articleId = getReservationById(reservationId).getArticleId();
+        writeBehind.flush(articleId);
+        List<Article> locked = articleRepository.findAllByIdForUpdate(List.of(articleId));
+        if (locked.isEmpty()) {
+            throw new IllegalArgumentException("Reservation not found with id: " + reservationId);
+        }
+        return locked.getFirst();
+    }
+
+    // Read again under the lock of the article: a concurrent confirm or release may have deleted it in the meantime.
+    private Reservation activeReservation(UUID id, UUID articleId) {
+        Reservation reservation = reservationRepository.findByIdAndArticleId(id, articleId)
+                .orElseThrow(() -> new IllegalArgumentException("Reservation not found with id: " + id));
+        if (!reservation.getExpiresAt().isAfter(Instant.now())) {
+            throw new ReservationExpiredException(id, reservation.getExpiresAt());
+        }
+        return reservation;
+    }
+}
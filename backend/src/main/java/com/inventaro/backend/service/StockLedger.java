@@ -0,0 +1,66 @@
+package com.inventaro.backend.service;
+
+import com.inventaro.backend.event.StockMovementEvent;
+import com.inventaro.backend.model.Article;
+import com.inventaro.backend.model.StockMovement;
+import com.inventaro.backend.model.StockMovementType;
+import com.inventaro.backend.repository.StockMovementRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Appends stock movements to the ledger. Always called inside the transaction that changes
+ * the quantity, so a quantity change and its movement are committed (or rolled back) together.
+ *
+ * Every append publishes a StockMovementEvent, so listeners can follow the ledger without reading it back.
+ */
+@Component
+@RequiredArgsConstructor
+public class StockLedger {
+
+    private final StockMovementRepository stockMovementRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Records a change that has just been applied to the article, using its current quantity and version.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Article article, StockMovementType type, int delta) {
+        record(article.getId(), type, delta, article.getQuantity(), article.getVersion());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(UUID articleId, StockMovementType type, int delta, int quantityAfter, long version) {
+        StockMovement saved = stockMovementRepository.save(movement(articleId, type, delta, quantityAfter, version));
+        eventPublisher.publishEvent(new StockMovementEvent(List.of(saved)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(Collection<StockMovement> movements) {
+        eventPublisher.publishEvent(new StockMovementEvent(stockMovementRepository.saveAll(movements)));
+    }
+
+    /**
+     * Appends without publishing a StockMovementEvent, for bulk writes that publish a single
+     * ArticleChangeEvent.resync() instead (the event would otherwise hold every movement until commit).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordBulk(Collection<StockMovement> movements) {
+        stockMovementRepository.saveAll(movements);
+    }
+
+    // Truncated to the precision of the database column, so cursors built from saved and loaded movements agree.
+    public static StockMovement movement(UUID articleId, StockMovementType type, int delta, int quantityAfter, long version) {
+        return new StockMovement(null, articleId, type, delta, quantityAfter, version,
+                Instant.now().truncatedTo(ChronoUnit.MICROS));
+    }
+}
@@ -0,0 +1,73 @@
+package com.inventaro.backend.stream;
+
+import com.inventaro.backend.event.ArticleChangeEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Fans out committed article changes to all open GET /articles/stream connections.
+ */
+@Component
+public class ArticleEventBroadcaster {
+
+    private final Set<ArticleSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ThreadFactory senderThreads = Thread.ofVirtual().name("article-stream-", 0).factory();
+
+    @Value("${inventaro.stream.max-pending:1000}")
+    private int maxPending;
+
+    @Value("${inventaro.stream.heartbeat:15s}")
+    private Duration heartbeat;
+
+    @Value("${inventaro.stream.timeout:30m}")
+    private Duration timeout;
+
+    public SseEmitter subscribe(UUID articleId, boolean lowStockOnly) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        ArticleSubscription subscription = new ArticleSubscription(emitter, articleId, lowStockOnly, maxPending);
+
+        Runnable remove = () -> {
+            subscription.close();
+            subscriptions.remove(subscription);
+        };
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(ex -> remove.run());
+
+        subscriptions.add(subscription);
+        senderThreads.newThread(() -> {
+            subscription.run(heartbeat);
+            subscriptions.remove(subscription);
+        }).start();
+        return emitter;
+    }
+
+    // NOTE:
+    // Runs after commit, so clients never see a change that was rolled back. fallbackExecution
+    // covers writes that are not wrapped in a service-level transaction (e.g. createArticle).
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleChange(ArticleChangeEvent event) {
+        for (ArticleSubscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    @PreDestroy
+    void closeAll() {
+        subscriptions.forEach(ArticleSubscription::close);
+        subscriptions.clear();
+    }
+}
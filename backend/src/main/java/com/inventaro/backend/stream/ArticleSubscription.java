@@ -0,0 +1,151 @@
+package com.inventaro.backend.stream;
+
+import com.inventaro.backend.event.ArticleChangeEvent;
+import com.inventaro.backend.event.ArticleChangeType;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One open GET /articles/stream connection.
+ *
+ * Events are buffered per article: a newer event for an article replaces the one still waiting
+ * to be sent, so a slow client receives the latest state instead of every intermediate step.
+ * If more than maxPending articles are waiting, the buffer is dropped and the client is told
+ * to resync, so memory per subscriber stays bounded.
+ */
+class ArticleSubscription {
+
+    private final SseEmitter emitter;
+    private final UUID articleId;
+    private final boolean lowStockOnly;
+    private final int maxPending;
+
+    // ReentrantLock instead of synchronized so waiting senders never pin their virtual thread.
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<UUID, ArticleChangeEvent> pending = new LinkedHashMap<>();
+    private boolean resync;
+    private volatile boolean closed;
+
+    ArticleSubscription(SseEmitter emitter, UUID articleId, boolean lowStockOnly, int maxPending) {
+        this.emitter = emitter;
+        this.articleId = articleId;
+        this.lowStockOnly = lowStockOnly;
+        this.maxPending = maxPending;
+    }
+
+    boolean matches(ArticleChangeEvent event) {
+        if (event.getType() == ArticleChangeType.RESYNC) {
+            return true;
+        }
+        if (articleId != null && !articleId.equals(event.getArticleId())) {
+            return false;
+        }
+        // Also pass events where an article leaves low stock, so low-stock dashboards can remove it.
+        return !lowStockOnly || event.isLowStock() || event.isWasLowStock();
+    }
+
+    void offer(ArticleChangeEvent event) {
+        if (closed || !matches(event)) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (event.getType() == ArticleChangeType.RESYNC) {
+                pending.clear();
+                resync = true;
+            } else {
+                pending.put(event.getArticleId(), event);
+                if (pending.size() > maxPending) {
+                    pending.clear();
+                    resync = true;
+                }
+            }
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes everything that is waiting to be sent, waiting up to the given time for something to arrive.
+     * Returns null if nothing arrived in time.
+     */
+    Batch take(Duration timeout) throws InterruptedException {
+        long nanos = timeout.toNanos();
+        lock.lock();
+        try {
+            while (pending.isEmpty() && !resync && !closed) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = changed.awaitNanos(nanos);
+            }
+            Batch batch = new Batch(resync, new ArrayList<>(pending.values()));
+            pending.clear();
+            resync = false;
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sender loop, run on a dedicated virtual thread. Blocking on a slow client only blocks this
+     * subscriber; meanwhile its events keep coalescing in the buffer.
+     */
+    void run(Duration heartbeat) {
+        try {
+            while (!closed) {
+                Batch batch = take(heartbeat);
+                if (batch == null) {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                    continue;
+                }
+                if (batch.resync()) {
+                    emitter.send(SseEmitter.event().name("resync").data(ArticleChangeEvent.resync(), MediaType.APPLICATION_JSON));
+                }
+                for (ArticleChangeEvent event : batch.events()) {
+                    emitter.send(SseEmitter.event().name("article").data(event, MediaType.APPLICATION_JSON));
+                }
+            }
+            // Closed by the server (e.g. on shutdown): end the response so the client reconnects elsewhere.
+            emitter.complete();
+        } catch (IOException | IllegalStateException ex) {
+            // The client has gone away or the emitter has completed.
+            emitter.completeWithError(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        } finally {
+            close();
+        }
+    }
+
+    void close() {
+        closed = true;
+        lock.lock();
+        try {
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    record Batch(boolean resync, List<ArticleChangeEvent> events) {
+    }
+}
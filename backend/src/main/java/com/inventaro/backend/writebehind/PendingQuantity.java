@@ -0,0 +1,89 @@
+package com.inventaro.backend.writebehind;
+
+import com.inventaro.backend.exception.InsufficientStockException;
+import com.inventaro.backend.model.Article;
+
+/**
+ * The acknowledged but not yet flushed quantity changes of one article, coalesced into a single value.
+ * Guarded by the lock of the stripe it belongs to.
+ */
+final class PendingQuantity {
+
+    // The article as it was when its first pending change arrived.
+    private final Article base;
+
+    private int quantity;
+
+    // Whether any of the changes was an absolute update (a count); the flush then sets the quantity
+    // instead of adding the difference.
+    private boolean absolute;
+
+    private int updates;
+
+    PendingQuantity(Article base) {
+        this.base = base;
+        this.quantity = base.getQuantity();
+    }
+
+    private PendingQuantity(Article base, int quantity, boolean absolute, int updates) {
+        this.base = base;
+        this.quantity = quantity;
+        this.absolute = absolute;
+        this.updates = updates;
+    }
+
+    /**
+     * These changes applied on top of earlier ones that were never written (their flush failed):
+     * one pending value that starts where the earlier ones started.
+     */
+    PendingQuantity after(PendingQuantity earlier) {
+        return new PendingQuantity(earlier.base, quantity, absolute || earlier.absolute, updates + earlier.updates);
+    }
+
+    /**
+     * Adds an absolute update (or, with quantity null, an adjustment by delta) and returns the
+     * article as it will be after the flush. A change that would take stock that is stored at a
+     * location or held by reservations is rejected, exactly as on the direct path, and not added.
+     */
+    Article apply(Integer absoluteQuantity, int delta) {
+        int current = quantity;
+        int after = absoluteQuantity != null ? absoluteQuantity : current + delta;
+        int change = after - current;
+        if (after < 0) {
+            throw new InsufficientStockException(base.getId(), current, change);
+        }
+        if (after < base.getLocatedQuantity()) {
+            throw new InsufficientStockException(base.getId(), current, change, base.getLocatedQuantity());
+        }
+        if (after < base.getLocatedQuantity() + base.getReservedQuantity()) {
+            throw InsufficientStockException.reserved(base.getId(), current, change, base.getReservedQuantity());
+        }
+        quantity = after;
+        absolute |= absoluteQuantity != null;
+        updates++;
+        return projected();
+    }
+
+    // A copy of the article with the pending quantity; the cached base is never changed.
+    Article projected() {
+        return new Article(base.getId(), base.getName(), quantity, base.getUnit(), base.getLowStockThreshold(),
+                base.getVersion(), base.getLowStockThreshold() - quantity, base.getLocatedQuantity(),
+                base.getReservedQuantity());
+    }
+
+    /**
+     * The quantity to write, given the quantity in the database: a count replaces it, adjustments
+     * are added to it (so they also apply on top of a change that reached the database in between).
+     */
+    int target(int databaseQuantity) {
+        return absolute ? quantity : databaseQuantity + quantity - base.getQuantity();
+    }
+
+    boolean isAbsolute() {
+        return absolute;
+    }
+
+    int getUpdates() {
+        return updates;
+    }
+}
@@ -0,0 +1,430 @@
+package com.inventaro.backend.writebehind;
+
+import com.inventaro.backend.event.ArticleChangeEvent;
+import com.inventaro.backend.event.ArticleChangeType;
+import com.inventaro.backend.model.Article;
+import com.inventaro.backend.model.StockMovement;
+import com.inventaro.backend.model.StockMovementType;
+import com.inventaro.backend.repository.ArticleRepository;
+import com.inventaro.backend.service.ArticleCache;
+import com.inventaro.backend.service.StockLedger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Opt-in write-behind for quantity updates (inventaro.write-behind.enabled), for bursts such as
+ * stocktaking where thousands of counts per minute hit the same articles.
+ *
+ * An update is checked against the article's pending quantity, added to it in memory and
+ * acknowledged at once. The pending quantities are kept per article in lock-striped maps, so
+ * updates of different articles rarely contend. Every flush-interval, or as soon as max-pending
+ * articles have pending changes, they are written to the database in one transaction: one UPDATE
+ * and one ledger entry per article, however many updates it received.
+ *
+ * Reads overlay the pending quantities (see {@link #overlay(Article)}), and every direct write to an
+ * article first writes its pending changes within the direct write's transaction (see
+ * {@link #flush(UUID)}), so the database is never changed underneath a pending value. They commit
+ * with the direct write; if it rolls back, they are put back as pending. On shutdown everything
+ * pending is flushed; updates acknowledged since the last flush are lost only if the process dies
+ * without shutting down.
+ */
+@Slf4j
+@Component
+public class QuantityWriteBehind {
+
+    static final String UPDATES = "inventaro.write_behind.updates";
+    static final String FLUSHES = "inventaro.write_behind.flushes";
+    static final String CONFLICTS = "inventaro.write_behind.conflicts";
+
+    private static final int STRIPES = 64;
+
+    // Keeps the IN list of a single locking query well below common database parameter limits.
+    private static final int LOCK_CHUNK_SIZE = 1_000;
+
+    private final ArticleRepository articleRepository;
+    private final StockLedger stockLedger;
+    private final ArticleCache articleCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+
+    private final boolean enabled;
+    private final Duration flushInterval;
+    private final int maxPending;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicInteger pendingArticles = new AtomicInteger();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Semaphore flushRequested = new Semaphore(0);
+
+    // Taken out of the stripes by a running flush and still visible to reads until it has committed.
+    private volatile Map<UUID, PendingQuantity> flushing = Map.of();
+
+    // Taken out of the stripes by direct writes (flush(UUID)) whose transactions have not completed yet.
+    private final Map<UUID, PendingQuantity> writtenDirectly = new ConcurrentHashMap<>();
+    private volatile boolean accepting;
+    private volatile Thread flusher;
+
+    private final Counter updates;
+    private final Counter flushes;
+    private final Counter conflicts;
+
+    public QuantityWriteBehind(ArticleRepository articleRepository,
+                               StockLedger stockLedger,
+                               ArticleCache articleCache,
+                               ApplicationEventPublisher eventPublisher,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry registry,
+                               @Value("${inventaro.write-behind.enabled:false}") boolean enabled,
+                               @Value("${inventaro.write-behind.flush-interval:200ms}") Duration flushInterval,
+                               @Value("${inventaro.write-behind.max-pending:1000}") int maxPending) {
+        this.articleRepository = articleRepository;
+        this.stockLedger = stockLedger;
+        this.articleCache = articleCache;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.flushInterval = flushInterval;
+        this.maxPending = Math.max(maxPending, 1);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+
+        updates = Counter.builder(UPDATES)
+                .description("Quantity updates acknowledged by the write-behind")
+                .register(registry);
+        flushes = Counter.builder(FLUSHES)
+                .description("Writes of pending quantities, by the flusher or ahead of a direct write")
+                .register(registry);
+        conflicts = Counter.builder(CONFLICTS)
+                .description("Pending quantities dropped because the article no longer allowed them at flush time")
+                .register(registry);
+        Gauge.builder("inventaro.write_behind.pending", pendingArticles, AtomicInteger::get)
+                .description("Articles with pending quantity changes")
+                .register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        accepting = true;
+        flusher = Thread.ofVirtual().name("quantity-write-behind").start(this::run);
+    }
+
+    // NOTE:
+    // Destroyed before the data source it depends on, and after the web server has stopped taking
+    // requests, so this is the last chance to write what has been acknowledged.
+    @PreDestroy
+    void shutdown() {
+        accepting = false;
+        if (flusher != null) {
+            flusher.interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Whether quantity updates without preconditions are acknowledged here instead of written directly.
+     */
+    public boolean isAccepting() {
+        return accepting;
+    }
+
+    public Article setQuantity(UUID id, int quantity) {
+        return submit(id, quantity, 0);
+    }
+
+    public Article adjustQuantity(UUID id, int delta) {
+        return submit(id, null, delta);
+    }
+
+    /**
+     * Returns the article with its pending quantity, or the article itself when nothing is pending.
+     */
+    public Article overlay(Article article) {
+        PendingQuantity pending = pending(article.getId());
+        return pending == null ? article : pending.projected();
+    }
+
+    public List<Article> overlay(List<Article> articles) {
+        if (!hasPending()) {
+            return articles;
+        }
+        return articles.stream().map(this::overlay).toList();
+    }
+
+    public boolean hasPending() {
+        return pendingArticles.get() > 0 || !flushing.isEmpty() || !writtenDirectly.isEmpty();
+    }
+
+    /**
+     * Writes the pending changes of the article in the caller's transaction, before a direct write to
+     * it. Must be called before the caller locks the article. The changes of other articles stay
+     * pending, and if the transaction rolls back, so do the article's.
+     */
+    public void flush(UUID id) {
+        flushAll(List.of(id));
+    }
+
+    public void flushAll(Collection<UUID> ids) {
+        if (!hasPending()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Pending quantities can only be written in the transaction of a direct write");
+        }
+        Map<UUID, PendingQuantity> batch = new HashMap<>();
+        for (UUID id : ids) {
+            Stripe stripe = stripe(id);
+            stripe.lock.lock();
+            try {
+                PendingQuantity pending = stripe.pending.remove(id);
+                if (pending != null) {
+                    pendingArticles.decrementAndGet();
+                    writtenDirectly.put(id, pending);
+                    batch.put(id, pending);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        if (!batch.isEmpty()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        restore(batch);
+                    }
+                    batch.forEach(writtenDirectly::remove);
+                }
+            });
+        }
+
+        // A running flush has taken the others: the direct write waits for it to commit. The flush
+        // already holds its connection (see flush()), so this never waits for a connection held here.
+        if (ids.stream().anyMatch(id -> !batch.containsKey(id) && flushing.containsKey(id))) {
+            flushLock.lock();
+            flushLock.unlock();
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+            flushes.increment();
+        }
+    }
+
+    /**
+     * Writes everything pending, in one transaction. Returns the number of articles written.
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            if (pendingArticles.get() == 0) {
+                return 0;
+            }
+            Map<UUID, PendingQuantity> batch = new ConcurrentHashMap<>();
+            Integer written;
+            try {
+                // NOTE:
+                // The pending changes are taken once the transaction has its connection. Direct writes
+                // waiting for this flush to commit hold connections of their own, so the flush must not
+                // be waiting for one by then.
+                written = transaction.execute(status -> {
+                    flushing = batch;
+                    for (Stripe stripe : stripes) {
+                        stripe.lock.lock();
+                        try {
+                            batch.putAll(stripe.pending);
+                            pendingArticles.addAndGet(-stripe.pending.size());
+                            stripe.pending.clear();
+                        } finally {
+                            stripe.lock.unlock();
+                        }
+                    }
+                    return batch.isEmpty() ? 0 : write(batch);
+                });
+            } catch (RuntimeException ex) {
+                restore(batch);
+                throw ex;
+            }
+            if (!batch.isEmpty()) {
+                flushes.increment();
+            }
+            return written == null ? 0 : written;
+        } finally {
+            flushing = Map.of();
+            flushLock.unlock();
+        }
+    }
+
+    // Puts the changes of a failed flush back, in front of any that arrived while it was running.
+    private void restore(Map<UUID, PendingQuantity> batch) {
+        batch.forEach((id, earlier) -> {
+            Stripe stripe = stripe(id);
+            stripe.lock.lock();
+            try {
+                PendingQuantity later = stripe.pending.get(id);
+                if (later == null) {
+                    stripe.pending.put(id, earlier);
+                    pendingArticles.incrementAndGet();
+                } else {
+                    stripe.pending.put(id, later.after(earlier));
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        });
+    }
+
+    private Article submit(UUID id, Integer quantity, int delta) {
+        Stripe stripe = stripe(id);
+        Article base = null;
+        while (true) {
+            stripe.lock.lock();
+            try {
+                PendingQuantity pending = stripe.pending.get(id);
+                if (pending == null) {
+                    // Continue from a value that is being written right now, not from the database.
+                    PendingQuantity inFlight = inFlight(id);
+                    Article start = inFlight != null ? inFlight.projected() : base;
+                    if (start != null) {
+                        pending = new PendingQuantity(start);
+                        Article projected = pending.apply(quantity, delta);
+                        stripe.pending.put(id, pending);
+                        acknowledged();
+                        return projected;
+                    }
+                } else {
+                    Article projected = pending.apply(quantity, delta);
+                    updates.increment();
+                    return projected;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+            // The first pending change of the article: read it outside the stripe lock and try again.
+            base = articleRepository.findById(id)
+                    .orElseThrow(() -> new IllegalArgumentException("Article not found with id: " + id));
+        }
+    }
+
+    private void acknowledged() {
+        updates.increment();
+        if (pendingArticles.incrementAndGet() >= maxPending) {
+            flushRequested.release();
+        }
+    }
+
+    private PendingQuantity pending(UUID id) {
+        Stripe stripe = stripe(id);
+        stripe.lock.lock();
+        try {
+            PendingQuantity pending = stripe.pending.get(id);
+            return pending != null ? pending : inFlight(id);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private PendingQuantity inFlight(UUID id) {
+        PendingQuantity flushed = flushing.get(id);
+        return flushed != null ? flushed : writtenDirectly.get(id);
+    }
+
+    private Stripe stripe(UUID id) {
+        return stripes[id.hashCode() & (STRIPES - 1)];
+    }
+
+    private int write(Map<UUID, PendingQuantity> batch) {
+        List<UUID> ids = batch.keySet().stream().sorted().toList();
+        Map<UUID, Article> articles = new TreeMap<>();
+        for (int from = 0; from < ids.size(); from += LOCK_CHUNK_SIZE) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + LOCK_CHUNK_SIZE, ids.size()));
+            articleRepository.findAllByIdForUpdate(chunk).forEach(article -> articles.put(article.getId(), article));
+        }
+
+        Map<UUID, Boolean> wasLowStock = new HashMap<>();
+        Map<UUID, Integer> deltas = new HashMap<>();
+        for (Article article : articles.values()) {
+            PendingQuantity pending = batch.get(article.getId());
+            int target = pending.target(article.getQuantity());
+            // Only possible if the article was changed directly without flushing first, e.g. by another instance.
+            if (target < article.getLocatedQuantity() + article.getReservedQuantity() || target < 0) {
+                conflicts.increment();
+                log.warn("Dropped pending quantity {} of article {} ({} updates): quantity {}, located {}, reserved {}",
+                        target, article.getId(), pending.getUpdates(), article.getQuantity(),
+                        article.getLocatedQuantity(), article.getReservedQuantity());
+                continue;
+            }
+            if (target == article.getQuantity() && !pending.isAbsolute()) {
+                continue;
+            }
+            wasLowStock.put(article.getId(), ArticleChangeEvent.isLowStock(article));
+            deltas.put(article.getId(), target - article.getQuantity());
+            article.setQuantity(target);
+        }
+        // Flushed here rather than at commit so the ledger entries and events carry the new versions.
+        articleRepository.flush();
+
+        // One ledger entry per article for all of its coalesced updates.
+        List<StockMovement> movements = new ArrayList<>();
+        for (Map.Entry<UUID, Integer> delta : deltas.entrySet()) {
+            Article article = articles.get(delta.getKey());
+            StockMovementType type = batch.get(article.getId()).isAbsolute() ? StockMovementType.SET : StockMovementType.ADJUSTED;
+            movements.add(StockLedger.movement(article.getId(), type, delta.getValue(), article.getQuantity(), article.getVersion()));
+        }
+        stockLedger.recordAll(movements);
+
+        articleCache.evictAll(deltas.keySet());
+        for (UUID id : deltas.keySet()) {
+            eventPublisher.publishEvent(ArticleChangeEvent.of(
+                    ArticleChangeType.QUANTITY_CHANGED, articles.get(id), wasLowStock.get(id)));
+        }
+        return deltas.size();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                flushRequested.tryAcquire(flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+                flushRequested.drainPermits();
+                flush();
+            } catch (InterruptedException ex) {
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Flushing pending quantities failed", ex);
+            }
+        }
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<UUID, PendingQuantity> pending = new HashMap<>();
+    }
+}
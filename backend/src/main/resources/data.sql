@@ -1,7 +1,7 @@
-INSERT INTO article (id, name, quantity, unit, low_stock_threshold) VALUES
-                                                                        (RANDOM_UUID(), 'Munskydd', 200, 'paket', 100),
-                                                                        (RANDOM_UUID(), 'Handskar', 50, 'paket', 200),
-                                                                        (RANDOM_UUID(), 'Termometrar', 5, 'st', 10),
-                                                                        (RANDOM_UUID(), 'Sprutor', 300, 'st', 100),
-                                                                        (RANDOM_UUID(), 'Desinfektionsmedel', 20, 'st', 10),
-                                                                        (RANDOM_UUID(), 'Plåster', 50, 'paket', 100);
+INSERT INTO article (id, name, quantity, unit, low_stock_threshold, version, shortage) VALUES
+                                                                        (RANDOM_UUID(), 'Munskydd', 200, 'paket', 100, 0, -100),
+                                                                        (RANDOM_UUID(), 'Handskar', 50, 'paket', 200, 0, 150),
+                                                                        (RANDOM_UUID(), 'Termometrar', 5, 'st', 10, 0, 5),
+                                                                        (RANDOM_UUID(), 'Sprutor', 300, 'st', 100, 0, -200),
+                                                                        (RANDOM_UUID(), 'Desinfektionsmedel', 20, 'st', 10, 0, -10),
+                                                                        (RANDOM_UUID(), 'Plåster', 50, 'paket', 100, 0, 50);
@@ -0,0 +1,35 @@
+-- Schema as of the stock movement ledger. Keep in sync with the JPA entities:
+-- the persistent profile runs Hibernate with ddl-auto=validate.
+
+CREATE TABLE article (
+    id                  UUID         NOT NULL,
+    name                VARCHAR(255) NOT NULL,
+    quantity            INTEGER      NOT NULL,
+    unit                VARCHAR(255) NOT NULL,
+    low_stock_threshold INTEGER      NOT NULL,
+    version             BIGINT       NOT NULL,
+    shortage            INTEGER      NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- Keyset pagination and sorted listings (GET /articles/page).
+CREATE INDEX idx_article_name_id ON article (name, id);
+
+-- Low-stock range scan (GET /articles/low-stock), see Article.shortage.
+CREATE INDEX idx_article_shortage ON article (shortage);
+
+CREATE SEQUENCE stock_movement_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE stock_movement (
+    id              BIGINT                      NOT NULL,
+    article_id      UUID                        NOT NULL,
+    type            VARCHAR(16)                 NOT NULL,
+    delta           INTEGER                     NOT NULL,
+    quantity_after  INTEGER                     NOT NULL,
+    article_version BIGINT                      NOT NULL,
+    occurred_at     TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- History of one article by time (GET /articles/{id}/movements and /quantity?at=).
+CREATE INDEX idx_stock_movement_article_time ON stock_movement (article_id, occurred_at, id);
@@ -0,0 +1,22 @@
+-- Stock per location. article.quantity stays the total; located_quantity is the part stored at locations.
+
+ALTER TABLE article ADD COLUMN located_quantity INTEGER DEFAULT 0 NOT NULL;
+
+CREATE TABLE location (
+    id             UUID         NOT NULL,
+    name           VARCHAR(255) NOT NULL,
+    total_quantity BIGINT       NOT NULL,
+    article_count  INTEGER      NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_location_name UNIQUE (name)
+);
+
+CREATE TABLE location_stock (
+    article_id  UUID    NOT NULL,
+    location_id UUID    NOT NULL,
+    quantity    INTEGER NOT NULL,
+    PRIMARY KEY (article_id, location_id)
+);
+
+-- Articles in stock at one location (GET /locations/{id}/stock).
+CREATE INDEX idx_location_stock_location ON location_stock (location_id, article_id);
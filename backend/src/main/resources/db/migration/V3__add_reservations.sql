@@ -0,0 +1,19 @@
+-- Reservations (holds) of stock. article.reserved_quantity is the sum of the active holds of the article.
+
+ALTER TABLE article ADD COLUMN reserved_quantity INTEGER DEFAULT 0 NOT NULL;
+
+CREATE TABLE reservation (
+    id         UUID                        NOT NULL,
+    article_id UUID                        NOT NULL,
+    quantity   INTEGER                     NOT NULL,
+    reference  VARCHAR(255),
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- Holds due for release, earliest first (ReservationExpiry).
+CREATE INDEX idx_reservation_expires ON reservation (expires_at);
+
+-- Holds of one article (GET /articles/{id}/reservations, deleting an article).
+CREATE INDEX idx_reservation_article ON reservation (article_id, expires_at);
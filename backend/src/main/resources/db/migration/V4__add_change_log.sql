@@ -0,0 +1,13 @@
+-- Committed changes, tailed by every instance sharing the database (ClusterChangeLog).
+
+CREATE TABLE change_log (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    node_id    VARCHAR(64)                 NOT NULL,
+    kind       VARCHAR(16)                 NOT NULL,
+    payload    CHARACTER LARGE OBJECT      NOT NULL,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- Entries past the retention, oldest first.
+CREATE INDEX idx_change_log_created ON change_log (created_at);
@@ -0,0 +1,52 @@
+package com.inventaro.backend;
+
+import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.service.ArticleService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Starts the application twice on the same database file with the persistent profile: the first start
+ * creates the schema through the migrations (which Hibernate validates), the second one keeps the data.
+ */
+class PersistentStorageTest {
+
+    @TempDir
+    private Path dataDir;
+
+    @Test
+    void dataSurvivesRestartWithoutReseeding() {
+        UUID id;
+        try (ConfigurableApplicationContext context = start()) {
+            id = context.getBean(ArticleService.class)
+                    .createArticle(new CreateArticleRequest("Plåster", 40, "paket", 10))
+                    .getId();
+        }
+
+        try (ConfigurableApplicationContext context = start()) {
+            assertEquals("Plåster", context.getBean(ArticleService.class).getArticleById(id).getName());
+
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            // data.sql is not applied, and the migration only ran on the first start.
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM article", Integer.class));
+            assertEquals(1, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM \"flyway_schema_history\" WHERE \"version\" = '1'", Integer.class));
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_movement", Integer.class));
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(InventaroBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=persistent", "--inventaro.data-dir=" + dataDir);
+    }
+}
@@ -0,0 +1,95 @@
+package com.inventaro.backend.benchmark;
+
+import com.inventaro.backend.dto.AdjustQuantityRequest;
+import com.inventaro.backend.model.Article;
+import com.inventaro.backend.repository.ArticleRepository;
+import com.inventaro.backend.service.ArticleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Read-heavy load (95% reads by id, 5% quantity adjustments) from concurrent virtual threads,
+ * comparing read latency through the cached service with reads straight from the repository.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:inventaro-benchmark;DB_CLOSE_DELAY=-1")
+@EnabledIfSystemProperty(named = BenchmarkSupport.ENABLED_PROPERTY, matches = "true")
+class ArticleCacheBenchmarkTest {
+
+    private static final int ARTICLES = 100_000;
+    private static final int HOT_ARTICLES = 2_000;
+    private static final int CLIENTS = 64;
+    private static final int OPERATIONS_PER_CLIENT = 2_000;
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        BenchmarkSupport.clearArticles(jdbcTemplate);
+    }
+
+    @Test
+    void cachedReadsVersusRepositoryReads() throws Exception {
+        BenchmarkSupport.seedArticles(jdbcTemplate, ARTICLES);
+        List<UUID> hotIds = jdbcTemplate.queryForList("SELECT id FROM article LIMIT " + HOT_ARTICLES, UUID.class);
+
+        long[] uncached = run(hotIds, id -> articleRepository.findById(id).orElseThrow());
+        long[] cached = run(hotIds, articleService::getArticleById);
+
+        System.out.println(BenchmarkSupport.format("read by id, repository (no cache)", uncached));
+        System.out.println(BenchmarkSupport.format("read by id, cached service", cached));
+    }
+
+    // Returns the sorted read latencies of all clients in nanoseconds.
+    private long[] run(List<UUID> hotIds, Function<UUID, Article> read) throws Exception {
+        List<Future<long[]>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTS; c++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long[] latencies = new long[OPERATIONS_PER_CLIENT];
+                    int reads = 0;
+                    for (int i = 0; i < OPERATIONS_PER_CLIENT; i++) {
+                        UUID id = hotIds.get(random.nextInt(hotIds.size()));
+                        if (random.nextInt(100) < 5) {
+                            articleService.adjustQuantity(id, new AdjustQuantityRequest(1), null);
+                        } else {
+                            long start = System.nanoTime();
+                            read.apply(id);
+                            latencies[reads++] = System.nanoTime() - start;
+                        }
+                    }
+                    return Arrays.copyOf(latencies, reads);
+                }));
+            }
+        }
+
+        long[] all = futures.stream().flatMapToLong(future -> Arrays.stream(future.resultNow())).toArray();
+        Arrays.sort(all);
+        return all;
+    }
+}
@@ -0,0 +1,73 @@
+package com.inventaro.backend.benchmark;
+
+import com.inventaro.backend.model.Article;
+import com.inventaro.backend.repository.ArticleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares keyset pagination (GET /articles/page) with OFFSET pagination while the
+ * article table grows from 1k rows to -Dbenchmark.maxRows (default 1M).
+ *
+ * Each measurement fetches a page from the middle of the table. Keyset latency should stay
+ * flat as the table grows, while OFFSET latency grows with the number of skipped rows.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:inventaro-benchmark;DB_CLOSE_DELAY=-1")
+@EnabledIfSystemProperty(named = BenchmarkSupport.ENABLED_PROPERTY, matches = "true")
+class ArticlePaginationBenchmarkTest {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        BenchmarkSupport.clearArticles(jdbcTemplate);
+    }
+
+    @Test
+    void keysetPageLatencyStaysFlatAsTableGrows() {
+        for (int rows : BenchmarkSupport.tableSizes()) {
+            BenchmarkSupport.seedArticles(jdbcTemplate, rows);
+
+            // Position both strategies at the same row in the middle of the table.
+            int middle = rows / 2;
+            Object[] position = jdbcTemplate.queryForObject(
+                    "SELECT name, id FROM article ORDER BY name, id OFFSET ? ROWS FETCH NEXT 1 ROWS ONLY",
+                    (rs, i) -> new Object[]{rs.getString(1), rs.getObject(2, UUID.class)},
+                    middle - 1);
+            String name = (String) position[0];
+            UUID id = (UUID) position[1];
+            PageRequest offsetPage = PageRequest.of(middle / PAGE_SIZE, PAGE_SIZE, Sort.by("name", "id"));
+
+            long[] keyset = BenchmarkSupport.measure(20, 200, () -> {
+                List<Article> page = articleRepository.findPageAfter(name, id, Limit.of(PAGE_SIZE + 1));
+                assertEquals(PAGE_SIZE + 1, page.size());
+            });
+            long[] offset = BenchmarkSupport.measure(5, 20, () -> articleRepository.findAll(offsetPage));
+
+            System.out.println(BenchmarkSupport.format("keyset page, " + rows + " rows", keyset));
+            System.out.println(BenchmarkSupport.format("offset page, " + rows + " rows", offset));
+        }
+    }
+}
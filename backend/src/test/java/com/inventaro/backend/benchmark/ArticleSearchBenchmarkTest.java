@@ -0,0 +1,76 @@
+package com.inventaro.backend.benchmark;
+
+import com.inventaro.backend.search.ArticleSearchIndex;
+import com.inventaro.backend.service.ArticleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+/**
+ * Type-ahead latency of the article search at growing table sizes (up to -Dbenchmark.maxRows, default 1M).
+ *
+ * Names are generated from a few Swedish product words plus a unique number, so short prefixes
+ * match a large part of the catalogue and longer queries narrow it down, like a user typing.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:inventaro-benchmark;DB_CLOSE_DELAY=-1")
+@EnabledIfSystemProperty(named = BenchmarkSupport.ENABLED_PROPERTY, matches = "true")
+class ArticleSearchBenchmarkTest {
+
+    private static final List<String> QUERIES = List.of("h", "ha", "hand", "handskar n", "handskar nitril 12",
+            "plås", "plåster steril", "k s", "zzz");
+
+    @Autowired
+    private ArticleSearchIndex searchIndex;
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        BenchmarkSupport.clearArticles(jdbcTemplate);
+        searchIndex.rebuild();
+    }
+
+    @Test
+    void typeAheadLatency() {
+        for (int rows : BenchmarkSupport.tableSizes()) {
+            seed(rows);
+
+            long start = System.nanoTime();
+            searchIndex.rebuild();
+            System.out.printf("index rebuild, %d rows: %.0f ms%n", rows, (System.nanoTime() - start) / 1_000_000.0);
+
+            for (String query : QUERIES) {
+                long[] index = BenchmarkSupport.measure(100, 1_000, () -> searchIndex.search(query, 20));
+                long[] endpoint = BenchmarkSupport.measure(20, 200, () -> articleService.searchArticles(query, 20));
+                System.out.println(BenchmarkSupport.format("index  '" + query + "', " + rows + " rows", index));
+                System.out.println(BenchmarkSupport.format("search '" + query + "', " + rows + " rows", endpoint));
+            }
+        }
+    }
+
+    private void seed(int targetRows) {
+        Integer current = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM article", Integer.class);
+        jdbcTemplate.update("""
+                INSERT INTO article (id, name, quantity, unit, low_stock_threshold, version, shortage)
+                SELECT RANDOM_UUID(),
+                       ARRAY_GET(ARRAY['Handskar', 'Plåster', 'Kompress', 'Förband', 'Sprit', 'Tejp', 'Spruta'], MOD(X, 7) + 1)
+                       || ' ' || ARRAY_GET(ARRAY['nitril', 'latex', 'steril', 'vinyl', 'elastisk'], MOD(X / 7, 5) + 1)
+                       || ' ' || X,
+                       MOD(X, 500), 'pcs', 50, 0, 50 - MOD(X, 500)
+                FROM SYSTEM_RANGE(?, ?)
+                """, current + 1, targetRows);
+    }
+}
@@ -0,0 +1,77 @@
+package com.inventaro.backend.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Shared helpers for the opt-in benchmarks in this package.
+ *
+ * Benchmarks only run with -Dbenchmark=true, e.g.
+ * mvn test -Dtest='*BenchmarkTest' -Dbenchmark=true
+ */
+final class BenchmarkSupport {
+
+    static final String ENABLED_PROPERTY = "benchmark";
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Table sizes to benchmark, starting at 1k and growing tenfold up to -Dbenchmark.maxRows.
+     */
+    static int[] tableSizes() {
+        int maxRows = Integer.getInteger("benchmark.maxRows", 1_000_000);
+        return java.util.stream.IntStream.iterate(1_000, n -> n <= maxRows, n -> n * 10).toArray();
+    }
+
+    /**
+     * Grows the article table to the given number of rows with generated data (H2 only).
+     */
+    static void seedArticles(JdbcTemplate jdbcTemplate, int targetRows) {
+        Integer current = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM article", Integer.class);
+        if (current == null || current >= targetRows) {
+            return;
+        }
+        jdbcTemplate.update("""
+                INSERT INTO article (id, name, quantity, unit, low_stock_threshold, version, shortage)
+                SELECT RANDOM_UUID(), 'Article ' || LPAD(CAST(X AS VARCHAR), 8, '0'), MOD(X, 500), 'pcs', 50, 0, 50 - MOD(X, 500)
+                FROM SYSTEM_RANGE(?, ?)
+                """, current + 1, targetRows);
+    }
+
+    // TRUNCATE instead of DELETE: deleting a million rows in one transaction can exhaust the heap of an in-memory H2.
+    static void clearArticles(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("TRUNCATE TABLE article");
+        jdbcTemplate.update("TRUNCATE TABLE stock_movement");
+    }
+
+    /**
+     * Runs the task for a number of warmup and measured iterations and returns the
+     * measured latencies in nanoseconds, sorted ascending.
+     */
+    static long[] measure(int warmup, int iterations, Runnable task) {
+        for (int i = 0; i < warmup; i++) {
+            task.run();
+        }
+        long[] samples = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            task.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    static double percentileMillis(long[] sortedSamples, double percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sortedSamples.length) - 1;
+        return sortedSamples[Math.clamp(index, 0, sortedSamples.length - 1)] / 1_000_000.0;
+    }
+
+    static String format(String label, long[] sortedSamples) {
+        return String.format(Locale.ROOT, "%-40s p50=%8.3f ms  p99=%8.3f ms",
+                label, percentileMillis(sortedSamples, 50), percentileMillis(sortedSamples, 99));
+    }
+}
@@ -0,0 +1,87 @@
+package com.inventaro.backend.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * A dashboard re-polling GET /articles on an unchanged catalogue (-Dbenchmark.pollRows articles,
+ * default 10k): response bytes and CPU time per poll without and with If-None-Match.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:inventaro-benchmark;DB_CLOSE_DELAY=-1")
+@EnabledIfSystemProperty(named = BenchmarkSupport.ENABLED_PROPERTY, matches = "true")
+class ConditionalPollingBenchmarkTest {
+
+    private static final int WARMUP_POLLS = 50;
+    private static final int POLLS = 500;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        BenchmarkSupport.clearArticles(jdbcTemplate);
+    }
+
+    @Test
+    void repeatedPollingWithAndWithoutIfNoneMatch() throws Exception {
+        int rows = Integer.getInteger("benchmark.pollRows", 10_000);
+        BenchmarkSupport.seedArticles(jdbcTemplate, rows);
+        String etag = mockMvc.perform(get("/articles")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        Polls unconditional = poll(get("/articles"), 200);
+        Polls conditional = poll(get("/articles").header(HttpHeaders.IF_NONE_MATCH, etag), 304);
+
+        System.out.println(unconditional.format("GET /articles, " + rows + " rows"));
+        System.out.println(conditional.format("GET /articles + If-None-Match"));
+        System.out.printf(Locale.ROOT, "%-40s %.1f%% bytes, %.1f%% CPU%n", "saved per poll",
+                100.0 * (1 - (double) conditional.bytes() / unconditional.bytes()),
+                100.0 * (1 - (double) conditional.cpuNanos() / unconditional.cpuNanos()));
+    }
+
+    // MockMvc handles the request on the calling thread, so its CPU time covers the whole request.
+    private Polls poll(MockHttpServletRequestBuilder request, int expectedStatus) throws Exception {
+        for (int i = 0; i < WARMUP_POLLS; i++) {
+            mockMvc.perform(request);
+        }
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long bytes = 0;
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < POLLS; i++) {
+            MockHttpServletResponse response = mockMvc.perform(request).andReturn().getResponse();
+            assertEquals(expectedStatus, response.getStatus());
+            bytes += response.getContentAsByteArray().length;
+        }
+        return new Polls(bytes / POLLS, (threads.getCurrentThreadCpuTime() - cpuStart) / POLLS);
+    }
+
+    private record Polls(long bytes, long cpuNanos) {
+
+        String format(String label) {
+            return String.format(Locale.ROOT, "%-40s %10d bytes  %8.3f ms CPU per poll", label, bytes, cpuNanos / 1_000_000.0);
+        }
+    }
+}
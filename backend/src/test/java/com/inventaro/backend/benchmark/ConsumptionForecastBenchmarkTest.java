@@ -0,0 +1,96 @@
+package com.inventaro.backend.benchmark;
+
+import com.inventaro.backend.event.StockMovementEvent;
+import com.inventaro.backend.forecast.ConsumptionForecaster;
+import com.inventaro.backend.model.StockMovement;
+import com.inventaro.backend.model.StockMovementType;
+import com.inventaro.backend.repository.StockMovementRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cost of the consumption forecaster: a full recompute from the ledger with 1, 2 and 4 parallel
+ * partitions, and the incremental update per committed movement.
+ *
+ * Uses 500k articles (or -Dbenchmark.maxRows, if lower) with 4 movements each over the last 90 days.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:inventaro-benchmark;DB_CLOSE_DELAY=-1")
+@EnabledIfSystemProperty(named = BenchmarkSupport.ENABLED_PROPERTY, matches = "true")
+class ConsumptionForecastBenchmarkTest {
+
+    private static final int MOVEMENTS_PER_ARTICLE = 4;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        BenchmarkSupport.clearArticles(jdbcTemplate);
+    }
+
+    @Test
+    void recomputeAndIncrementalUpdate() {
+        int articles = Math.min(500_000, Integer.getInteger("benchmark.maxRows", 1_000_000));
+        BenchmarkSupport.seedArticles(jdbcTemplate, articles);
+        // Consumption of 1-10 units, spread over the last 90 days. Negative ids never collide with the sequence.
+        jdbcTemplate.update("""
+                INSERT INTO stock_movement (id, article_id, type, delta, quantity_after, article_version, occurred_at)
+                SELECT -ROWNUM(), a.id, 'ADJUSTED', -1 - MOD(ROWNUM() * 31, 10), a.quantity, r.X,
+                       DATEADD(SECOND, -MOD(ROWNUM() * 7919, 7776000), CURRENT_TIMESTAMP)
+                FROM article a, SYSTEM_RANGE(1, ?) r
+                """, MOVEMENTS_PER_ARTICLE);
+        List<UUID> ids = jdbcTemplate.queryForList("SELECT id FROM article", UUID.class);
+
+        for (int parallelism : new int[]{1, 2, 4}) {
+            ConsumptionForecaster forecaster = forecaster(parallelism);
+            long[] recompute = BenchmarkSupport.measure(1, 3, forecaster::recompute);
+            System.out.println(BenchmarkSupport.format(String.format(Locale.ROOT, "recompute %d articles, %d partitions",
+                    forecaster.size(), parallelism), recompute));
+        }
+
+        ConsumptionForecaster forecaster = forecaster(4);
+        forecaster.recompute();
+        List<StockMovementEvent> events = new ArrayList<>();
+        for (int i = 0; i < 1_000_000; i++) {
+            UUID id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+            events.add(new StockMovementEvent(List.of(new StockMovement(
+                    (long) i, id, StockMovementType.ADJUSTED, -1, 100, i, Instant.now()))));
+        }
+        long start = System.nanoTime();
+        events.forEach(forecaster::onStockMovements);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf(Locale.ROOT, "%-40s %.0f movements/s%n", "incremental update", events.size() / seconds);
+
+        long[] forecast = BenchmarkSupport.measure(10_000, 100_000, () ->
+                forecaster.forecast(ids.get(ThreadLocalRandom.current().nextInt(ids.size())), 100));
+        System.out.println(BenchmarkSupport.format("forecast, " + ids.size() + " articles", forecast));
+    }
+
+    private ConsumptionForecaster forecaster(int parallelism) {
+        return new ConsumptionForecaster(stockMovementRepository, transactionManager,
+                Duration.ofDays(14), Duration.ofDays(7), Duration.ofDays(3), parallelism);
+    }
+}
@@ -0,0 +1,80 @@
+package com.inventaro.backend.benchmark;
+
+import com.inventaro.backend.idempotency.IdempotencyStore;
+import com.inventaro.backend.idempotency.IdempotentResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+
+/**
+ * Throughput of the idempotency store from many threads: every request with a new key
+ * (claim and complete), and retries of a small set of hot keys (replays of stored responses).
+ * Runs without Spring, as the store is the part every keyed request goes through.
+ */
+@EnabledIfSystemProperty(named = BenchmarkSupport.ENABLED_PROPERTY, matches = "true")
+class IdempotencyStoreBenchmarkTest {
+
+    private static final int THREADS = Runtime.getRuntime().availableProcessors() * 2;
+    private static final int OPERATIONS_PER_THREAD = 500_000;
+    private static final int HOT_KEYS = 64;
+    private static final IdempotentResponse RESPONSE = new IdempotentResponse(200, Map.of(), new byte[256], new byte[32]);
+
+    @Test
+    void newKeysAndRetriesFromConcurrentThreads() throws Exception {
+        IdempotencyStore store = new IdempotencyStore(DataSize.ofMegabytes(80), Duration.ofMinutes(10));
+        run("new keys", thread -> i -> {
+            IdempotencyStore.Claim claim = store.claim("POST /articles " + thread + "-" + i);
+            store.complete(claim, RESPONSE);
+        });
+
+        IdempotencyStore hot = new IdempotencyStore(DataSize.ofMegabytes(80), Duration.ofMinutes(10));
+        for (int k = 0; k < HOT_KEYS; k++) {
+            hot.complete(hot.claim("POST /articles hot-" + k), RESPONSE);
+        }
+        run("retries of " + HOT_KEYS + " hot keys", thread -> i ->
+                hot.claim("POST /articles hot-" + ThreadLocalRandom.current().nextInt(HOT_KEYS)).response().join());
+    }
+
+    private void run(String label, IntFunction<Operation> perThread) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        long elapsed;
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                Operation operation = perThread.apply(t);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        operation.run(i);
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            elapsed = System.nanoTime() - begin;
+        }
+        double perSecond = (double) THREADS * OPERATIONS_PER_THREAD / (elapsed / 1_000_000_000.0);
+        System.out.printf(Locale.ROOT, "%-40s %d threads: %,.0f requests/s%n", label, THREADS, perSecond);
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run(int i);
+    }
+}
@@ -0,0 +1,119 @@
+package com.inventaro.backend.benchmark;
+
+import com.inventaro.backend.dto.AdjustQuantityRequest;
+import com.inventaro.backend.dto.TransferRequest;
+import com.inventaro.backend.exception.InsufficientStockException;
+import com.inventaro.backend.repository.LocationQuantity;
+import com.inventaro.backend.service.LocationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Multi-location stock with 1k locations and 100k articles (or -Dbenchmark.maxRows, if lower),
+ * each article stocked at 10 locations (1M location_stock rows).
+ *
+ * Compares the location totals as served (read from the maintained aggregates) with the
+ * GROUP BY they replace, and measures the per-article and per-location reads and the two writes.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:inventaro-benchmark;DB_CLOSE_DELAY=-1")
+@EnabledIfSystemProperty(named = BenchmarkSupport.ENABLED_PROPERTY, matches = "true")
+class LocationStockBenchmarkTest {
+
+    private static final int LOCATIONS = 1_000;
+    private static final int LOCATIONS_PER_ARTICLE = 10;
+
+    @Autowired
+    private LocationService locationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        BenchmarkSupport.clearArticles(jdbcTemplate);
+        jdbcTemplate.update("TRUNCATE TABLE location_stock");
+        jdbcTemplate.update("DELETE FROM location");
+    }
+
+    @Test
+    void totalsReadsAndTransfers() {
+        int articles = Math.min(100_000, Integer.getInteger("benchmark.maxRows", 1_000_000));
+        seed(articles);
+        List<UUID> articleIds = jdbcTemplate.queryForList("SELECT id FROM article", UUID.class);
+        List<UUID> locationIds = jdbcTemplate.queryForList("SELECT id FROM location", UUID.class);
+        String scale = LOCATIONS + " locations x " + articles + " articles";
+
+        long[] totals = BenchmarkSupport.measure(20, 200, locationService::getAllLocations);
+        // The always-true condition varies per run, so H2 cannot answer from its cache of the previous result.
+        long[] groupBy = BenchmarkSupport.measure(2, 10, () -> jdbcTemplate.queryForList("""
+                SELECT location_id, SUM(quantity), COUNT(*) FROM location_stock WHERE quantity > ? GROUP BY location_id
+                """, -1 - ThreadLocalRandom.current().nextInt(1_000_000)));
+        long[] articleStock = BenchmarkSupport.measure(500, 5_000, () -> locationService.getArticleStock(random(articleIds)));
+        long[] locationPage = BenchmarkSupport.measure(100, 1_000, () -> locationService.getLocationStock(random(locationIds), null, 100));
+        long[] adjust = BenchmarkSupport.measure(200, 2_000, () -> {
+            UUID article = random(articleIds);
+            UUID location = locationService.getArticleStock(article).getLocations().getFirst().locationId();
+            locationService.adjustStock(article, location, new AdjustQuantityRequest(1));
+        });
+        long[] transfer = BenchmarkSupport.measure(200, 2_000, () -> {
+            UUID article = random(articleIds);
+            LocationQuantity from = locationService.getArticleStock(article).getLocations().getFirst();
+            try {
+                locationService.transfer(article, new TransferRequest(from.locationId(), random(locationIds), 1));
+            } catch (InsufficientStockException | IllegalArgumentException ignored) {
+                // Picked the same location or an emptied one; rare, and still a full round trip.
+            }
+        });
+
+        System.out.println(BenchmarkSupport.format("location totals (aggregates), " + scale, totals));
+        System.out.println(BenchmarkSupport.format("location totals (GROUP BY), " + scale, groupBy));
+        System.out.println(BenchmarkSupport.format("article stock per location", articleStock));
+        System.out.println(BenchmarkSupport.format("location stock page (100)", locationPage));
+        System.out.println(BenchmarkSupport.format("read + adjust at location", adjust));
+        System.out.println(BenchmarkSupport.format("read + transfer", transfer));
+    }
+
+    // Locations get fixed ids so the generated stock rows can reference them without a join.
+    private void seed(int articles) {
+        BenchmarkSupport.seedArticles(jdbcTemplate, articles);
+        jdbcTemplate.update("""
+                INSERT INTO location (id, name, total_quantity, article_count)
+                SELECT CAST('00000000-0000-0000-0000-' || LPAD(CAST(X AS VARCHAR), 12, '0') AS UUID), 'Location ' || X, 0, 0
+                FROM SYSTEM_RANGE(0, ?)
+                """, LOCATIONS - 1);
+        // Distinct locations per article: 101 * j differs modulo 1000 for j < 10.
+        jdbcTemplate.update("""
+                INSERT INTO location_stock (article_id, location_id, quantity)
+                SELECT a.id,
+                       CAST('00000000-0000-0000-0000-' || LPAD(CAST(MOD(CAST(SUBSTRING(a.name, 9) AS INT) * 7 + r.X * 101, ?)
+                            AS VARCHAR), 12, '0') AS UUID),
+                       10
+                FROM article a, SYSTEM_RANGE(0, ?) r
+                """, LOCATIONS, LOCATIONS_PER_ARTICLE - 1);
+        jdbcTemplate.update("""
+                UPDATE article SET located_quantity = ?, quantity = quantity + ?, shortage = shortage - ?
+                """, 10 * LOCATIONS_PER_ARTICLE, 10 * LOCATIONS_PER_ARTICLE, 10 * LOCATIONS_PER_ARTICLE);
+        // Seeding only: the application keeps these totals up to date incrementally.
+        jdbcTemplate.update("""
+                UPDATE location l SET
+                    total_quantity = (SELECT COALESCE(SUM(s.quantity), 0) FROM location_stock s WHERE s.location_id = l.id),
+                    article_count = (SELECT COUNT(*) FROM location_stock s WHERE s.location_id = l.id)
+                """);
+    }
+
+    private static UUID random(List<UUID> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,54 @@
+package com.inventaro.backend.benchmark;
+
+import com.inventaro.backend.repository.ArticleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures the low-stock query on a large table (-Dbenchmark.maxRows, default 1M) where only
+ * a few hundred articles are low, bypassing the cache so every call hits the database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:inventaro-benchmark;DB_CLOSE_DELAY=-1")
+@EnabledIfSystemProperty(named = BenchmarkSupport.ENABLED_PROPERTY, matches = "true")
+class LowStockQueryBenchmarkTest {
+
+    private static final int LOW_STOCK_ARTICLES = 300;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        BenchmarkSupport.clearArticles(jdbcTemplate);
+    }
+
+    @Test
+    void lowStockQueryOnLargeTable() {
+        int rows = Integer.getInteger("benchmark.maxRows", 1_000_000);
+        // Every article is well stocked except the first few hundred, which are spread over different shortages.
+        jdbcTemplate.update("""
+                INSERT INTO article (id, name, quantity, unit, low_stock_threshold, version, shortage)
+                SELECT RANDOM_UUID(), 'Article ' || X, Q, 'pcs', 50, 0, 50 - Q
+                FROM (SELECT X, CASE WHEN X <= ? THEN MOD(X, 50) ELSE 1000 END AS Q FROM SYSTEM_RANGE(1, ?))
+                """, LOW_STOCK_ARTICLES, rows);
+
+        long[] samples = BenchmarkSupport.measure(50, 500, () ->
+                assertEquals(LOW_STOCK_ARTICLES, articleRepository.findLowStock(Limit.of(1_000)).size()));
+
+        System.out.println(BenchmarkSupport.format("low-stock query, " + rows + " rows", samples));
+    }
+}
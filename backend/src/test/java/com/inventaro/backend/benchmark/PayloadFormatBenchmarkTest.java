@@ -0,0 +1,94 @@
+package com.inventaro.backend.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventaro.backend.model.Article;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Payload size and serialize/deserialize time of the article listing as JSON and as CBOR, both
+ * plain and gzip-compressed, for 10k articles up to -Dbenchmark.maxRows (default 1M).
+ * The mappers are built like the ones Spring MVC uses for the two formats.
+ */
+@EnabledIfSystemProperty(named = BenchmarkSupport.ENABLED_PROPERTY, matches = "true")
+class PayloadFormatBenchmarkTest {
+
+    private static final TypeReference<List<Article>> ARTICLE_LIST = new TypeReference<>() {
+    };
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+
+    @Test
+    void jsonVersusCbor() {
+        int maxRows = Integer.getInteger("benchmark.maxRows", 1_000_000);
+        for (int size = 10_000; size <= maxRows; size *= 10) {
+            List<Article> articles = articles(size);
+            measure("JSON", json, articles);
+            measure("CBOR", cbor, articles);
+        }
+    }
+
+    private void measure(String format, ObjectMapper mapper, List<Article> articles) {
+        byte[] payload = write(mapper, articles);
+        int gzipped = gzip(payload).length;
+
+        int iterations = Math.max(5, 200_000 / articles.size());
+        long[] serialize = BenchmarkSupport.measure(iterations, iterations, () -> write(mapper, articles));
+        long[] deserialize = BenchmarkSupport.measure(iterations, iterations, () ->
+                assertEquals(articles.size(), read(mapper, payload).size()));
+
+        System.out.printf(Locale.ROOT, "%s, %,d articles: %,d bytes (%,d gzip)%n", format, articles.size(), payload.length, gzipped);
+        System.out.println(BenchmarkSupport.format("  serialize", serialize));
+        System.out.println(BenchmarkSupport.format("  deserialize", deserialize));
+    }
+
+    private static List<Article> articles(int size) {
+        List<Article> articles = new ArrayList<>(size);
+        IntStream.range(0, size).forEach(i -> {
+            int quantity = i % 500;
+            articles.add(new Article(UUID.randomUUID(), "Article " + i, quantity, "pcs", 50, i % 7, 50 - quantity, 0, 0));
+        });
+        return articles;
+    }
+
+    private static byte[] write(ObjectMapper mapper, List<Article> articles) {
+        try {
+            return mapper.writeValueAsBytes(articles);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Article> read(ObjectMapper mapper, byte[] payload) {
+        try {
+            return mapper.readValue(payload, ARTICLE_LIST);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] payload) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,110 @@
+package com.inventaro.backend.benchmark;
+
+import com.inventaro.backend.InventaroBackendApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stock updates from one scanner while dashboards flood GET /articles (-Dbenchmark.floodClients
+ * concurrent loops, default 200, spread over 50 client ids), run once without and once with
+ * rate limiting and load shedding. Reports the latency of the updates and how the reads were answered.
+ */
+@EnabledIfSystemProperty(named = BenchmarkSupport.ENABLED_PROPERTY, matches = "true")
+class ReadFloodBenchmarkTest {
+
+    private static final int ARTICLES = 2_000;
+    private static final int FLOOD_CLIENTS = Integer.getInteger("benchmark.floodClients", 200);
+    private static final int FLOOD_CLIENT_IDS = 50;
+    private static final int UPDATES = 200;
+
+    @Test
+    void writeLatencyUnderReadFlood() throws Exception {
+        run("unprotected", "--inventaro.rate-limit.enabled=false", "--inventaro.shedding.enabled=false");
+        run("rate limit + shedding", "--inventaro.rate-limit.enabled=true", "--inventaro.shedding.enabled=true",
+                "--inventaro.rate-limit.client-header=X-Client-Id",
+                "--inventaro.rate-limit.writes.per-second=1000", "--inventaro.rate-limit.writes.burst=1000");
+    }
+
+    private void run(String label, String... properties) throws Exception {
+        List<String> args = new ArrayList<>(List.of("--spring.profiles.active=test",
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:inventaro-flood-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1"));
+        args.addAll(List.of(properties));
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(InventaroBackendApplication.class)
+                .run(args.toArray(String[]::new))) {
+
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            BenchmarkSupport.seedArticles(jdbcTemplate, ARTICLES);
+            UUID id = jdbcTemplate.queryForObject("SELECT id FROM article LIMIT 1", UUID.class);
+            String base = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+
+            Map<Integer, LongAdder> readStatuses = new ConcurrentHashMap<>();
+            AtomicBoolean flooding = new AtomicBoolean(true);
+            long[] updates;
+
+            try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+                 HttpClient http = HttpClient.newBuilder().executor(threads).connectTimeout(Duration.ofSeconds(30)).build()) {
+
+                for (int c = 0; c < FLOOD_CLIENTS; c++) {
+                    String client = "dashboard-" + (c % FLOOD_CLIENT_IDS);
+                    threads.submit(() -> {
+                        HttpRequest read = HttpRequest.newBuilder(URI.create(base + "/articles"))
+                                .header("X-Client-Id", client)
+                                .timeout(Duration.ofSeconds(60))
+                                .build();
+                        while (flooding.get()) {
+                            try {
+                                int status = http.send(read, HttpResponse.BodyHandlers.discarding()).statusCode();
+                                readStatuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+                            } catch (java.io.IOException ex) {
+                                readStatuses.computeIfAbsent(-1, s -> new LongAdder()).increment();
+                            }
+                        }
+                        return null;
+                    });
+                }
+                // Let the flood build up before the updates start.
+                Thread.sleep(2_000);
+
+                HttpRequest update = HttpRequest.newBuilder(URI.create(base + "/articles/" + id + "/quantity/delta"))
+                        .header("Content-Type", "application/json")
+                        .header("X-Client-Id", "scanner")
+                        .timeout(Duration.ofSeconds(60))
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"delta\":1}"))
+                        .build();
+                updates = BenchmarkSupport.measure(0, UPDATES, () -> {
+                    try {
+                        http.send(update, HttpResponse.BodyHandlers.discarding());
+                    } catch (Exception ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                });
+                flooding.set(false);
+            }
+
+            System.out.println(BenchmarkSupport.format("PATCH delta, " + label, updates)
+                    + String.format(Locale.ROOT, "  GET /articles responses by status: %s", readStatuses));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.inventaro.backend.benchmark;
+
+import com.inventaro.backend.dto.InventoryReportResult;
+import com.inventaro.backend.report.InventoryReportGenerator;
+import com.inventaro.backend.repository.ArticleRepository;
+import com.inventaro.backend.repository.StockMovementRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Generates the inventory reports over -Dbenchmark.reportRows articles (default 5M) with 1, 2 and
+ * 4 partitions. Reports the time per run and how much the heap grew while it ran.
+ *
+ * 5M rows in an in-memory H2 need a larger heap than the default, e.g. -DargLine=-Xmx4g.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:inventaro-benchmark;DB_CLOSE_DELAY=-1")
+@EnabledIfSystemProperty(named = BenchmarkSupport.ENABLED_PROPERTY, matches = "true")
+class ReportGenerationBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.reportRows", 5_000_000);
+    private static final int RUNS = 3;
+
+    @TempDir
+    Path reportDirectory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        BenchmarkSupport.clearArticles(jdbcTemplate);
+    }
+
+    @Test
+    void reportOverLargeCatalogue() throws Exception {
+        BenchmarkSupport.seedArticles(jdbcTemplate, ROWS);
+
+        for (int parallelism : new int[]{1, 2, 4}) {
+            InventoryReportGenerator generator = new InventoryReportGenerator(articleRepository, stockMovementRepository,
+                    transactionManager, new SimpleMeterRegistry(), reportDirectory, parallelism, 10_000, Duration.ofDays(1));
+            generator.generate();
+
+            long totalMillis = 0;
+            long aggregateMillis = 0;
+            long heapGrowth = 0;
+            for (int run = 0; run < RUNS; run++) {
+                System.gc();
+                HeapSampler heap = new HeapSampler();
+                long start = System.nanoTime();
+                InventoryReportResult result = generator.generate();
+                totalMillis += (System.nanoTime() - start) / 1_000_000;
+                heapGrowth = Math.max(heapGrowth, heap.stop());
+                aggregateMillis += result.getAggregateMillis();
+                assertEquals(ROWS, result.getArticles());
+            }
+
+            System.out.printf(Locale.ROOT, "%d rows, %d partition(s): %8.1f ms per report (aggregate %8.1f ms), %6.0fk rows/s, heap growth %6.1f MB%n",
+                    ROWS, parallelism, totalMillis / (double) RUNS, aggregateMillis / (double) RUNS,
+                    ROWS / (totalMillis / (double) RUNS), heapGrowth / 1e6);
+        }
+    }
+
+    /**
+     * Samples the used heap every few milliseconds and reports its peak above the starting point.
+     */
+    private static final class HeapSampler {
+
+        private final AtomicBoolean running = new AtomicBoolean(true);
+        private final AtomicLong peak = new AtomicLong();
+        private final long baseline = used();
+        private final Thread thread = Thread.ofPlatform().daemon().start(() -> {
+            while (running.get()) {
+                peak.accumulateAndGet(used(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        long stop() throws InterruptedException {
+            running.set(false);
+            thread.join();
+            return Math.max(peak.get() - baseline, 0);
+        }
+
+        private static long used() {
+            Runtime runtime = Runtime.getRuntime();
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.inventaro.backend.benchmark;
+
+import com.inventaro.backend.InventaroBackendApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Startup time of the persistent profile, each time in a fresh JVM as in production:
+ * a cold start on an empty data directory (schema migrations run) and warm restarts on a
+ * database with -Dbenchmark.maxRows articles (default 1M).
+ *
+ * "ready" is the first successful /actuator/health response; "search ready" is when the
+ * search index, which is built in the background, finds the seeded articles.
+ */
+@EnabledIfSystemProperty(named = BenchmarkSupport.ENABLED_PROPERTY, matches = "true")
+class StartupTimeBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.maxRows", 1_000_000);
+    private static final Duration TIMEOUT = Duration.ofMinutes(10);
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @TempDir
+    private Path dataDir;
+
+    @Test
+    void coldVersusWarmStartup() throws Exception {
+        report("cold start, empty data directory", startAndStop(false));
+
+        seed();
+        report("warm start, " + ROWS + " rows", startAndStop(true));
+        report("warm start, " + ROWS + " rows", startAndStop(true));
+    }
+
+    private long[] startAndStop(boolean waitForSearch) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+        Process process = new ProcessBuilder(java.toString(),
+                "-cp", System.getProperty("java.class.path"),
+                InventaroBackendApplication.class.getName(),
+                "--spring.profiles.active=persistent",
+                "--inventaro.data-dir=" + dataDir,
+                "--server.port=" + port,
+                "--logging.level.root=WARN")
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        long start = System.nanoTime();
+        try {
+            String base = "http://localhost:" + port;
+            long ready = waitFor(base + "/actuator/health", "UP", start);
+            long searchReady = waitForSearch ? waitFor(base + "/articles/search?q=article&limit=1", "\"id\"", start) : ready;
+            return new long[]{ready, searchReady};
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private long waitFor(String url, String expected, long start) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).build();
+        while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+            try {
+                HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200 && response.body().contains(expected)) {
+                    return System.nanoTime() - start;
+                }
+            } catch (IOException notListeningYet) {
+                // The server is still starting.
+            }
+            Thread.sleep(20);
+        }
+        throw new IllegalStateException(url + " not ready within " + TIMEOUT);
+    }
+
+    private void seed() {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:file:" + dataDir + "/inventaro", "sa", "", true);
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            BenchmarkSupport.seedArticles(jdbcTemplate, ROWS);
+            jdbcTemplate.execute("SHUTDOWN");
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    private static void report(String label, long[] nanos) {
+        System.out.printf(Locale.ROOT, "%-40s ready=%7.2f s  search ready=%7.2f s%n",
+                label, nanos[0] / 1e9, nanos[1] / 1e9);
+    }
+}
@@ -0,0 +1,111 @@
+package com.inventaro.backend.benchmark;
+
+import com.inventaro.backend.dto.AdjustQuantityRequest;
+import com.inventaro.backend.dto.StockMovementRequest;
+import com.inventaro.backend.service.ArticleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cost of the stock movement ledger as it grows (up to -Dbenchmark.maxRows movements, default 1M).
+ *
+ * For every ledger size it measures a single adjustment, a 500-line batch, and the two history
+ * reads. The write path should stay flat: movements are appended with sequence ids allocated in
+ * blocks and only one secondary index, so their cost must not depend on the history size.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:inventaro-benchmark;DB_CLOSE_DELAY=-1")
+@EnabledIfSystemProperty(named = BenchmarkSupport.ENABLED_PROPERTY, matches = "true")
+class StockLedgerBenchmarkTest {
+
+    private static final int ARTICLES = 1_000;
+    private static final int BATCH_LINES = 500;
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        BenchmarkSupport.clearArticles(jdbcTemplate);
+    }
+
+    @Test
+    void writePathAndHistoryReadsAsLedgerGrows() {
+        // Fixed article ids, so generated movements can reference them without a join.
+        jdbcTemplate.update("""
+                INSERT INTO article (id, name, quantity, unit, low_stock_threshold, version, shortage)
+                SELECT CAST('00000000-0000-0000-0000-' || LPAD(CAST(X AS VARCHAR), 12, '0') AS UUID),
+                       'Article ' || X, 1000000, 'pcs', 50, 0, 50 - 1000000
+                FROM SYSTEM_RANGE(0, ?)
+                """, ARTICLES - 1);
+        List<UUID> ids = jdbcTemplate.queryForList("SELECT id FROM article", UUID.class);
+
+        for (int movements : BenchmarkSupport.tableSizes()) {
+            seedMovements(movements);
+
+            long[] single = BenchmarkSupport.measure(200, 2_000, () ->
+                    articleService.adjustQuantity(randomId(ids), new AdjustQuantityRequest(-1), null));
+            long[] batch = BenchmarkSupport.measure(5, 50, () -> articleService.applyMovements(batch(ids)));
+            Instant lastDay = Instant.now().minus(Duration.ofDays(1));
+            long[] page = BenchmarkSupport.measure(100, 1_000, () ->
+                    articleService.getMovements(randomId(ids), lastDay, null, null, 100));
+            long[] asOf = BenchmarkSupport.measure(100, 1_000, () ->
+                    articleService.getQuantityAt(randomId(ids), Instant.now().minus(Duration.ofDays(15))));
+
+            double batchMovementsPerSecond = BATCH_LINES / (BenchmarkSupport.percentileMillis(batch, 50) / 1_000);
+            System.out.println(BenchmarkSupport.format("single adjustment, " + movements + " movements", single));
+            System.out.println(BenchmarkSupport.format("500-line batch, " + movements + " movements", batch)
+                    + String.format(Locale.ROOT, "  ~%.0f movements/s (%.1fM/day)",
+                    batchMovementsPerSecond, batchMovementsPerSecond * 86_400 / 1_000_000));
+            System.out.println(BenchmarkSupport.format("history page, " + movements + " movements", page));
+            System.out.println(BenchmarkSupport.format("quantity as of, " + movements + " movements", asOf));
+        }
+    }
+
+    // Grows the ledger to the target size with movements spread over the last 30 days. Generated
+    // movements use negative ids so they never collide with the ids Hibernate takes from the sequence.
+    private void seedMovements(int targetRows) {
+        Integer current = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_movement", Integer.class);
+        if (current == null || current >= targetRows) {
+            return;
+        }
+        jdbcTemplate.update("""
+                INSERT INTO stock_movement (id, article_id, type, delta, quantity_after, article_version, occurred_at)
+                SELECT -X,
+                       CAST('00000000-0000-0000-0000-' || LPAD(CAST(MOD(X, ?) AS VARCHAR), 12, '0') AS UUID),
+                       'ADJUSTED', -1, 1000000 - X / ?, X / ?,
+                       DATEADD(SECOND, -MOD(X * 7919, 2592000), CURRENT_TIMESTAMP)
+                FROM SYSTEM_RANGE(?, ?)
+                """, ARTICLES, ARTICLES, ARTICLES, current + 1, targetRows);
+    }
+
+    private static List<StockMovementRequest> batch(List<UUID> ids) {
+        List<StockMovementRequest> lines = new ArrayList<>(BATCH_LINES);
+        for (int i = 0; i < BATCH_LINES; i++) {
+            lines.add(new StockMovementRequest(randomId(ids), -1, null));
+        }
+        return lines;
+    }
+
+    private static UUID randomId(List<UUID> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,90 @@
+package com.inventaro.backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventaro.backend.dto.AdjustQuantityRequest;
+import com.inventaro.backend.dto.StockMovementRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares uploading 10k stock movements as single PATCH requests with one
+ * POST /articles/movements:batch request, over real HTTP.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:inventaro-benchmark;DB_CLOSE_DELAY=-1")
+@EnabledIfSystemProperty(named = BenchmarkSupport.ENABLED_PROPERTY, matches = "true")
+class StockMovementBatchBenchmarkTest {
+
+    private static final int ARTICLES = 1_000;
+    private static final int MOVEMENTS = 10_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @AfterEach
+    void cleanUp() {
+        BenchmarkSupport.clearArticles(jdbcTemplate);
+    }
+
+    @Test
+    void batchUploadVersusSinglePatches() throws Exception {
+        BenchmarkSupport.seedArticles(jdbcTemplate, ARTICLES);
+        List<UUID> ids = jdbcTemplate.queryForList("SELECT id FROM article", UUID.class);
+
+        long singleStart = System.nanoTime();
+        for (int i = 0; i < MOVEMENTS; i++) {
+            String body = objectMapper.writeValueAsString(new AdjustQuantityRequest(1));
+            HttpResponse<Void> response = send("PATCH", "/articles/" + ids.get(i % ARTICLES) + "/quantity/delta", body);
+            assertEquals(200, response.statusCode());
+        }
+        long singleNanos = System.nanoTime() - singleStart;
+
+        List<StockMovementRequest> movements = new ArrayList<>(MOVEMENTS);
+        for (int i = 0; i < MOVEMENTS; i++) {
+            movements.add(new StockMovementRequest(ids.get(i % ARTICLES), 1, null));
+        }
+        long batchStart = System.nanoTime();
+        HttpResponse<Void> response = send("POST", "/articles/movements:batch", objectMapper.writeValueAsString(movements));
+        long batchNanos = System.nanoTime() - batchStart;
+        assertEquals(200, response.statusCode());
+
+        System.out.printf(Locale.ROOT, "%d single PATCH requests: %8.1f ms%n", MOVEMENTS, singleNanos / 1e6);
+        System.out.printf(Locale.ROOT, "1 batch request (%d lines): %8.1f ms (%.1fx faster)%n",
+                MOVEMENTS, batchNanos / 1e6, (double) singleNanos / batchNanos);
+    }
+
+    private HttpResponse<Void> send(String method, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+}
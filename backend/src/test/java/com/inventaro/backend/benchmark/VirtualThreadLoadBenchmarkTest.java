@@ -0,0 +1,129 @@
+package com.inventaro.backend.benchmark;
+
+import com.inventaro.backend.InventaroBackendApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load scenario for the article endpoints with many concurrent clients (-Dbenchmark.clients, default 2000),
+ * run once on Tomcat's platform thread pool and once with the virtual-threads profile.
+ *
+ * Each client sends a mix of 70% GET /articles/{id}, 20% GET /articles/page and 10% quantity adjustments.
+ * The application is started twice in the same JVM, each time with its own in-memory database.
+ */
+@EnabledIfSystemProperty(named = BenchmarkSupport.ENABLED_PROPERTY, matches = "true")
+class VirtualThreadLoadBenchmarkTest {
+
+    private static final int ARTICLES = 10_000;
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 2_000);
+    private static final int REQUESTS_PER_CLIENT = Integer.getInteger("benchmark.requestsPerClient", 10);
+
+    @Test
+    void platformThreadsVersusVirtualThreads() throws Exception {
+        run("platform threads", "test");
+        run("virtual threads", "test,virtual-threads");
+    }
+
+    private void run(String label, String profiles) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(InventaroBackendApplication.class)
+                .run("--spring.profiles.active=" + profiles,
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:inventaro-load-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1")) {
+
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            BenchmarkSupport.seedArticles(jdbcTemplate, ARTICLES);
+            List<UUID> ids = jdbcTemplate.queryForList("SELECT id FROM article", UUID.class);
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+
+            Result result = load(port, ids);
+            System.out.println(BenchmarkSupport.format(label + ", " + CLIENTS + " clients", result.latencies())
+                    + String.format(Locale.ROOT, "  throughput=%8.0f req/s  errors=%d", result.throughput(), result.errors()));
+        }
+    }
+
+    private Result load(int port, List<UUID> ids) throws Exception {
+        String base = "http://localhost:" + port;
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>();
+        long elapsed;
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .executor(clients)
+                     .connectTimeout(Duration.ofSeconds(30))
+                     .build()) {
+
+            for (int c = 0; c < CLIENTS; c++) {
+                futures.add(clients.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long[] latencies = new long[REQUESTS_PER_CLIENT];
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        UUID id = ids.get(random.nextInt(ids.size()));
+                        int kind = random.nextInt(100);
+                        HttpRequest.Builder request;
+                        if (kind < 70) {
+                            request = HttpRequest.newBuilder(URI.create(base + "/articles/" + id)).GET();
+                        } else if (kind < 90) {
+                            request = HttpRequest.newBuilder(URI.create(base + "/articles/page?size=50")).GET();
+                        } else {
+                            request = HttpRequest.newBuilder(URI.create(base + "/articles/" + id + "/quantity/delta"))
+                                    .header("Content-Type", "application/json")
+                                    .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"delta\":1}"));
+                        }
+
+                        long begin = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request.timeout(Duration.ofSeconds(60)).build(),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (java.io.IOException ex) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - begin;
+                    }
+                    return latencies;
+                }));
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            List<long[]> perClient = new ArrayList<>();
+            for (Future<long[]> future : futures) {
+                perClient.add(future.get());
+            }
+            elapsed = System.nanoTime() - begin;
+
+            long[] all = perClient.stream().flatMapToLong(Arrays::stream).toArray();
+            Arrays.sort(all);
+            return new Result(all, all.length / (elapsed / 1_000_000_000.0), errors.get());
+        }
+    }
+
+    private record Result(long[] latencies, double throughput, int errors) {
+    }
+}
@@ -0,0 +1,118 @@
+package com.inventaro.backend.benchmark;
+
+import com.inventaro.backend.InventaroBackendApplication;
+import com.inventaro.backend.writebehind.QuantityWriteBehind;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A stocktaking burst: scanners sending quantity deltas for a few hot articles over real HTTP,
+ * once written directly and once through the write-behind. Reports updates per second and the
+ * database transactions they took (Hibernate statistics).
+ */
+@EnabledIfSystemProperty(named = BenchmarkSupport.ENABLED_PROPERTY, matches = "true")
+class WriteBehindBenchmarkTest {
+
+    private static final int HOT_ARTICLES = 20;
+    private static final int SCANNERS = 32;
+    private static final int UPDATES_PER_SCANNER = 500;
+
+    @Test
+    void stocktakingBurst() throws Exception {
+        Result direct = run("--inventaro.write-behind.enabled=false");
+        Result writeBehind = run("--inventaro.write-behind.enabled=true");
+
+        print("direct", direct);
+        print("write-behind", writeBehind);
+        System.out.printf(Locale.ROOT, "transactions saved: %d of %d (%.1f%%)%n",
+                direct.transactions - writeBehind.transactions, direct.transactions,
+                100.0 * (direct.transactions - writeBehind.transactions) / direct.transactions);
+    }
+
+    private Result run(String... properties) throws Exception {
+        List<String> args = new ArrayList<>(List.of("--spring.profiles.active=test",
+                "--server.port=0",
+                "--spring.jpa.properties.hibernate.generate_statistics=true",
+                "--spring.datasource.url=jdbc:h2:mem:inventaro-write-behind-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1"));
+        args.addAll(List.of(properties));
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(InventaroBackendApplication.class)
+                .run(args.toArray(String[]::new))) {
+
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            BenchmarkSupport.seedArticles(jdbcTemplate, HOT_ARTICLES);
+            List<UUID> ids = jdbcTemplate.queryForList("SELECT id FROM article", UUID.class);
+            Integer quantityBefore = jdbcTemplate.queryForObject("SELECT SUM(quantity) FROM article", Integer.class);
+            String base = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+            statistics.clear();
+            long start = System.nanoTime();
+            try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+                 HttpClient http = HttpClient.newBuilder().executor(threads).connectTimeout(Duration.ofSeconds(30)).build()) {
+
+                List<Future<?>> scanners = new ArrayList<>();
+                for (int s = 0; s < SCANNERS; s++) {
+                    int scanner = s;
+                    scanners.add(threads.submit(() -> {
+                        for (int i = 0; i < UPDATES_PER_SCANNER; i++) {
+                            UUID id = ids.get((scanner + i) % ids.size());
+                            HttpRequest update = HttpRequest.newBuilder(URI.create(base + "/articles/" + id + "/quantity/delta"))
+                                    .header("Content-Type", "application/json")
+                                    .timeout(Duration.ofSeconds(60))
+                                    .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"delta\":1}"))
+                                    .build();
+                            int status = http.send(update, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status >= 300) {
+                                throw new IllegalStateException("Update answered with " + status);
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> scanner : scanners) {
+                    scanner.get();
+                }
+            }
+            // The burst is only done once everything acknowledged is in the database.
+            context.getBean(QuantityWriteBehind.class).flush();
+            long nanos = System.nanoTime() - start;
+
+            Integer quantityAfter = jdbcTemplate.queryForObject("SELECT SUM(quantity) FROM article", Integer.class);
+            assertEquals(quantityBefore + SCANNERS * UPDATES_PER_SCANNER, quantityAfter);
+            return new Result(SCANNERS * UPDATES_PER_SCANNER, statistics.getTransactionCount(), nanos);
+        }
+    }
+
+    private static void print(String label, Result result) {
+        double seconds = result.nanos / 1e9;
+        System.out.printf(Locale.ROOT, "%-14s %d updates in %8.1f ms: %8.0f updates/s, %6d transactions (%8.0f/s)%n",
+                label, result.updates, result.nanos / 1e6, result.updates / seconds,
+                result.transactions, result.transactions / seconds);
+    }
+
+    private record Result(int updates, long transactions, long nanos) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.inventaro.backend.cluster;
+
+import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.dto.UpdateArticleRequest;
+import com.inventaro.backend.event.ArticleChangeEvent;
+import com.inventaro.backend.repository.ArticleRepository;
+import com.inventaro.backend.repository.ChangeLogRepository;
+import com.inventaro.backend.service.ArticleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.annotation.Order;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The change log entry of a write is part of the write's transaction: both commit, or neither does.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "inventaro.cluster.enabled=true")
+@Import(ChangeLogWriteTest.FailingCommit.class)
+class ChangeLogWriteTest {
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    @AfterEach
+    void cleanUp() {
+        FailingCommit.FAIL.set(false);
+    }
+
+    @Test
+    void updateArticleData_writesItsEntryInTheSameTransaction() {
+        UUID id = articleService.createArticle(new CreateArticleRequest("Kanyl", 40, "st", 5)).getId();
+        long entries = changeLogRepository.count();
+
+        articleService.updateArticleData(id, new UpdateArticleRequest("Kanyl grön", "st", 5), null);
+        assertEquals(entries + 1, changeLogRepository.count());
+
+        // Fails the commit after the entry has been written: the rename and its entry are rolled back together.
+        FailingCommit.FAIL.set(true);
+        assertThrows(IllegalStateException.class,
+                () -> articleService.updateArticleData(id, new UpdateArticleRequest("Kanyl rosa", "st", 5), null));
+        assertEquals("Kanyl grön", articleRepository.findById(id).orElseThrow().getName());
+        assertEquals(entries + 1, changeLogRepository.count());
+    }
+
+    @TestConfiguration
+    static class FailingCommit {
+
+        static final AtomicBoolean FAIL = new AtomicBoolean();
+
+        // Ordered after ClusterChangeLog's listener (order 0), so the entry has been written when this fails.
+        @Order(1)
+        @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+        public void onArticleChange(ArticleChangeEvent event) {
+            if (FAIL.get()) {
+                throw new IllegalStateException("Commit failed");
+            }
+        }
+    }
+}
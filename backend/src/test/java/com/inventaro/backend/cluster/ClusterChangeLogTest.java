@@ -0,0 +1,192 @@
+package com.inventaro.backend.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventaro.backend.InventaroBackendApplication;
+import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.dto.UpdateArticleRequest;
+import com.inventaro.backend.dto.UpdateQuantityRequest;
+import com.inventaro.backend.event.ArticleChangeEvent;
+import com.inventaro.backend.event.ArticleChangeType;
+import com.inventaro.backend.model.Article;
+import com.inventaro.backend.model.ChangeLogEntry;
+import com.inventaro.backend.repository.ChangeLogRepository;
+import com.inventaro.backend.search.ArticleSearchIndex;
+import com.inventaro.backend.service.ArticleService;
+import com.inventaro.backend.service.CatalogueVersion;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two instances of the application sharing one database, as behind a load balancer: changes made
+ * on one must reach the caches, search index and catalogue version of the other.
+ */
+class ClusterChangeLogTest {
+
+    private static final Duration PROPAGATION_TIMEOUT = Duration.ofSeconds(10);
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        // Both contexts open the same named in-memory database; the first start runs the migrations.
+        String url = "jdbc:h2:mem:inventaro-cluster-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        nodeA = start(url, "a");
+        nodeB = start(url, "b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void changesOnOneNode_reachTheOther() throws Exception {
+        ArticleService a = nodeA.getBean(ArticleService.class);
+        ArticleService b = nodeB.getBean(ArticleService.class);
+        double appliedOnA = applied(nodeA);
+        double appliedOnB = applied(nodeB);
+        UUID id = a.createArticle(new CreateArticleRequest("Kompress", 100, "st", 10)).getId();
+        // Cached on B from here on; without the change log B would keep answering 100.
+        assertEquals(100, b.getArticleById(id).getQuantity());
+
+        int updates = 50;
+        List<Long> lagMicros = new ArrayList<>(updates);
+        for (int i = 1; i <= updates; i++) {
+            int quantity = 100 + i;
+            a.updateQuantity(id, new UpdateQuantityRequest(quantity, null), null);
+            long committed = System.nanoTime();
+            await(() -> b.getArticleById(id).getQuantity() == quantity);
+            lagMicros.add((System.nanoTime() - committed) / 1_000);
+        }
+        Collections.sort(lagMicros);
+        System.out.printf(Locale.ROOT, "Propagation lag over %d updates: p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                updates, lagMicros.get(updates / 2) / 1e3, lagMicros.get(updates * 99 / 100) / 1e3,
+                lagMicros.get(updates - 1) / 1e3);
+
+        String version = nodeB.getBean(CatalogueVersion.class).current();
+        a.updateArticleData(id, new UpdateArticleRequest("Gasväv", "st", 10), null);
+        await(() -> !b.searchArticles("gasväv", null).isEmpty());
+        assertEquals("Gasväv", b.getArticleById(id).getName());
+        await(() -> !version.equals(nodeB.getBean(CatalogueVersion.class).current()));
+
+        // The search index is updated after the caches are evicted, so once it has changed, so have they.
+        // searchArticles cannot tell: it reads the matches from the database, where the row is already gone.
+        a.deleteArticle(id, null);
+        await(() -> nodeB.getBean(ArticleSearchIndex.class).search("gasväv", 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> b.getArticleById(id));
+
+        // B only counts the changes it received; A skipped its own entries.
+        assertTrue(applied(nodeB) - appliedOnB >= updates);
+        assertEquals(appliedOnA, applied(nodeA));
+    }
+
+    @Test
+    void entryCommittedAfterALaterOne_isStillApplied() throws Exception {
+        ArticleService a = nodeA.getBean(ArticleService.class);
+        ArticleService b = nodeB.getBean(ArticleService.class);
+        Article slow = a.createArticle(new CreateArticleRequest("Sprit", 5, "fl", 1));
+        UUID other = a.createArticle(new CreateArticleRequest("Tejp", 5, "rl", 1)).getId();
+        assertEquals("Sprit", b.getArticleById(slow.getId()).getName());
+        assertEquals(5, b.getArticleById(other).getQuantity());
+
+        // A third node writes its entry first, but only commits after A's next change has been read by B.
+        slow.setName("Handsprit");
+        String payload = nodeA.getBean(ObjectMapper.class)
+                .writeValueAsString(ArticleChangeEvent.of(ArticleChangeType.UPDATED, slow, false));
+        TransactionTemplate transaction = new TransactionTemplate(nodeA.getBean(PlatformTransactionManager.class));
+        double appliedOnA = applied(nodeA);
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> thirdNode = executor.submit(() -> transaction.executeWithoutResult(status -> {
+                nodeA.getBean(JdbcTemplate.class).update("UPDATE article SET name = ? WHERE id = ?", "Handsprit", slow.getId());
+                nodeA.getBean(ChangeLogRepository.class).save(
+                        new ChangeLogEntry(null, "c", ChangeLogEntry.Kind.ARTICLE, payload, Instant.now()));
+                written.countDown();
+                try {
+                    commit.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+            written.await();
+            a.updateQuantity(other, new UpdateQuantityRequest(7, null), null);
+            await(() -> b.getArticleById(other).getQuantity() == 7);
+            assertEquals("Sprit", b.getArticleById(slow.getId()).getName());
+
+            commit.countDown();
+            thirdNode.get();
+        }
+        await(() -> b.searchArticles("handsprit", null).size() == 1);
+        assertEquals("Handsprit", b.getArticleById(slow.getId()).getName());
+        // The entry is not A's own either; waited for so that A does not apply it during a later test.
+        await(() -> applied(nodeA) == appliedOnA + 1);
+    }
+
+    @Test
+    void nodesThatHaveAppliedTheSameChanges_handOutTheSameListingTag() throws Exception {
+        CatalogueVersion onA = nodeA.getBean(CatalogueVersion.class);
+        CatalogueVersion onB = nodeB.getBean(CatalogueVersion.class);
+        await(() -> onA.current().equals(onB.current()));
+        String before = onA.current();
+
+        UUID id = nodeA.getBean(ArticleService.class).createArticle(new CreateArticleRequest("Spatel", 20, "st", 5)).getId();
+        // A reader of the new article on A never gets the tag from before it.
+        assertNotEquals(before, onA.current());
+
+        await(() -> onA.current().equals(onB.current()) && !onB.current().equals(before));
+        assertEquals(20, nodeB.getBean(ArticleService.class).getArticleById(id).getQuantity());
+    }
+
+    private static double applied(ConfigurableApplicationContext node) {
+        return node.getBean(MeterRegistry.class).counter(ClusterChangeLog.APPLIED).count();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + PROPAGATION_TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Change did not propagate within " + PROPAGATION_TIMEOUT);
+            Thread.sleep(1);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String url, String nodeId) {
+        return new SpringApplicationBuilder(InventaroBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=persistent",
+                        "--spring.datasource.url=" + url,
+                        "--inventaro.reports.cron=-",
+                        "--inventaro.cluster.enabled=true",
+                        "--inventaro.cluster.node-id=" + nodeId,
+                        "--inventaro.cluster.poll-interval=20ms");
+    }
+}
@@ -1,7 +1,10 @@
 package com.inventaro.backend.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventaro.backend.dto.AdjustQuantityRequest;
 import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.dto.StockMovementRequest;
 import com.inventaro.backend.dto.UpdateArticleRequest;
 import com.inventaro.backend.dto.UpdateQuantityRequest;
 import com.inventaro.backend.model.Article;
@@ -12,10 +15,16 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -227,4 +236,517 @@ class ArticleControllerTest {
                 .andExpect(content().string(org.hamcrest.Matchers.containsString("Article not found")));
     }
 
+    @Test
+    void getArticlePage_walksAllArticlesInNameOrder() throws Exception {
+        for (String name : new String[]{"Syringes", "Bandage", "Gauze", "Alcohol swabs", "Catheter"}) {
+            mockMvc.perform(post("/articles")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new CreateArticleRequest(name, 10, "pcs", 5))))
+                    .andExpect(status().isCreated());
+        }
+
+        String firstPage = mockMvc.perform(get("/articles/page").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].name").value("Alcohol swabs"))
+                .andExpect(jsonPath("$.items[1].name").value("Bandage"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        String secondPage = mockMvc.perform(get("/articles/page").param("size", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Catheter"))
+                .andExpect(jsonPath("$.items[1].name").value("Gauze"))
+                .andReturn().getResponse().getContentAsString();
+        cursor = objectMapper.readTree(secondPage).get("nextCursor").asText();
+
+        mockMvc.perform(get("/articles/page").param("size", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("Syringes"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getArticlePage_invalidCursor_returns400() throws Exception {
+        mockMvc.perform(get("/articles/page").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("Invalid page cursor")));
+    }
+
+    @Test
+    void updateQuantity_staleVersion_returns409() throws Exception {
+        CreateArticleRequest create = new CreateArticleRequest("Masks", 100, "pcs", 50);
+        String createdJson = mockMvc.perform(post("/articles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(create)))
+                .andReturn().getResponse().getContentAsString();
+        Article created = objectMapper.readValue(createdJson, Article.class);
+
+        UpdateQuantityRequest first = new UpdateQuantityRequest(90, created.getVersion());
+        mockMvc.perform(patch("/articles/" + created.getId() + "/quantity")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(first)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(created.getVersion() + 1));
+
+        // Second update is based on the same (now outdated) version and must not overwrite the first.
+        UpdateQuantityRequest stale = new UpdateQuantityRequest(80, created.getVersion());
+        mockMvc.perform(patch("/articles/" + created.getId() + "/quantity")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(stale)))
+                .andExpect(status().isConflict())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("has been modified")));
+    }
+
+    @Test
+    void getArticleById_matchingIfNoneMatch_returns304() throws Exception {
+        String createdJson = mockMvc.perform(post("/articles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateArticleRequest("Masks", 100, "pcs", 50))))
+                .andExpect(header().string("ETag", "\"0\""))
+                .andReturn().getResponse().getContentAsString();
+        UUID id = objectMapper.readValue(createdJson, Article.class).getId();
+
+        mockMvc.perform(patch("/articles/" + id + "/quantity/delta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AdjustQuantityRequest(-5))))
+                .andExpect(header().string("ETag", "\"1\""));
+
+        mockMvc.perform(get("/articles/" + id).header("If-None-Match", "\"1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(content().string(""));
+
+        // A client that still has the version from before the adjustment gets the new one.
+        mockMvc.perform(get("/articles/" + id).header("If-None-Match", "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.quantity").value(95));
+    }
+
+    @Test
+    void getAllArticles_matchingIfNoneMatch_returns304() throws Exception {
+        String etag = mockMvc.perform(get("/articles"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/articles").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void writes_staleIfMatch_return412() throws Exception {
+        String createdJson = mockMvc.perform(post("/articles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateArticleRequest("Masks", 100, "pcs", 50))))
+                .andReturn().getResponse().getContentAsString();
+        UUID id = objectMapper.readValue(createdJson, Article.class).getId();
+
+        mockMvc.perform(put("/articles/" + id)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateArticleRequest("Face masks", "pcs", 50))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+
+        // Every write below is based on the version before the update and must not be applied.
+        mockMvc.perform(put("/articles/" + id)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateArticleRequest("Masks", "pcs", 50))))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patch("/articles/" + id + "/quantity")
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateQuantityRequest(10))))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patch("/articles/" + id + "/quantity/delta")
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AdjustQuantityRequest(-10))))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/articles/" + id).header("If-Match", "W/\"1\""))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/articles/" + id))
+                .andExpect(jsonPath("$.name").value("Face masks"))
+                .andExpect(jsonPath("$.quantity").value(100));
+        mockMvc.perform(delete("/articles/" + id).header("If-Match", "\"1\""))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void writes_ifMatchWithSeveralTags_matchAnyOfThem() throws Exception {
+        String createdJson = mockMvc.perform(post("/articles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateArticleRequest("Masks", 100, "pcs", 50))))
+                .andReturn().getResponse().getContentAsString();
+        UUID id = objectMapper.readValue(createdJson, Article.class).getId();
+
+        mockMvc.perform(put("/articles/" + id)
+                        .header("If-Match", "\"3\", \"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateArticleRequest("Face masks", "pcs", 50))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(header().stringValues("Vary", org.hamcrest.Matchers.hasItem("Accept")));
+        // The tag of the CBOR representation names the same version.
+        mockMvc.perform(patch("/articles/" + id + "/quantity/delta")
+                        .header("If-Match", "\"0\", \"1-cbor\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AdjustQuantityRequest(-10))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity").value(90));
+        mockMvc.perform(patch("/articles/" + id + "/quantity/delta")
+                        .header("If-Match", "\"0\", \"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AdjustQuantityRequest(-10))))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("(version 2, If-Match 0, 1)")));
+        mockMvc.perform(delete("/articles/" + id).header("If-Match", "W/\"2\", \"x\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/articles/" + id).header("If-Match", "\"1\",\"2\""))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void adjustQuantity_success() throws Exception {
+        CreateArticleRequest create = new CreateArticleRequest("Syringes", 20, "pcs", 5);
+        String createdJson = mockMvc.perform(post("/articles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(create)))
+                .andReturn().getResponse().getContentAsString();
+        Article created = objectMapper.readValue(createdJson, Article.class);
+
+        mockMvc.perform(patch("/articles/" + created.getId() + "/quantity/delta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AdjustQuantityRequest(-3))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity").value(17))
+                .andExpect(jsonPath("$.name").value("Syringes"));
+    }
+
+    @Test
+    void adjustQuantity_belowZero_returns409() throws Exception {
+        CreateArticleRequest create = new CreateArticleRequest("Syringes", 2, "pcs", 5);
+        String createdJson = mockMvc.perform(post("/articles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(create)))
+                .andReturn().getResponse().getContentAsString();
+        Article created = objectMapper.readValue(createdJson, Article.class);
+
+        mockMvc.perform(patch("/articles/" + created.getId() + "/quantity/delta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AdjustQuantityRequest(-3))))
+                .andExpect(status().isConflict())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("Insufficient stock")));
+
+        mockMvc.perform(get("/articles/" + created.getId()))
+                .andExpect(jsonPath("$.quantity").value(2));
+    }
+
+    @Test
+    void adjustQuantity_missingDelta_returns400() throws Exception {
+        mockMvc.perform(patch("/articles/" + UUID.randomUUID() + "/quantity/delta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("delta is required")));
+    }
+
+    @Test
+    void adjustQuantity_notFound_returns404() throws Exception {
+        mockMvc.perform(patch("/articles/" + UUID.randomUUID() + "/quantity/delta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AdjustQuantityRequest(1))))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("Article not found")));
+    }
+
+    @Test
+    void applyMovements_returnsResultPerLine() throws Exception {
+        CreateArticleRequest create = new CreateArticleRequest("Bandage", 10, "pcs", 5);
+        String createdJson = mockMvc.perform(post("/articles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(create)))
+                .andReturn().getResponse().getContentAsString();
+        Article created = objectMapper.readValue(createdJson, Article.class);
+        UUID id = created.getId();
+
+        List<StockMovementRequest> movements = List.of(
+                new StockMovementRequest(id, -4, null),
+                new StockMovementRequest(id, null, 30),
+                new StockMovementRequest(id, -31, null),
+                new StockMovementRequest(UUID.randomUUID(), 1, null),
+                new StockMovementRequest(id, 1, 1)
+        );
+
+        mockMvc.perform(post("/articles/movements:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(movements)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].status").value("APPLIED"))
+                .andExpect(jsonPath("$[0].quantity").value(6))
+                .andExpect(jsonPath("$[1].status").value("APPLIED"))
+                .andExpect(jsonPath("$[1].quantity").value(30))
+                .andExpect(jsonPath("$[2].status").value("REJECTED"))
+                .andExpect(jsonPath("$[2].message").value(org.hamcrest.Matchers.containsString("Insufficient stock")))
+                .andExpect(jsonPath("$[3].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$[4].status").value("REJECTED"));
+
+        mockMvc.perform(get("/articles/" + id))
+                .andExpect(jsonPath("$.quantity").value(30));
+    }
+
+    @Test
+    void applyMovements_rejectsNullLinesAndOversizedBatches() throws Exception {
+        String createdJson = mockMvc.perform(post("/articles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateArticleRequest("Bandage", 10, "pcs", 5))))
+                .andReturn().getResponse().getContentAsString();
+        UUID id = objectMapper.readValue(createdJson, Article.class).getId();
+
+        mockMvc.perform(post("/articles/movements:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":\"" + id + "\",\"delta\":-1}, null]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("APPLIED"))
+                .andExpect(jsonPath("$[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$[1].message").value("line must be an object"));
+
+        mockMvc.perform(post("/articles/movements:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + String.join(",", Collections.nCopies(1001, "null")) + "]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Batch of 1001 lines exceeds the maximum of 1000"));
+        mockMvc.perform(get("/articles/" + id))
+                .andExpect(jsonPath("$.quantity").value(9));
+    }
+
+    @Test
+    void importArticles_csv_importsValidRowsAndReportsRejected() throws Exception {
+        String csv = """
+                name,quantity,unit,lowStockThreshold
+                "Handskar nitril, M",100,box,20
+                Plåster,abc,pcs,10
+                ,5,pcs,1
+                Sprutor,300,st,100
+                """;
+
+        mockMvc.perform(post("/articles/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.rejections[0].line").value(3))
+                .andExpect(jsonPath("$.rejections[0].message").value(org.hamcrest.Matchers.containsString("whole numbers")))
+                .andExpect(jsonPath("$.rejections[1].line").value(4))
+                .andExpect(jsonPath("$.rejections[1].message").value("name must not be empty"));
+
+        mockMvc.perform(get("/articles"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[?(@.name == 'Handskar nitril, M')].quantity").value(100));
+    }
+
+    @Test
+    void importArticles_ndjson_importsValidRows() throws Exception {
+        String ndjson = """
+                {"name":"Munskydd","quantity":200,"unit":"paket","lowStockThreshold":100}
+                {"name":"Termometrar","quantity":-1,"unit":"st","lowStockThreshold":10}
+                not json
+                null
+                """;
+
+        mockMvc.perform(post("/articles/import")
+                        .contentType("application/x-ndjson")
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.rejections[0].message").value("quantity must be ≥ 0"))
+                .andExpect(jsonPath("$.rejections[1].line").value(3))
+                .andExpect(jsonPath("$.rejections[2].line").value(4))
+                .andExpect(jsonPath("$.rejections[2].message").value("invalid JSON: expected an article object"));
+    }
+
+    @Test
+    void importArticles_csvMissingColumn_returns400() throws Exception {
+        mockMvc.perform(post("/articles/import")
+                        .contentType("text/csv")
+                        .content("name,quantity\nGloves,10\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("missing column: unit")));
+    }
+
+    @Test
+    void exportArticles_csvAndNdjson() throws Exception {
+        mockMvc.perform(post("/articles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateArticleRequest("Gauze, sterile", 40, "pcs", 10))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/articles/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", org.hamcrest.Matchers.containsString("articles.csv")))
+                .andExpect(content().string(org.hamcrest.Matchers.startsWith("id,name,quantity,unit,lowStockThreshold\n")))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString(",\"Gauze, sterile\",40,pcs,10\n")));
+
+        mockMvc.perform(get("/articles/export").param("format", "NDJSON"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("\"name\":\"Gauze, sterile\"")));
+    }
+
+    @Test
+    void getLowStock_returnsLowArticlesBySeverity() throws Exception {
+        List<CreateArticleRequest> articles = List.of(
+                new CreateArticleRequest("Munskydd", 200, "paket", 100),
+                new CreateArticleRequest("Handskar", 50, "paket", 200),
+                new CreateArticleRequest("Termometrar", 10, "st", 10),
+                new CreateArticleRequest("Plåster", 50, "paket", 100)
+        );
+        String handskarId = null;
+        for (CreateArticleRequest article : articles) {
+            String json = mockMvc.perform(post("/articles")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(article)))
+                    .andReturn().getResponse().getContentAsString();
+            if (article.getName().equals("Handskar")) {
+                handskarId = objectMapper.readValue(json, Article.class).getId().toString();
+            }
+        }
+
+        mockMvc.perform(get("/articles/low-stock"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].name").value("Handskar"))
+                .andExpect(jsonPath("$[1].name").value("Plåster"))
+                .andExpect(jsonPath("$[2].name").value("Termometrar"));
+
+        // Stock changes through the atomic delta path must keep the low-stock index up to date.
+        mockMvc.perform(patch("/articles/" + handskarId + "/quantity/delta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AdjustQuantityRequest(500))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/articles/low-stock").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Plåster"));
+    }
+
+    @Test
+    void getMovements_recordsEveryQuantityChangeInOrder() throws Exception {
+        String createdJson = mockMvc.perform(post("/articles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateArticleRequest("Kompresser", 30, "paket", 10))))
+                .andReturn().getResponse().getContentAsString();
+        UUID id = objectMapper.readValue(createdJson, Article.class).getId();
+
+        mockMvc.perform(patch("/articles/" + id + "/quantity")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateQuantityRequest(25))))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/articles/" + id + "/quantity/delta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AdjustQuantityRequest(-5))))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/articles/movements:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                new StockMovementRequest(id, 10, null),
+                                new StockMovementRequest(id, -100, null),
+                                new StockMovementRequest(id, null, 12)))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/articles/" + id + "/movements"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(5))
+                .andExpect(jsonPath("$.items[0].type").value("CREATED"))
+                .andExpect(jsonPath("$.items[0].delta").value(30))
+                .andExpect(jsonPath("$.items[1].type").value("SET"))
+                .andExpect(jsonPath("$.items[1].delta").value(-5))
+                .andExpect(jsonPath("$.items[1].quantityAfter").value(25))
+                .andExpect(jsonPath("$.items[2].type").value("ADJUSTED"))
+                .andExpect(jsonPath("$.items[2].quantityAfter").value(20))
+                .andExpect(jsonPath("$.items[3].delta").value(10))
+                .andExpect(jsonPath("$.items[3].quantityAfter").value(30))
+                .andExpect(jsonPath("$.items[4].type").value("SET"))
+                .andExpect(jsonPath("$.items[4].delta").value(-18))
+                .andExpect(jsonPath("$.items[4].quantityAfter").value(12))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        // The history outlives the article.
+        mockMvc.perform(delete("/articles/" + id)).andExpect(status().isNoContent());
+        mockMvc.perform(get("/articles/" + id + "/movements"))
+                .andExpect(jsonPath("$.items.length()").value(6))
+                .andExpect(jsonPath("$.items[5].type").value("DELETED"))
+                .andExpect(jsonPath("$.items[5].quantityAfter").value(0));
+    }
+
+    @Test
+    void getMovements_pagesWithinTimeRange() throws Exception {
+        String createdJson = mockMvc.perform(post("/articles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateArticleRequest("Sprit", 10, "flaska", 2))))
+                .andReturn().getResponse().getContentAsString();
+        UUID id = objectMapper.readValue(createdJson, Article.class).getId();
+        for (int i = 0; i < 4; i++) {
+            mockMvc.perform(patch("/articles/" + id + "/quantity/delta")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new AdjustQuantityRequest(1))))
+                    .andExpect(status().isOk());
+        }
+
+        List<Integer> quantities = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/articles/" + id + "/movements").param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("items").forEach(item -> quantities.add(item.get("quantityAfter").asInt()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+        assertEquals(List.of(10, 11, 12, 13, 14), quantities);
+
+        mockMvc.perform(get("/articles/" + id + "/movements").param("to", "2000-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+
+        mockMvc.perform(get("/articles/" + id + "/movements").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getQuantityAt_returnsStockAtThatTime() throws Exception {
+        String createdJson = mockMvc.perform(post("/articles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateArticleRequest("Tejp", 8, "rulle", 2))))
+                .andReturn().getResponse().getContentAsString();
+        UUID id = objectMapper.readValue(createdJson, Article.class).getId();
+        mockMvc.perform(patch("/articles/" + id + "/quantity/delta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AdjustQuantityRequest(4))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/articles/" + id + "/quantity").param("at", "2000-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity").value(0));
+        mockMvc.perform(get("/articles/" + id + "/quantity").param("at", Instant.now().plusSeconds(60).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity").value(12));
+        mockMvc.perform(get("/articles/" + UUID.randomUUID() + "/quantity").param("at", "2000-01-01T00:00:00Z"))
+                .andExpect(status().isNotFound());
+    }
+
 }
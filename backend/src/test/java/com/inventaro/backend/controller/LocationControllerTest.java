@@ -0,0 +1,176 @@
+package com.inventaro.backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventaro.backend.dto.AdjustQuantityRequest;
+import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.dto.CreateLocationRequest;
+import com.inventaro.backend.dto.TransferRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@AutoConfigureMockMvc
+class LocationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void createLocation_duplicateNameReturnsConflict() throws Exception {
+        createLocation("Ward 12");
+
+        mockMvc.perform(post("/locations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateLocationRequest(" Ward 12 "))))
+                .andExpect(status().isConflict());
+        mockMvc.perform(post("/locations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateLocationRequest(""))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void adjustStockAtLocation_updatesArticleAndLocationTotals() throws Exception {
+        UUID article = createArticle(10);
+        UUID ward = createLocation("Ward 3");
+
+        adjust(article, ward, 25)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity").value(35))
+                .andExpect(jsonPath("$.locatedQuantity").value(25))
+                .andExpect(jsonPath("$.unlocatedQuantity").value(10))
+                .andExpect(jsonPath("$.locations[0].locationName").value("Ward 3"))
+                .andExpect(jsonPath("$.locations[0].quantity").value(25));
+        adjust(article, ward, -26).andExpect(status().isConflict());
+
+        mockMvc.perform(get("/locations/{id}", ward))
+                .andExpect(jsonPath("$.totalQuantity").value(25))
+                .andExpect(jsonPath("$.articleCount").value(1));
+        mockMvc.perform(get("/articles/{id}", article))
+                .andExpect(jsonPath("$.quantity").value(35))
+                .andExpect(jsonPath("$.locatedQuantity").value(25));
+
+        adjust(article, ward, -25).andExpect(status().isOk());
+        mockMvc.perform(get("/locations/{id}", ward))
+                .andExpect(jsonPath("$.totalQuantity").value(0))
+                .andExpect(jsonPath("$.articleCount").value(0));
+    }
+
+    @Test
+    void transfer_movesStockBetweenLocationsAtomically() throws Exception {
+        UUID article = createArticle(100);
+        UUID storeroom = createLocation("Central storeroom");
+        UUID ward = createLocation("Ward 7");
+
+        transfer(article, new TransferRequest(null, storeroom, 60))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.locatedQuantity").value(60))
+                .andExpect(jsonPath("$.unlocatedQuantity").value(40));
+        transfer(article, new TransferRequest(storeroom, ward, 45))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity").value(100))
+                .andExpect(jsonPath("$.locations.length()").value(2))
+                .andExpect(jsonPath("$.locations[0].locationName").value("Central storeroom"))
+                .andExpect(jsonPath("$.locations[0].quantity").value(15))
+                .andExpect(jsonPath("$.locations[1].quantity").value(45));
+
+        // Not enough stock at the source: neither location changes.
+        transfer(article, new TransferRequest(storeroom, ward, 16)).andExpect(status().isConflict());
+        mockMvc.perform(get("/locations/{id}", ward)).andExpect(jsonPath("$.totalQuantity").value(45));
+        mockMvc.perform(get("/locations/{id}", storeroom)).andExpect(jsonPath("$.totalQuantity").value(15));
+
+        transfer(article, new TransferRequest(ward, ward, 1)).andExpect(status().isBadRequest());
+        transfer(article, new TransferRequest(ward, UUID.randomUUID(), 1)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void articleQuantityEndpoints_cannotTakeStockStoredAtLocations() throws Exception {
+        UUID article = createArticle(10);
+        UUID ward = createLocation("Ward 1");
+        transfer(article, new TransferRequest(null, ward, 8)).andExpect(status().isOk());
+
+        mockMvc.perform(patch("/articles/{id}/quantity/delta", article)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AdjustQuantityRequest(-3))))
+                .andExpect(status().isConflict());
+        mockMvc.perform(patch("/articles/{id}/quantity/delta", article)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AdjustQuantityRequest(-2))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity").value(8));
+    }
+
+    @Test
+    void locationStock_isPagedAndClearedWhenArticleIsDeleted() throws Exception {
+        UUID ward = createLocation("Ward 9");
+        UUID first = createArticle(5);
+        UUID second = createArticle(5);
+        UUID third = createArticle(5);
+        for (UUID article : new UUID[]{first, second, third}) {
+            transfer(article, new TransferRequest(null, ward, 5)).andExpect(status().isOk());
+        }
+
+        String cursor = objectMapper.readTree(mockMvc.perform(get("/locations/{id}/stock", ward).param("size", "2"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.items.length()").value(2))
+                        .andReturn().getResponse().getContentAsString())
+                .get("nextCursor").asText();
+        mockMvc.perform(get("/locations/{id}/stock", ward).param("size", "2").param("cursor", cursor))
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        mockMvc.perform(get("/locations/{id}/stock", ward).param("cursor", "not a cursor"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(delete("/articles/{id}", second)).andExpect(status().isNoContent());
+        mockMvc.perform(get("/locations/{id}", ward))
+                .andExpect(jsonPath("$.totalQuantity").value(10))
+                .andExpect(jsonPath("$.articleCount").value(2));
+    }
+
+    private UUID createArticle(int quantity) throws Exception {
+        String body = mockMvc.perform(post("/articles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateArticleRequest("Syringe 5 ml", quantity, "pcs", 2))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return UUID.fromString(objectMapper.readTree(body).get("id").asText());
+    }
+
+    private UUID createLocation(String name) throws Exception {
+        String body = mockMvc.perform(post("/locations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateLocationRequest(name))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return UUID.fromString(objectMapper.readTree(body).get("id").asText());
+    }
+
+    private ResultActions adjust(UUID article, UUID location, int delta) throws Exception {
+        return mockMvc.perform(patch("/articles/{id}/stock/{locationId}/delta", article, location)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AdjustQuantityRequest(delta))));
+    }
+
+    private ResultActions transfer(UUID article, TransferRequest request) throws Exception {
+        return mockMvc.perform(post("/articles/{id}/transfers", article)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+    }
+}
@@ -0,0 +1,127 @@
+package com.inventaro.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventaro.backend.dto.AdjustQuantityRequest;
+import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.model.Article;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Not @Transactional: the report reads the article table from its own transactions.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ReportControllerTest {
+
+    @TempDir
+    static Path reportDirectory;
+
+    @DynamicPropertySource
+    static void reportProperties(DynamicPropertyRegistry registry) {
+        registry.add("inventaro.reports.directory", reportDirectory::toString);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<UUID> created = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        for (UUID id : created) {
+            mockMvc.perform(delete("/articles/{id}", id));
+        }
+    }
+
+    @Test
+    void generate_writesLowStockUnitAndMovementReports() throws Exception {
+        // A unit of its own, so the totals are not affected by articles of other tests.
+        String unit = "box-" + UUID.randomUUID();
+        UUID low = createArticle("Sprutor, 2 ml", unit, 3, 10);
+        createArticle("Handskar", unit, 40, 10);
+        UUID empty = createArticle("Plåster", unit, 0, 5);
+        mockMvc.perform(patch("/articles/{id}/quantity/delta", low)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AdjustQuantityRequest(-1))))
+                .andExpect(status().isOk());
+
+        String json = mockMvc.perform(post("/reports"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.files.length()").value(3))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode result = objectMapper.readTree(json);
+        assertTrue(result.get("articles").asLong() >= 3);
+        assertTrue(result.get("lowStockArticles").asLong() >= 2);
+
+        List<String> lowStock = read(result, "low-stock.csv");
+        assertEquals("id,name,unit,quantity,reservedQuantity,lowStockThreshold,shortage", lowStock.get(0));
+        // Shortage 8 before shortage 5.
+        int lowIndex = indexOf(lowStock, low + ",\"Sprutor, 2 ml\"," + unit + ",2,0,10,8");
+        int emptyIndex = indexOf(lowStock, empty + ",Plåster," + unit + ",0,0,5,5");
+        assertTrue(lowIndex < emptyIndex);
+
+        List<String> units = read(result, "units.csv");
+        assertTrue(units.contains(unit + ",3,42,0,42,2"));
+
+        List<String> movements = read(result, "movements.csv");
+        assertEquals("from,to,type,movements,added,removed", movements.get(0));
+        assertTrue(movements.stream().anyMatch(line -> line.contains(",ADJUSTED,")));
+        assertTrue(movements.stream().anyMatch(line -> line.contains(",CREATED,")));
+
+        try (var files = Files.list(reportDirectory)) {
+            assertFalse(files.anyMatch(file -> file.toString().endsWith(".tmp")));
+        }
+    }
+
+    private List<String> read(JsonNode result, String suffix) throws Exception {
+        for (JsonNode file : result.get("files")) {
+            if (file.asText().endsWith(suffix)) {
+                return Files.readAllLines(reportDirectory.resolve(file.asText()));
+            }
+        }
+        throw new AssertionError("No " + suffix + " in " + result.get("files"));
+    }
+
+    private static int indexOf(List<String> lines, String line) {
+        int index = lines.indexOf(line);
+        assertTrue(index > 0, () -> "Missing line: " + line);
+        return index;
+    }
+
+    private UUID createArticle(String name, String unit, int quantity, int lowStockThreshold) throws Exception {
+        String json = mockMvc.perform(post("/articles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateArticleRequest(name, quantity, unit, lowStockThreshold))))
+                .andReturn().getResponse().getContentAsString();
+        UUID id = objectMapper.readValue(json, Article.class).getId();
+        created.add(id);
+        return id;
+    }
+}
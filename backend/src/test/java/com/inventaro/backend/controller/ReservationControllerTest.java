@@ -0,0 +1,212 @@
+package com.inventaro.backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventaro.backend.dto.AdjustQuantityRequest;
+import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.dto.CreateLocationRequest;
+import com.inventaro.backend.dto.TransferRequest;
+import com.inventaro.backend.model.Article;
+import com.inventaro.backend.repository.ArticleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Not @Transactional: expiry runs on its own thread and only sees committed holds.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ReservationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    private final List<UUID> created = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        for (UUID id : created) {
+            mockMvc.perform(delete("/articles/{id}", id));
+        }
+    }
+
+    @Test
+    void reservation_holdsStockWithoutTakingItOut() throws Exception {
+        UUID article = createArticle(30);
+
+        reserve(article, "{\"quantity\": 20, \"reference\": \"OR 3\"}")
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", org.hamcrest.Matchers.startsWith("/reservations/")))
+                .andExpect(jsonPath("$.articleId").value(article.toString()))
+                .andExpect(jsonPath("$.quantity").value(20))
+                .andExpect(jsonPath("$.reference").value("OR 3"));
+
+        mockMvc.perform(get("/articles/{id}", article))
+                .andExpect(jsonPath("$.quantity").value(30))
+                .andExpect(jsonPath("$.reservedQuantity").value(20));
+        mockMvc.perform(get("/articles/{id}/stock", article))
+                .andExpect(jsonPath("$.reservedQuantity").value(20))
+                .andExpect(jsonPath("$.availableQuantity").value(10));
+        mockMvc.perform(get("/articles/{id}/reservations", article))
+                .andExpect(jsonPath("$.length()").value(1));
+
+        // Neither a second hold nor a take-out can use the reserved stock.
+        reserve(article, "{\"quantity\": 11}").andExpect(status().isConflict());
+        adjust(article, -11).andExpect(status().isConflict());
+        mockMvc.perform(patch("/articles/{id}/quantity", article)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 19}"))
+                .andExpect(status().isConflict());
+
+        adjust(article, -10).andExpect(status().isOk());
+        reserve(article, "{\"quantity\": 1}").andExpect(status().isConflict());
+    }
+
+    @Test
+    void confirm_takesReservedStockOutOnce() throws Exception {
+        UUID article = createArticle(30);
+        String reservation = reservationId(reserve(article, "{\"quantity\": 20}"));
+
+        mockMvc.perform(post("/reservations/{id}/confirm", reservation))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.quantity").value(10))
+                .andExpect(jsonPath("$.reservedQuantity").value(0));
+        mockMvc.perform(post("/reservations/{id}/confirm", reservation))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/articles/{id}/movements", article))
+                .andExpect(jsonPath("$.items[1].type").value("CONFIRMED"))
+                .andExpect(jsonPath("$.items[1].delta").value(-20));
+    }
+
+    @Test
+    void reservations_holdOnlyUnlocatedStock_soTheyCanBeConfirmed() throws Exception {
+        UUID article = createArticle(30);
+        UUID ward = createLocation("Ward " + UUID.randomUUID());
+        transfer(article, new TransferRequest(null, ward, 20)).andExpect(status().isOk());
+
+        // A confirm could not take stock stored at the location, so it cannot be held either.
+        reserve(article, "{\"quantity\": 11}").andExpect(status().isConflict());
+        String reservation = reservationId(reserve(article, "{\"quantity\": 10}").andExpect(status().isCreated()));
+        mockMvc.perform(get("/articles/{id}/stock", article))
+                .andExpect(jsonPath("$.availableQuantity").value(0));
+
+        // Nor can the held stock be put away or taken out while the hold lasts.
+        transfer(article, new TransferRequest(null, ward, 1)).andExpect(status().isConflict());
+        adjust(article, -1).andExpect(status().isConflict());
+
+        mockMvc.perform(post("/reservations/{id}/confirm", reservation))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity").value(20))
+                .andExpect(jsonPath("$.locatedQuantity").value(20))
+                .andExpect(jsonPath("$.reservedQuantity").value(0));
+    }
+
+    @Test
+    void release_returnsStockToAvailable() throws Exception {
+        UUID article = createArticle(30);
+        String reservation = reservationId(reserve(article, "{\"quantity\": 30}"));
+
+        mockMvc.perform(delete("/reservations/{id}", reservation))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/reservations/{id}", reservation))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/articles/{id}", article))
+                .andExpect(jsonPath("$.quantity").value(30))
+                .andExpect(jsonPath("$.reservedQuantity").value(0));
+        reserve(article, "{\"quantity\": 30}").andExpect(status().isCreated());
+    }
+
+    @Test
+    void expiredReservations_areReleased() throws Exception {
+        UUID article = createArticle(30);
+        String shortHold = reservationId(reserve(article, "{\"quantity\": 5, \"ttl\": \"PT0.2S\"}"));
+        String otherShortHold = reservationId(reserve(article, "{\"quantity\": 5, \"ttl\": 0.3}"));
+        String longHold = reservationId(reserve(article, "{\"quantity\": 7, \"ttl\": \"PT1H\"}"));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (reservedQuantity(article) != 7 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(7, reservedQuantity(article));
+        mockMvc.perform(get("/reservations/{id}", shortHold)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/reservations/{id}", otherShortHold)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/reservations/{id}", longHold)).andExpect(status().isOk());
+    }
+
+    @Test
+    void invalidReservations_areRejected() throws Exception {
+        UUID article = createArticle(30);
+
+        reserve(article, "{\"quantity\": 0}").andExpect(status().isBadRequest());
+        reserve(article, "{\"quantity\": 1, \"ttl\": \"-PT1H\"}").andExpect(status().isBadRequest());
+        reserve(UUID.randomUUID(), "{\"quantity\": 1}").andExpect(status().isNotFound());
+        mockMvc.perform(post("/reservations/{id}/confirm", UUID.randomUUID())).andExpect(status().isNotFound());
+    }
+
+    private int reservedQuantity(UUID article) {
+        return articleRepository.findById(article).orElseThrow().getReservedQuantity();
+    }
+
+    private ResultActions reserve(UUID article, String body) throws Exception {
+        return mockMvc.perform(post("/articles/{id}/reservations", article)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+
+    private ResultActions adjust(UUID article, int delta) throws Exception {
+        return mockMvc.perform(patch("/articles/{id}/quantity/delta", article)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AdjustQuantityRequest(delta))));
+    }
+
+    private ResultActions transfer(UUID article, TransferRequest request) throws Exception {
+        return mockMvc.perform(post("/articles/{id}/transfers", article)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+    }
+
+    private String reservationId(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse().getContentAsString()).get("id").asText();
+    }
+
+    private UUID createArticle(int quantity) throws Exception {
+        String json = mockMvc.perform(post("/articles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateArticleRequest("Sprutor", quantity, "pcs", 5))))
+                .andReturn().getResponse().getContentAsString();
+        UUID id = objectMapper.readValue(json, Article.class).getId();
+        created.add(id);
+        return id;
+    }
+
+    private UUID createLocation(String name) throws Exception {
+        String json = mockMvc.perform(post("/locations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateLocationRequest(name))))
+                .andReturn().getResponse().getContentAsString();
+        return UUID.fromString(objectMapper.readTree(json).get("id").asText());
+    }
+}
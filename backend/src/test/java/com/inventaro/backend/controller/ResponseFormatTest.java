@@ -0,0 +1,110 @@
+package com.inventaro.backend.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.model.Article;
+import com.inventaro.backend.service.ArticleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Content negotiation and compression on a real server; MockMvc does not compress responses.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ResponseFormatTest {
+
+    private static final int ARTICLES = 100;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ArticleService articleService;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final List<UUID> created = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        created.forEach(id -> articleService.deleteArticle(id, null));
+    }
+
+    @Test
+    void listingAsGzippedCbor() throws Exception {
+        for (int i = 0; i < ARTICLES; i++) {
+            created.add(articleService.createArticle(new CreateArticleRequest("Article " + i, i, "pcs", 10)).getId());
+        }
+
+        HttpResponse<byte[]> response = get("/articles", "application/cbor", "gzip");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("application/cbor", response.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElseThrow());
+        byte[] cbor = new GZIPInputStream(new ByteArrayInputStream(response.body())).readAllBytes();
+        List<Article> articles = new CBORMapper().readValue(cbor, new TypeReference<>() {
+        });
+        assertEquals(ARTICLES, articles.size());
+        assertTrue(articles.stream().anyMatch(article -> article.getName().equals("Article 42") && article.getQuantity() == 42));
+    }
+
+    @Test
+    void jsonByDefaultAndSmallResponsesUncompressed() throws Exception {
+        UUID id = articleService.createArticle(new CreateArticleRequest("Gloves", 50, "box", 10)).getId();
+        created.add(id);
+
+        HttpResponse<byte[]> response = get("/articles/" + id, "*/*", "gzip");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("application/json"));
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+        assertTrue(new String(response.body()).contains("\"name\":\"Gloves\""));
+    }
+
+    @Test
+    void eachFormatHasItsOwnETag() throws Exception {
+        UUID id = articleService.createArticle(new CreateArticleRequest("Gloves", 50, "box", 10)).getId();
+        created.add(id);
+
+        HttpResponse<byte[]> json = get("/articles/" + id, "application/json", "identity");
+        HttpResponse<byte[]> cbor = get("/articles/" + id, "application/cbor", "identity");
+
+        assertEquals("\"0\"", json.headers().firstValue("ETag").orElseThrow());
+        assertEquals("\"0-cbor\"", cbor.headers().firstValue("ETag").orElseThrow());
+        assertTrue(String.join(",", cbor.headers().allValues("Vary")).contains("Accept"));
+        assertEquals(304, get("/articles/" + id, "application/cbor", "identity", "\"0-cbor\"").statusCode());
+        // The JSON tag does not validate the CBOR representation.
+        assertEquals(200, get("/articles/" + id, "application/cbor", "identity", "\"0\"").statusCode());
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept, String acceptEncoding) throws Exception {
+        return get(path, accept, acceptEncoding, null);
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept, String acceptEncoding, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept", accept)
+                .header("Accept-Encoding", acceptEncoding);
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
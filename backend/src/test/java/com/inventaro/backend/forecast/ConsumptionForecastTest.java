@@ -0,0 +1,101 @@
+package com.inventaro.backend.forecast;
+
+import com.inventaro.backend.dto.AdjustQuantityRequest;
+import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.dto.UpdateQuantityRequest;
+import com.inventaro.backend.repository.ArticleRepository;
+import com.inventaro.backend.service.ArticleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Forecasts as maintained from committed ledger movements, and as recomputed from the ledger.
+ * Not @Transactional on purpose: rates are only updated after a commit.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ConsumptionForecastTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private ConsumptionForecaster forecaster;
+
+    private final List<UUID> created = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        created.stream().filter(articleRepository::existsById).forEach(id -> articleService.deleteArticle(id, null));
+    }
+
+    @Test
+    void consumptionDrivesCoverAndReorderPoint() throws Exception {
+        UUID id = create(100);
+        articleService.adjustQuantity(id, new AdjustQuantityRequest(-10), null);
+        articleService.adjustQuantity(id, new AdjustQuantityRequest(25), null);
+        articleService.updateQuantity(id, new UpdateQuantityRequest(95), null);
+
+        // 10 + 20 consumed on the first day; restocking is not consumption.
+        ConsumptionForecaster.Forecast forecast = forecaster.forecast(id, 95);
+        assertEquals(30, forecast.consumptionPerDay(), 1.5);
+        assertEquals(95 / forecast.consumptionPerDay(), forecast.daysOfCover(), 1e-9);
+        assertEquals((int) Math.ceil(forecast.consumptionPerDay() * 10), forecast.reorderPoint());
+
+        mockMvc.perform(get("/articles/{id}/forecast", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.articleId").value(id.toString()))
+                .andExpect(jsonPath("$.quantity").value(95))
+                .andExpect(jsonPath("$.reorderPoint").value(forecast.reorderPoint()))
+                .andExpect(jsonPath("$.lowStockThreshold").value(5))
+                .andExpect(jsonPath("$.reorderNow").value(true));
+    }
+
+    @Test
+    void recomputeFromLedgerMatchesIncrementalRates() {
+        UUID consumed = create(50);
+        UUID untouched = create(50);
+        articleService.adjustQuantity(consumed, new AdjustQuantityRequest(-7), null);
+        articleService.adjustQuantity(consumed, new AdjustQuantityRequest(-3), null);
+        double incremental = forecaster.forecast(consumed, 40).consumptionPerDay();
+
+        forecaster.recompute();
+
+        assertEquals(incremental, forecaster.forecast(consumed, 40).consumptionPerDay(), incremental * 1e-3);
+        assertEquals(0, forecaster.forecast(untouched, 50).consumptionPerDay());
+        assertNull(forecaster.forecast(untouched, 50).daysOfCover());
+    }
+
+    @Test
+    void unknownArticleReturnsNotFound() throws Exception {
+        mockMvc.perform(get("/articles/{id}/forecast", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    private UUID create(int quantity) {
+        UUID id = articleService.createArticle(new CreateArticleRequest("Forecast article", quantity, "pcs", 5)).getId();
+        created.add(id);
+        return id;
+    }
+}
@@ -0,0 +1,70 @@
+package com.inventaro.backend.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsumptionRateTest {
+
+    private static final double TAU = Duration.ofDays(14).toSeconds() / Math.log(2);
+    private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Test
+    void steadyConsumptionConvergesToTheDailyRate() {
+        ConsumptionRate rate = ConsumptionRate.start(START);
+        for (int day = 1; day <= 365; day++) {
+            rate = rate.plus(12, START.plus(Duration.ofDays(day)), TAU);
+        }
+        assertEquals(12, rate.perDay(START.plus(Duration.ofDays(365)), TAU), 0.5);
+    }
+
+    @Test
+    void youngArticleIsNotUnderestimated() {
+        ConsumptionRate rate = ConsumptionRate.start(START);
+        for (int day = 1; day <= 5; day++) {
+            rate = rate.plus(10, START.plus(Duration.ofDays(day)), TAU);
+        }
+        assertEquals(10, rate.perDay(START.plus(Duration.ofDays(5)), TAU), 1.5);
+    }
+
+    @Test
+    void rateDecaysWithoutConsumption() {
+        ConsumptionRate rate = ConsumptionRate.start(START).plus(100, START.plus(Duration.ofDays(300)), TAU);
+        double now = rate.perDay(START.plus(Duration.ofDays(300)), TAU);
+        double twoHalfLivesLater = rate.perDay(START.plus(Duration.ofDays(328)), TAU);
+        assertEquals(now / 4, twoHalfLivesLater, now * 1e-3);
+        assertEquals(0, ConsumptionRate.start(START).perDay(START.plus(Duration.ofDays(1)), TAU));
+    }
+
+    @Test
+    void orderOfMovementsDoesNotMatter() {
+        Instant first = START.plus(Duration.ofHours(5));
+        Instant second = START.plus(Duration.ofHours(9));
+        ConsumptionRate inOrder = ConsumptionRate.start(START).plus(3, first, TAU).plus(7, second, TAU);
+        ConsumptionRate outOfOrder = ConsumptionRate.start(START).plus(7, second, TAU).plus(3, first, TAU);
+
+        Instant later = START.plus(Duration.ofDays(2));
+        assertEquals(inOrder.perDay(later, TAU), outOfOrder.perDay(later, TAU), 1e-9);
+    }
+
+    @Test
+    void idRangesCoverTheWholeIdSpaceInOrder() {
+        List<UUID[]> ranges = ConsumptionForecaster.idRanges(3);
+
+        assertEquals(new UUID(0L, 0L), ranges.getFirst()[0]);
+        assertEquals(new UUID(-1L, -1L), ranges.getLast()[1]);
+        for (int i = 1; i < ranges.size(); i++) {
+            UUID previousUpper = ranges.get(i - 1)[1];
+            UUID lower = ranges.get(i)[0];
+            assertEquals(previousUpper.getMostSignificantBits() + 1, lower.getMostSignificantBits());
+            assertEquals(-1L, previousUpper.getLeastSignificantBits());
+            assertEquals(0L, lower.getLeastSignificantBits());
+            assertTrue(Long.compareUnsigned(ranges.get(i - 1)[0].getMostSignificantBits(), lower.getMostSignificantBits()) < 0);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.inventaro.backend.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.dto.UpdateQuantityRequest;
+import com.inventaro.backend.model.Article;
+import com.inventaro.backend.repository.ArticleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Retries of scanner uploads through the whole stack. Not @Transactional: the concurrent
+ * requests run on their own threads and must see each other's commits.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class IdempotencyFilterTest {
+
+    private static final int RETRIES = 50;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @AfterEach
+    void cleanUp() {
+        articleRepository.deleteAll();
+    }
+
+    @Test
+    void retriedCreate_returnsSameArticleWithoutCreatingAnother() throws Exception {
+        String body = objectMapper.writeValueAsString(new CreateArticleRequest("Face mask", 200, "pcs", 100));
+
+        String first = mockMvc.perform(post("/articles")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, "scan-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.IDEMPOTENT_REPLAYED))
+                .andReturn().getResponse().getContentAsString();
+        UUID id = objectMapper.readValue(first, Article.class).getId();
+
+        mockMvc.perform(post("/articles")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, "scan-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.IDEMPOTENT_REPLAYED, "true"))
+                .andExpect(header().string("Location", "/articles/" + id))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(content().json(first));
+
+        // Another key is another request.
+        mockMvc.perform(post("/articles")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, "scan-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated());
+        assertEquals(2, articleRepository.count());
+    }
+
+    @Test
+    void lateRetryOfQuantityUpdate_doesNotOverwriteNewerUpdate() throws Exception {
+        UUID id = createArticle();
+
+        mockMvc.perform(patch("/articles/" + id + "/quantity")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, "count-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateQuantityRequest(80))))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/articles/" + id + "/quantity")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, "count-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateQuantityRequest(60))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/articles/" + id + "/quantity")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, "count-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateQuantityRequest(80))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.IDEMPOTENT_REPLAYED, "true"))
+                .andExpect(jsonPath("$.quantity").value(80));
+
+        assertEquals(60, articleRepository.findById(id).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void reusedKeyWithAnotherBody_isRejectedWithoutReplay() throws Exception {
+        UUID id = createArticle();
+
+        mockMvc.perform(patch("/articles/" + id + "/quantity")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, "count-7")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateQuantityRequest(80))))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/articles/" + id + "/quantity")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, "count-7")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateQuantityRequest(70))))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(header().doesNotExist(IdempotencyFilter.IDEMPOTENT_REPLAYED));
+
+        assertEquals(80, articleRepository.findById(id).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void concurrentRetriesOfCreate_createOneArticle() throws Exception {
+        String body = objectMapper.writeValueAsString(new CreateArticleRequest("Gloves", 50, "box", 10));
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int r = 0; r < RETRIES; r++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/articles")
+                                    .header(IdempotencyFilter.IDEMPOTENCY_KEY, "burst-1")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(body))
+                            .andReturn().getResponse();
+                }));
+            }
+            start.countDown();
+        }
+
+        Set<UUID> ids = responses.stream()
+                .map(Future::resultNow)
+                .peek(response -> assertEquals(201, response.getStatus()))
+                .map(this::readId)
+                .collect(Collectors.toSet());
+        assertEquals(1, ids.size());
+        assertEquals(1, articleRepository.count());
+    }
+
+    @Test
+    void concurrentRetriesOfDelta_applyOnce() throws Exception {
+        UUID id = createArticle();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int r = 0; r < RETRIES; r++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(patch("/articles/" + id + "/quantity/delta")
+                                    .header(IdempotencyFilter.IDEMPOTENCY_KEY, "take-3")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content("{\"delta\": -3}"))
+                            .andReturn().getResponse();
+                }));
+            }
+            start.countDown();
+        }
+
+        responses.forEach(response -> assertEquals(200, response.resultNow().getStatus()));
+        assertEquals(97, articleRepository.findById(id).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void invalidKey_returns400() throws Exception {
+        mockMvc.perform(delete("/articles/" + UUID.randomUUID())
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, "x".repeat(256)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString(IdempotencyFilter.IDEMPOTENCY_KEY)));
+    }
+
+    private UUID createArticle() throws Exception {
+        String json = mockMvc.perform(post("/articles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateArticleRequest("Masks", 100, "pcs", 50))))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(json, Article.class).getId();
+    }
+
+    private UUID readId(MockHttpServletResponse response) {
+        try {
+            return objectMapper.readValue(response.getContentAsString(), Article.class).getId();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
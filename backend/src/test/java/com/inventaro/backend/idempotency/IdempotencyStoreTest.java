@@ -0,0 +1,91 @@
+package com.inventaro.backend.idempotency;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private static final IdempotentResponse CREATED = new IdempotentResponse(201, Map.of(), new byte[]{1}, new byte[32]);
+
+    private final IdempotencyStore store = new IdempotencyStore(DataSize.ofMegabytes(1), Duration.ofMinutes(1));
+
+    @Test
+    void firstClaimOwnsKeyAndRetriesSeeItsResponse() throws Exception {
+        IdempotencyStore.Claim first = store.claim("POST /articles k1");
+        IdempotencyStore.Claim retry = store.claim("POST /articles k1");
+        assertTrue(first.owner());
+        assertFalse(retry.owner());
+        assertFalse(retry.response().isDone());
+
+        store.complete(first, CREATED);
+
+        assertSame(CREATED, retry.response().get(1, TimeUnit.SECONDS));
+        assertSame(CREATED, store.claim("POST /articles k1").response().getNow(null));
+        assertTrue(store.claim("POST /articles k2").owner());
+    }
+
+    @Test
+    void releasedKeyCanBeClaimedAgain() {
+        IdempotencyStore.Claim first = store.claim("k");
+        IdempotencyStore.Claim waiting = store.claim("k");
+
+        store.release(first);
+
+        assertTrue(waiting.response().isCompletedExceptionally());
+        assertTrue(store.claim("k").owner());
+    }
+
+    @Test
+    void concurrentClaimsOfOneKey_haveExactlyOneOwner() throws Exception {
+        int threads = 500;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<IdempotencyStore.Claim>> claims = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < threads; t++) {
+                claims.add(executor.submit(() -> {
+                    start.await();
+                    return store.claim("PATCH /articles/1/quantity scan-42");
+                }));
+            }
+            start.countDown();
+
+            List<IdempotencyStore.Claim> owners = new ArrayList<>();
+            for (Future<IdempotencyStore.Claim> claim : claims) {
+                if (claim.get().owner()) {
+                    owners.add(claim.get());
+                }
+            }
+            assertEquals(1, owners.size());
+            store.complete(owners.get(0), CREATED);
+        }
+        for (Future<IdempotencyStore.Claim> claim : claims) {
+            assertSame(CREATED, claim.get().response().getNow(null));
+        }
+    }
+
+    @Test
+    void keepsAtMostMaxSize() {
+        IdempotencyStore small = new IdempotencyStore(DataSize.ofKilobytes(100), Duration.ofMinutes(1));
+        IdempotentResponse batch = new IdempotentResponse(200, Map.of(), new byte[10_000], new byte[32]);
+        for (int i = 0; i < 1_000; i++) {
+            small.complete(small.claim("key-" + i), batch);
+        }
+
+        // Weighed with their bodies once completed, so only about ten of them fit.
+        assertTrue(small.weightedSize() <= DataSize.ofKilobytes(100).toBytes(), "weight " + small.weightedSize());
+        assertTrue(small.size() <= 10, "size " + small.size());
+    }
+}
@@ -0,0 +1,120 @@
+package com.inventaro.backend.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventaro.backend.repository.ArticleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies that requests are timed on every layer, that the business counters record, and that
+ * everything is exported on /actuator/prometheus.
+ * Not @Transactional on purpose: the business counters only count committed changes.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class ArticleMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private UUID id;
+
+    @AfterEach
+    void cleanUp() {
+        if (id != null) {
+            articleRepository.deleteById(id);
+        }
+    }
+
+    @Test
+    void timesEveryLayerAndCountsStockMovements() throws Exception {
+        double movementsBefore = counter(ArticleMetrics.STOCK_MOVEMENTS);
+        double enteredBefore = counter(ArticleMetrics.LOW_STOCK_TRANSITIONS, "direction", "entered");
+        double leftBefore = counter(ArticleMetrics.LOW_STOCK_TRANSITIONS, "direction", "left");
+
+        String created = mockMvc.perform(post("/articles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"name": "Bandage", "quantity": 50, "unit": "pcs", "lowStockThreshold": 10}
+                                """))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        id = UUID.fromString(objectMapper.readTree(created).get("id").asText());
+
+        // 50 -> 5 enters low stock, 5 -> 25 leaves it again.
+        adjust(-45);
+        adjust(20);
+        mockMvc.perform(get("/articles/{id}", id)).andExpect(status().isOk());
+
+        assertEquals(2, counter(ArticleMetrics.STOCK_MOVEMENTS) - movementsBefore);
+        assertEquals(1, counter(ArticleMetrics.LOW_STOCK_TRANSITIONS, "direction", "entered") - enteredBefore);
+        assertEquals(1, counter(ArticleMetrics.LOW_STOCK_TRANSITIONS, "direction", "left") - leftBefore);
+
+        Timer endpoint = meterRegistry.get("http.server.requests")
+                .tags("uri", "/articles/{id}/quantity/delta", "method", "PATCH").timer();
+        assertTrue(endpoint.count() >= 2);
+        assertTrue(endpoint.totalTime(TimeUnit.NANOSECONDS) > 0);
+
+        Timer service = meterRegistry.get("inventaro.article.service")
+                .tags("class", "com.inventaro.backend.service.ArticleServiceImpl", "method", "adjustQuantity").timer();
+        assertTrue(service.count() >= 2);
+
+        Timer repository = meterRegistry.get("spring.data.repository.invocations")
+                .tags("repository", "ArticleRepository", "method", "adjustQuantity").timer();
+        assertTrue(repository.count() >= 2);
+
+        // adjustQuantity reloads the article after its bulk update.
+        assertTrue(meterRegistry.get("hibernate.entities.loads").functionCounter().count() > 0);
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("inventaro_stock_movements_total")))
+                .andExpect(content().string(containsString("inventaro_stock_low_transitions_total{direction=\"entered\"")))
+                .andExpect(content().string(containsString("inventaro_article_service_seconds_bucket")))
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket")))
+                .andExpect(content().string(containsString("hibernate_entities_loads_total")));
+    }
+
+    private void adjust(int delta) throws Exception {
+        mockMvc.perform(patch("/articles/{id}/quantity/delta", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"delta\": " + delta + "}"))
+                .andExpect(status().isOk());
+    }
+
+    private double counter(String name, String... tags) {
+        Counter counter = meterRegistry.find(name).tags(tags).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,78 @@
+package com.inventaro.backend.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadShedderTest {
+
+    private final LoadShedder shedder = new LoadShedder(4, Duration.ofMillis(100), 2, new SimpleMeterRegistry());
+
+    @Test
+    void shedsListsFirstThenReadsButNeverWrites() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(shedder.tryEnter(RequestClass.WRITE));
+        }
+        // 4 requests in progress: the in-flight threshold is reached.
+        assertFalse(shedder.tryEnter(RequestClass.LIST));
+        assertTrue(shedder.tryEnter(RequestClass.READ));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(shedder.tryEnter(RequestClass.WRITE));
+        }
+        // 8 in progress: twice the threshold.
+        assertFalse(shedder.tryEnter(RequestClass.READ));
+        assertTrue(shedder.tryEnter(RequestClass.WRITE));
+
+        for (int i = 0; i < 9; i++) {
+            shedder.exit(0);
+        }
+        assertTrue(shedder.tryEnter(RequestClass.LIST));
+    }
+
+    @Test
+    void shedsListsWhileAverageLatencyIsAboveThreshold() {
+        for (int i = 0; i < 50; i++) {
+            shedder.tryEnter(RequestClass.WRITE);
+            shedder.exit(TimeUnit.MILLISECONDS.toNanos(150));
+        }
+        assertFalse(shedder.tryEnter(RequestClass.LIST));
+        assertTrue(shedder.tryEnter(RequestClass.READ));
+        shedder.exit(0);
+
+        for (int i = 0; i < 50; i++) {
+            shedder.tryEnter(RequestClass.WRITE);
+            shedder.exit(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        assertTrue(shedder.tryEnter(RequestClass.LIST));
+    }
+
+    @Test
+    void oneSlowRequest_doesNotShedOnItsOwn() {
+        shedder.tryEnter(RequestClass.LIST);
+        shedder.exit(TimeUnit.SECONDS.toNanos(30));
+        assertTrue(shedder.tryEnter(RequestClass.LIST));
+        shedder.exit(0);
+
+        // Unsampled requests only count while they are in progress.
+        shedder.tryEnter(RequestClass.LIST);
+        shedder.exit();
+        assertTrue(shedder.load(0, System.nanoTime()) < 1);
+    }
+
+    @Test
+    void ignoresLatencyAverageOnceNoRequestsComplete() {
+        for (int i = 0; i < 10; i++) {
+            shedder.tryEnter(RequestClass.WRITE);
+            shedder.exit(TimeUnit.SECONDS.toNanos(10));
+        }
+
+        long now = System.nanoTime();
+        assertTrue(shedder.load(0, now) >= 1);
+        assertEquals(0, shedder.load(0, now + TimeUnit.SECONDS.toNanos(2)));
+    }
+}
@@ -0,0 +1,131 @@
+package com.inventaro.backend.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Per-client read and write budgets through the whole stack. Every test uses its own client ids,
+ * as the buckets are shared by all tests in the application context.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "inventaro.rate-limit.enabled=true",
+        "inventaro.rate-limit.client-header=X-Client-Id",
+        "inventaro.rate-limit.reads.per-second=0.01",
+        "inventaro.rate-limit.reads.burst=5",
+        "inventaro.rate-limit.writes.per-second=0.01",
+        "inventaro.rate-limit.writes.burst=2"
+})
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void readFlood_isLimitedWithoutTouchingWriteBudget() throws Exception {
+        String client = "dashboard-" + UUID.randomUUID();
+        double rejectedBefore = rejected("rate_limit", "list");
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(get("/articles").header("X-Client-Id", client))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/articles").header("X-Client-Id", client))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+        // Reads of a single article share the read budget.
+        mockMvc.perform(get("/articles/" + UUID.randomUUID()).header("X-Client-Id", client))
+                .andExpect(status().isTooManyRequests());
+
+        // The same client can still write, and other clients can still read.
+        mockMvc.perform(post("/articles")
+                        .header("X-Client-Id", client)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Gloves\",\"quantity\":5,\"unit\":\"box\",\"lowStockThreshold\":1}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/articles").header("X-Client-Id", "ward-" + UUID.randomUUID()))
+                .andExpect(status().isOk());
+
+        assertEquals(rejectedBefore + 1, rejected("rate_limit", "list"));
+    }
+
+    @Test
+    void writeBudgetIsSeparate() throws Exception {
+        String client = "scanner-" + UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(delete("/articles/" + missing).header("X-Client-Id", client))
+                    .andExpect(status().isNotFound());
+        }
+        mockMvc.perform(delete("/articles/" + missing).header("X-Client-Id", client))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("write requests")));
+        mockMvc.perform(get("/articles").header("X-Client-Id", client))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void actuatorIsNotLimited() throws Exception {
+        String client = "monitor-" + UUID.randomUUID();
+        for (int i = 0; i < 10; i++) {
+            mockMvc.perform(get("/actuator/health").header("X-Client-Id", client))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void slowExport_doesNotShedLaterReads() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(new RateLimiter(0.01, 5, 0.01, 2, 10, Duration.ofMinutes(1), new SimpleMeterRegistry()),
+                new LoadShedder(100, Duration.ofMillis(20), 2, new SimpleMeterRegistry()),
+                false, true, "", new SimpleMeterRegistry());
+        AtomicInteger served = new AtomicInteger();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/articles/export"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/articles"), response,
+                    (request, res) -> served.incrementAndGet());
+            assertEquals(200, response.getStatus());
+        }
+        assertEquals(3, served.get());
+    }
+
+    private double rejected(String reason, String requestClass) {
+        return meterRegistry.get(RateLimitFilter.REJECTED)
+                .tag("reason", reason)
+                .tag("class", requestClass)
+                .counter()
+                .count();
+    }
+}
@@ -0,0 +1,66 @@
+package com.inventaro.backend.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstThenRefillsAtRate() {
+        long now = 0;
+        TokenBucket bucket = new TokenBucket(10, 5, now);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(now));
+        }
+        long retryAfter = bucket.tryAcquire(now);
+        assertEquals(SECOND / 10, retryAfter);
+
+        assertEquals(0, bucket.tryAcquire(now + retryAfter));
+        assertTrue(bucket.tryAcquire(now + retryAfter) > 0);
+    }
+
+    @Test
+    void idleBucketSavesUpAtMostBurst() {
+        TokenBucket bucket = new TokenBucket(10, 3, 0);
+
+        long later = 60 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(later));
+        }
+        assertTrue(bucket.tryAcquire(later) > 0);
+    }
+
+    @Test
+    void concurrentAcquires_takeExactlyBurstTokens() throws Exception {
+        int threads = 200;
+        long now = System.nanoTime();
+        // Slow refill, so no token is added while the threads run.
+        TokenBucket bucket = new TokenBucket(0.001, 50, now);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return bucket.tryAcquire(now) == 0;
+                }));
+            }
+            start.countDown();
+        }
+
+        assertEquals(50, results.stream().filter(Future::resultNow).count());
+    }
+}
@@ -0,0 +1,69 @@
+package com.inventaro.backend.report;
+
+import com.inventaro.backend.model.StockMovementType;
+import com.inventaro.backend.repository.ArticleStockLevel;
+import com.inventaro.backend.repository.MovementTotal;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReportAccumulatorTest {
+
+    @Test
+    void keepsOnlyTheMostSevereShortages_butCountsAll() {
+        ReportAccumulator report = new ReportAccumulator(3);
+        for (int quantity = 0; quantity < 10; quantity++) {
+            report.add(article("Article " + quantity, "pcs", quantity, 5));
+        }
+
+        // Quantities 0..5 are at or below the threshold of 5.
+        assertEquals(10, report.getArticles());
+        assertEquals(6, report.getLowStockArticles());
+        assertEquals(List.of(5, 4, 3), report.lowStockRows().stream().map(ArticleStockLevel::shortage).toList());
+    }
+
+    @Test
+    void mergedPartitions_addUpToOnePass() {
+        List<ArticleStockLevel> articles = List.of(
+                article("Sprutor", "pcs", 2, 10),
+                article("Handskar", "box", 50, 10),
+                article("Kompresser", "pcs", 8, 10),
+                article("Plåster", "box", 1, 3),
+                article("Förband", "pcs", 40, 10));
+
+        ReportAccumulator onePass = new ReportAccumulator(2);
+        articles.forEach(onePass::add);
+        ReportAccumulator first = new ReportAccumulator(2);
+        ReportAccumulator second = new ReportAccumulator(2);
+        articles.subList(0, 2).forEach(first::add);
+        articles.subList(2, 5).forEach(second::add);
+        first.add(new MovementTotal(StockMovementType.ADJUSTED, 3, 5, 7));
+        second.add(new MovementTotal(StockMovementType.ADJUSTED, 2, 1, 4));
+        second.add(new MovementTotal(StockMovementType.CREATED, 1, 40, 0));
+
+        ReportAccumulator merged = first.merge(second);
+
+        assertEquals(onePass.getArticles(), merged.getArticles());
+        assertEquals(3, merged.getLowStockArticles());
+        assertEquals(onePass.lowStockRows(), merged.lowStockRows());
+        assertEquals(List.of("Sprutor", "Kompresser"), merged.lowStockRows().stream().map(ArticleStockLevel::name).toList());
+
+        ReportAccumulator.UnitTotals pcs = merged.getUnits().get("pcs");
+        assertEquals(3, pcs.articles);
+        assertEquals(50, pcs.quantity);
+        assertEquals(2, pcs.lowStockArticles);
+        assertEquals(List.of("box", "pcs"), List.copyOf(merged.getUnits().keySet()));
+
+        ReportAccumulator.MovementTotals adjusted = merged.getMovements().get(StockMovementType.ADJUSTED);
+        assertEquals(5, adjusted.movements);
+        assertEquals(6, adjusted.added);
+        assertEquals(11, adjusted.removed);
+    }
+
+    private static ArticleStockLevel article(String name, String unit, int quantity, int lowStockThreshold) {
+        return new ArticleStockLevel(UUID.randomUUID(), name, unit, quantity, 0, lowStockThreshold, lowStockThreshold - quantity);
+    }
+}
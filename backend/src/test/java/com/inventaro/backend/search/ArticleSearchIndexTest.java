@@ -0,0 +1,68 @@
+package com.inventaro.backend.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArticleSearchIndexTest {
+
+    private final UUID gloves = UUID.randomUUID();
+    private final UUID plaster = UUID.randomUUID();
+    private final UUID compress = UUID.randomUUID();
+
+    private ArticleSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // The repository is only needed by rebuild().
+        index = new ArticleSearchIndex(null, null);
+        index.put(gloves, "Handskar nitril M");
+        index.put(plaster, "Plåster 5x7 cm");
+        index.put(compress, "Kompress steril");
+    }
+
+    @Test
+    void tokenizeFoldsCaseAndAccents() {
+        assertArrayEquals(new String[]{"plaster", "5x7", "cm"}, ArticleSearchIndex.tokenize("Plåster 5x7 cm"));
+        assertArrayEquals(new String[]{"alskad", "ost"}, ArticleSearchIndex.tokenize("  ÄLSKAD-ost "));
+        assertArrayEquals(new String[0], ArticleSearchIndex.tokenize(" - "));
+    }
+
+    @Test
+    void matchesTokenPrefixesIgnoringCaseAndAccents() {
+        assertEquals(List.of(plaster), index.search("plås", 10));
+        assertEquals(List.of(plaster), index.search("PLAS", 10));
+        assertEquals(List.of(gloves), index.search("nitr", 10));
+        assertEquals(List.of(gloves), index.search("hand nitril m", 10));
+    }
+
+    @Test
+    void requiresEveryQueryTokenToMatch() {
+        assertEquals(List.of(), index.search("hand steril", 10));
+        assertEquals(List.of(), index.search("itril", 10));
+        assertEquals(List.of(), index.search("   ", 10));
+    }
+
+    @Test
+    void reindexesRenamedAndRemovedArticles() {
+        index.put(gloves, "Handskar latex S");
+        assertEquals(List.of(), index.search("nitril", 10));
+        assertEquals(List.of(gloves), index.search("latex", 10));
+
+        index.remove(gloves);
+        assertEquals(List.of(), index.search("hand", 10));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void stopsAtTheLimit() {
+        for (int i = 0; i < 10; i++) {
+            index.put(UUID.randomUUID(), "Sprit " + i);
+        }
+        assertEquals(3, index.search("spr", 3).size());
+    }
+}
@@ -0,0 +1,96 @@
+package com.inventaro.backend.search;
+
+import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.dto.UpdateArticleRequest;
+import com.inventaro.backend.repository.ArticleRepository;
+import com.inventaro.backend.service.ArticleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /articles/search against the index as maintained by the service's change events.
+ * Not @Transactional on purpose: the index is only updated after a commit.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ArticleSearchTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    private final List<UUID> created = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        created.stream().filter(articleRepository::existsById).forEach(id -> articleService.deleteArticle(id, null));
+    }
+
+    @Test
+    void findsArticlesByAccentInsensitiveTokenPrefix() throws Exception {
+        create("Plåster 5x7 cm", 40);
+        create("Handskar nitril M", 100);
+        create("Handskar nitril L", 80);
+
+        mockMvc.perform(get("/articles/search").param("q", "plas"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Plåster 5x7 cm"));
+
+        mockMvc.perform(get("/articles/search").param("q", "handskar NITR"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Handskar nitril L"))
+                .andExpect(jsonPath("$[1].name").value("Handskar nitril M"));
+
+        mockMvc.perform(get("/articles/search").param("q", "handskar").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void followsRenamesAndDeletes() throws Exception {
+        UUID id = create("Kompress steril", 10);
+
+        articleService.updateArticleData(id, new UpdateArticleRequest("Kompress osteril", "pcs", 5), null);
+        mockMvc.perform(get("/articles/search").param("q", "steril"))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/articles/search").param("q", "oster"))
+                .andExpect(jsonPath("$.length()").value(1));
+
+        articleService.deleteArticle(id, null);
+        mockMvc.perform(get("/articles/search").param("q", "kompress"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void missingQueryReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/articles/search"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private UUID create(String name, int quantity) {
+        UUID id = articleService.createArticle(new CreateArticleRequest(name, quantity, "pcs", 5)).getId();
+        created.add(id);
+        return id;
+    }
+}
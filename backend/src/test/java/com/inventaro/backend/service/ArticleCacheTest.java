@@ -0,0 +1,141 @@
+package com.inventaro.backend.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.inventaro.backend.dto.AdjustQuantityRequest;
+import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.dto.UpdateArticleRequest;
+import com.inventaro.backend.model.Article;
+import com.inventaro.backend.repository.ArticleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies read-through caching and that every kind of write invalidates the cached article and listings.
+ * Not @Transactional on purpose: the caches only apply puts and evictions after a commit.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ArticleCacheTest {
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CatalogueVersion catalogueVersion;
+
+    private UUID id;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        id = articleService.createArticle(new CreateArticleRequest("Gloves", 50, "box", 10)).getId();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        if (articleRepository.existsById(id)) {
+            articleService.deleteArticle(id, null);
+        }
+    }
+
+    @Test
+    void getArticleById_isServedFromCacheAfterFirstRead() {
+        long hitsBefore = stats(ArticleCache.ARTICLES).hitCount();
+
+        articleService.getArticleById(id);
+        articleService.getArticleById(id);
+
+        assertEquals(hitsBefore + 1, stats(ArticleCache.ARTICLES).hitCount());
+        assertNotNull(meterRegistry.find("cache.gets").tag("cache", ArticleCache.ARTICLES).tag("result", "hit").functionCounter());
+    }
+
+    @Test
+    void updateQuantity_evictsCachedArticle() {
+        assertEquals(50, articleService.getArticleById(id).getQuantity());
+
+        articleService.adjustQuantity(id, new AdjustQuantityRequest(-5), null);
+
+        assertEquals(45, articleService.getArticleById(id).getQuantity());
+    }
+
+    @Test
+    void updateArticleData_evictsCachedArticleAndListing() {
+        articleService.getArticleById(id);
+        articleService.getAllArticles();
+
+        articleService.updateArticleData(id, new UpdateArticleRequest("Nitrile gloves", "box", 10), null);
+
+        assertEquals("Nitrile gloves", articleService.getArticleById(id).getName());
+        assertTrue(articleService.getAllArticles().stream().anyMatch(a -> a.getName().equals("Nitrile gloves")));
+    }
+
+    @Test
+    void createAndDelete_evictListings() {
+        int before = articleService.getAllArticles().size();
+
+        Article other = articleService.createArticle(new CreateArticleRequest("Masks", 10, "pcs", 5));
+        assertEquals(before + 1, articleService.getAllArticles().size());
+
+        articleService.deleteArticle(other.getId(), null);
+        assertEquals(before, articleService.getAllArticles().size());
+        assertThrows(IllegalArgumentException.class, () -> articleService.getArticleById(other.getId()));
+    }
+
+    @Test
+    void listingLoadedBeforeAChange_isNotServedAfterIt() {
+        String version = catalogueVersion.current();
+        List<Article> stale = articleService.getAllArticles();
+
+        articleService.adjustQuantity(id, new AdjustQuantityRequest(-5), null);
+        // A reader that loaded the list before the change stores it only after the change evicted the listings.
+        cacheManager.getCache(ArticleCache.LISTINGS).put(version + ":all", stale);
+
+        assertTrue(articleService.getAllArticles().stream().anyMatch(a -> a.getId().equals(id) && a.getQuantity() == 45));
+    }
+
+    @Test
+    void listings_areWeighedByTheirArticles() {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> listings = nativeCache(ArticleCache.LISTINGS);
+        listings.invalidateAll();
+        int articles = articleService.getAllArticles().size();
+
+        // Caffeine updates the weights in its maintenance, which may not have run yet.
+        listings.cleanUp();
+        assertEquals(articles, listings.policy().eviction().orElseThrow().weightedSize().orElseThrow());
+    }
+
+    private CacheStats stats(String name) {
+        return nativeCache(name).stats();
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache instanceof TransactionAwareCacheDecorator decorator) {
+            cache = decorator.getTargetCache();
+        }
+        return ((CaffeineCache) cache).getNativeCache();
+    }
+}
@@ -0,0 +1,113 @@
+package com.inventaro.backend.service;
+
+import com.inventaro.backend.dto.AdjustQuantityRequest;
+import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.exception.InsufficientStockException;
+import com.inventaro.backend.model.Article;
+import com.inventaro.backend.repository.ArticleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Hammers a single article from hundreds of virtual threads to prove that delta adjustments
+ * are applied atomically: no update is lost and the stock never goes below zero.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ArticleServiceConcurrencyTest {
+
+    private static final int THREADS = 300;
+    private static final int ADJUSTMENTS_PER_THREAD = 10;
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    private final List<UUID> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        articleRepository.deleteAllById(createdIds);
+    }
+
+    @Test
+    void concurrentAdjustments_loseNoUpdates() throws Exception {
+        int initial = THREADS * ADJUSTMENTS_PER_THREAD;
+        UUID id = createArticle(initial);
+
+        long elapsed = runConcurrently(id, -1, new AtomicInteger());
+
+        Article article = articleService.getArticleById(id);
+        assertEquals(0, article.getQuantity());
+        assertEquals(initial, article.getVersion());
+
+        double perSecond = initial / (elapsed / 1_000_000_000.0);
+        System.out.printf(Locale.ROOT, "%d concurrent adjustments on one article: %.0f updates/s%n", initial, perSecond);
+    }
+
+    @Test
+    void concurrentAdjustments_neverGoBelowZero() throws Exception {
+        int initial = 500;
+        UUID id = createArticle(initial);
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(id, -1, rejected);
+
+        int attempts = THREADS * ADJUSTMENTS_PER_THREAD;
+        assertEquals(0, articleService.getArticleById(id).getQuantity());
+        assertEquals(attempts - initial, rejected.get());
+    }
+
+    private UUID createArticle(int quantity) {
+        Article article = articleService.createArticle(new CreateArticleRequest("Gloves", quantity, "box", 10));
+        createdIds.add(article.getId());
+        return article.getId();
+    }
+
+    // Starts all threads at once and returns the wall-clock time in nanoseconds until all are done.
+    private long runConcurrently(UUID id, int delta, AtomicInteger rejected) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        long elapsed;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ADJUSTMENTS_PER_THREAD; i++) {
+                        try {
+                            articleService.adjustQuantity(id, new AdjustQuantityRequest(delta), null);
+                        } catch (InsufficientStockException ex) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            elapsed = System.nanoTime() - begin;
+        }
+        return elapsed;
+    }
+}
@@ -0,0 +1,119 @@
+package com.inventaro.backend.service;
+
+import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.dto.CreateLocationRequest;
+import com.inventaro.backend.dto.TransferRequest;
+import com.inventaro.backend.exception.InsufficientStockException;
+import com.inventaro.backend.model.Location;
+import com.inventaro.backend.model.LocationStock;
+import com.inventaro.backend.repository.ArticleRepository;
+import com.inventaro.backend.repository.LocationRepository;
+import com.inventaro.backend.repository.LocationStockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Transfers in both directions between two locations, for two articles at once, from many
+ * virtual threads: no transfer deadlocks or fails for any reason other than missing stock, and
+ * the location totals always equal the sum of their stock rows.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LocationServiceConcurrencyTest {
+
+    private static final int THREADS = 100;
+    private static final int TRANSFERS_PER_THREAD = 10;
+    private static final int STOCK = 50;
+
+    @Autowired
+    private LocationService locationService;
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private LocationStockRepository locationStockRepository;
+
+    private final List<UUID> articles = new ArrayList<>();
+    private final List<UUID> locations = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        articles.forEach(id -> articleService.deleteArticle(id, null));
+        locationRepository.deleteAllById(locations);
+    }
+
+    @Test
+    void concurrentTransfers_keepTotalsConsistent() throws Exception {
+        UUID north = locationService.createLocation(new CreateLocationRequest("North " + UUID.randomUUID())).getId();
+        UUID south = locationService.createLocation(new CreateLocationRequest("South " + UUID.randomUUID())).getId();
+        locations.addAll(List.of(north, south));
+        for (int i = 0; i < 2; i++) {
+            UUID article = articleService.createArticle(new CreateArticleRequest("Gauze", 2 * STOCK, "pcs", 5)).getId();
+            articles.add(article);
+            locationService.transfer(article, new TransferRequest(null, north, STOCK));
+            locationService.transfer(article, new TransferRequest(null, south, STOCK));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        UUID article = articles.get(random.nextInt(articles.size()));
+                        boolean northToSouth = random.nextBoolean();
+                        try {
+                            locationService.transfer(article, new TransferRequest(
+                                    northToSouth ? north : south, northToSouth ? south : north, 1 + random.nextInt(5)));
+                        } catch (InsufficientStockException expected) {
+                            // One location ran dry; the transfer changed nothing.
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        long rows = 0;
+        for (UUID locationId : locations) {
+            Location location = locationService.getLocationById(locationId);
+            long sum = articles.stream()
+                    .map(article -> locationStockRepository.findById(new LocationStock.Key(article, locationId)))
+                    .mapToLong(row -> row.map(stock -> (long) stock.getQuantity()).orElse(0L))
+                    .sum();
+            assertEquals(sum, location.getTotalQuantity());
+            rows += sum;
+        }
+        assertEquals(4L * STOCK, rows);
+        for (UUID article : articles) {
+            assertEquals(2 * STOCK, articleRepository.findById(article).orElseThrow().getLocatedQuantity());
+        }
+    }
+}
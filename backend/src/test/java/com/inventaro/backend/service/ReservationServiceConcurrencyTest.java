@@ -0,0 +1,161 @@
+package com.inventaro.backend.service;
+
+import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.dto.CreateReservationRequest;
+import com.inventaro.backend.exception.InsufficientStockException;
+import com.inventaro.backend.model.Article;
+import com.inventaro.backend.model.Reservation;
+import com.inventaro.backend.repository.ArticleRepository;
+import com.inventaro.backend.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many reservers competing for the stock of a few hot articles, from many virtual threads: no
+ * article is ever reserved beyond its quantity, and every hold is confirmed or released exactly
+ * once even when two threads race for it.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservationServiceConcurrencyTest {
+
+    private static final int THREADS = 100;
+    private static final int RESERVATIONS_PER_THREAD = 4;
+    private static final int HOT_ARTICLES = 3;
+    private static final int STOCK = 100;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private final List<UUID> articles = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        articles.forEach(id -> articleService.deleteArticle(id, null));
+    }
+
+    @Test
+    void concurrentReservations_neverOverbookHotArticles() throws Exception {
+        for (int i = 0; i < HOT_ARTICLES; i++) {
+            articles.add(articleService.createArticle(new CreateArticleRequest("Sprutor " + i, STOCK, "pcs", 10)).getId());
+        }
+
+        // Demand is several times the stock, so most attempts find too little available.
+        List<Reservation> held = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger rejected = new AtomicInteger();
+        runConcurrently(THREADS, () -> {
+            for (int i = 0; i < RESERVATIONS_PER_THREAD; i++) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                UUID article = articles.get(random.nextInt(articles.size()));
+                try {
+                    held.add(reservationService.createReservation(article,
+                            new CreateReservationRequest(1 + random.nextInt(3), null, null)));
+                } catch (InsufficientStockException expected) {
+                    rejected.incrementAndGet();
+                }
+            }
+        });
+
+        assertTrue(rejected.get() > 0);
+        for (UUID id : articles) {
+            Article article = articleRepository.findById(id).orElseThrow();
+            int heldQuantity = held.stream().filter(r -> r.getArticleId().equals(id)).mapToInt(Reservation::getQuantity).sum();
+            assertEquals(heldQuantity, article.getReservedQuantity());
+            assertTrue(article.getReservedQuantity() <= STOCK);
+            // The last few items may be left when only larger holds were asked for them.
+            assertTrue(STOCK - article.getReservedQuantity() < 3);
+        }
+
+        // Two threads per hold: one confirms, the other releases. Exactly one of them wins.
+        Map<UUID, Integer> confirmed = new ConcurrentHashMap<>();
+        AtomicInteger lost = new AtomicInteger();
+        List<Runnable> tasks = new ArrayList<>();
+        for (Reservation reservation : held) {
+            tasks.add(() -> {
+                try {
+                    reservationService.confirmReservation(reservation.getId());
+                    confirmed.merge(reservation.getArticleId(), reservation.getQuantity(), Integer::sum);
+                } catch (IllegalArgumentException alreadyReleased) {
+                    lost.incrementAndGet();
+                }
+            });
+            tasks.add(() -> {
+                try {
+                    reservationService.releaseReservation(reservation.getId());
+                } catch (IllegalArgumentException alreadyConfirmed) {
+                    lost.incrementAndGet();
+                }
+            });
+        }
+        Collections.shuffle(tasks);
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Runnable task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertEquals(held.size(), lost.get());
+        for (UUID id : articles) {
+            Article article = articleRepository.findById(id).orElseThrow();
+            assertEquals(0, article.getReservedQuantity());
+            assertEquals(STOCK - confirmed.getOrDefault(id, 0), article.getQuantity());
+            assertTrue(reservationRepository.findAllByArticleIdOrderByExpiresAtAscIdAsc(id).isEmpty());
+        }
+    }
+
+    private static void runConcurrently(int threads, Runnable task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.inventaro.backend.stream;
+
+import com.inventaro.backend.dto.AdjustQuantityRequest;
+import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.service.ArticleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Opens a real GET /articles/stream connection and checks that committed changes are pushed to it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ArticleEventStreamTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ArticleService articleService;
+
+    @Autowired
+    private ArticleEventBroadcaster broadcaster;
+
+    private UUID id;
+
+    @AfterEach
+    void cleanUp() {
+        if (id != null) {
+            articleService.deleteArticle(id, null);
+        }
+    }
+
+    @Test
+    void streamPushesQuantityChangesForSubscribedArticle() throws Exception {
+        id = articleService.createArticle(new CreateArticleRequest("Gloves", 50, "box", 10)).getId();
+        int subscribersBefore = broadcaster.getSubscriberCount();
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/articles/stream?articleId=" + id))
+                .header("Accept", "text/event-stream")
+                .build();
+        HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, response.statusCode());
+        awaitSubscribers(subscribersBefore + 1);
+
+        // Another article's change must be filtered out; only our article's change should arrive.
+        UUID otherId = articleService.createArticle(new CreateArticleRequest("Masks", 5, "pcs", 1)).getId();
+        articleService.deleteArticle(otherId, null);
+        articleService.adjustQuantity(id, new AdjustQuantityRequest(-45), null);
+
+        Iterator<String> lines = response.body().iterator();
+        String data = CompletableFuture.supplyAsync(() -> {
+            while (lines.hasNext()) {
+                String line = lines.next();
+                if (line.startsWith("data:")) {
+                    return line;
+                }
+            }
+            return null;
+        }).get(10, TimeUnit.SECONDS);
+        response.body().close();
+
+        assertNotNull(data);
+        assertTrue(data.contains("\"type\":\"QUANTITY_CHANGED\""), data);
+        assertTrue(data.contains("\"articleId\":\"" + id + "\""), data);
+        assertTrue(data.contains("\"quantity\":5"), data);
+        assertTrue(data.contains("\"lowStock\":true"), data);
+    }
+
+    private void awaitSubscribers(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (broadcaster.getSubscriberCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, broadcaster.getSubscriberCount());
+    }
+}
@@ -0,0 +1,74 @@
+package com.inventaro.backend.stream;
+
+import com.inventaro.backend.event.ArticleChangeEvent;
+import com.inventaro.backend.event.ArticleChangeType;
+import com.inventaro.backend.model.Article;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArticleSubscriptionTest {
+
+    private static final Duration NO_WAIT = Duration.ZERO;
+
+    @Test
+    void coalescesEventsForTheSameArticle() throws Exception {
+        ArticleSubscription subscription = new ArticleSubscription(new SseEmitter(), null, false, 10);
+        UUID id = UUID.randomUUID();
+
+        subscription.offer(quantityChanged(id, 10, false));
+        subscription.offer(quantityChanged(UUID.randomUUID(), 5, false));
+        subscription.offer(quantityChanged(id, 7, false));
+
+        ArticleSubscription.Batch batch = subscription.take(NO_WAIT);
+        assertFalse(batch.resync());
+        assertEquals(2, batch.events().size());
+        assertEquals(7, batch.events().get(0).getArticle().getQuantity());
+        assertNull(subscription.take(NO_WAIT));
+    }
+
+    @Test
+    void overflowDropsBufferAndRequestsResync() throws Exception {
+        ArticleSubscription subscription = new ArticleSubscription(new SseEmitter(), null, false, 3);
+        for (int i = 0; i < 4; i++) {
+            subscription.offer(quantityChanged(UUID.randomUUID(), i, false));
+        }
+
+        ArticleSubscription.Batch batch = subscription.take(NO_WAIT);
+        assertTrue(batch.resync());
+        assertTrue(batch.events().isEmpty());
+    }
+
+    @Test
+    void filtersBySingleArticle() throws Exception {
+        UUID id = UUID.randomUUID();
+        ArticleSubscription subscription = new ArticleSubscription(new SseEmitter(), id, false, 10);
+
+        subscription.offer(quantityChanged(UUID.randomUUID(), 1, false));
+        assertNull(subscription.take(NO_WAIT));
+
+        subscription.offer(quantityChanged(id, 1, false));
+        assertEquals(id, subscription.take(NO_WAIT).events().get(0).getArticleId());
+    }
+
+    @Test
+    void lowStockOnlyPassesArticlesEnteringOrLeavingLowStock() throws Exception {
+        ArticleSubscription subscription = new ArticleSubscription(new SseEmitter(), null, true, 10);
+
+        subscription.offer(quantityChanged(UUID.randomUUID(), 100, false));
+        assertNull(subscription.take(NO_WAIT));
+
+        subscription.offer(quantityChanged(UUID.randomUUID(), 5, false));
+        subscription.offer(quantityChanged(UUID.randomUUID(), 100, true));
+        assertEquals(2, subscription.take(NO_WAIT).events().size());
+    }
+
+    private static ArticleChangeEvent quantityChanged(UUID id, int quantity, boolean wasLowStock) {
+        Article article = new Article(id, "Gloves", quantity, "box", 10, 1, 10 - quantity, 0, 0);
+        return ArticleChangeEvent.of(ArticleChangeType.QUANTITY_CHANGED, article, wasLowStock);
+    }
+}
@@ -0,0 +1,257 @@
+package com.inventaro.backend.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventaro.backend.dto.AdjustQuantityRequest;
+import com.inventaro.backend.dto.CreateArticleRequest;
+import com.inventaro.backend.model.Article;
+import com.inventaro.backend.repository.ArticleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Quantity updates through the write-behind. The flush interval is long enough that nothing is
+ * written unless a test flushes (or a direct write does).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "inventaro.write-behind.enabled=true",
+        "inventaro.write-behind.flush-interval=1h",
+        "inventaro.write-behind.max-pending=100000"
+})
+class QuantityWriteBehindTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private QuantityWriteBehind writeBehind;
+
+    private final List<UUID> created = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        for (UUID id : created) {
+            mockMvc.perform(delete("/articles/{id}", id));
+        }
+    }
+
+    @Test
+    void updates_areAcknowledgedAndCoalescedIntoOneWrite() throws Exception {
+        Article article = createArticle(30);
+        UUID id = article.getId();
+
+        setQuantity(id, 25)
+                .andExpect(status().isAccepted())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$.quantity").value(25));
+        adjust(id, -5).andExpect(status().isAccepted()).andExpect(jsonPath("$.quantity").value(20));
+        adjust(id, 3).andExpect(status().isAccepted()).andExpect(jsonPath("$.quantity").value(23));
+
+        // Reads see the pending quantity before it has been written.
+        mockMvc.perform(get("/articles/{id}", id))
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$.quantity").value(23));
+        mockMvc.perform(get("/articles"))
+                .andExpect(jsonPath("$[?(@.id == '" + id + "')].quantity").value(23));
+        assertEquals(30, articleRepository.findById(id).orElseThrow().getQuantity());
+
+        assertEquals(1, writeBehind.flush());
+
+        Article stored = articleRepository.findById(id).orElseThrow();
+        assertEquals(23, stored.getQuantity());
+        assertEquals(article.getVersion() + 1, stored.getVersion());
+        mockMvc.perform(get("/articles/{id}/movements", id))
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[1].type").value("SET"))
+                .andExpect(jsonPath("$.items[1].delta").value(-7))
+                .andExpect(jsonPath("$.items[1].quantityAfter").value(23));
+        mockMvc.perform(get("/articles/{id}", id))
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.quantity").value(23));
+    }
+
+    @Test
+    void invalidUpdates_areRejectedAtOnce() throws Exception {
+        UUID id = createArticle(10).getId();
+        mockMvc.perform(post("/articles/{id}/reservations", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 4}"))
+                .andExpect(status().isCreated());
+
+        adjust(id, -7).andExpect(status().isConflict());
+        setQuantity(id, 3).andExpect(status().isConflict());
+        adjust(id, -6).andExpect(status().isAccepted()).andExpect(jsonPath("$.quantity").value(4));
+        adjust(id, -1).andExpect(status().isConflict());
+        adjust(UUID.randomUUID(), 1).andExpect(status().isNotFound());
+
+        writeBehind.flush();
+        assertEquals(4, articleRepository.findById(id).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void directWrites_flushPendingChangesFirst() throws Exception {
+        UUID id = createArticle(30).getId();
+        adjust(id, -10).andExpect(status().isAccepted());
+
+        // Only 20 are left once the pending adjustment is counted.
+        mockMvc.perform(post("/articles/{id}/reservations", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\": 21}"))
+                .andExpect(status().isConflict());
+        // The rejected reservation rolled back, so the adjustment is still pending.
+        assertEquals(30, articleRepository.findById(id).orElseThrow().getQuantity());
+        mockMvc.perform(get("/articles/{id}", id)).andExpect(jsonPath("$.quantity").value(20));
+
+        // With If-Match the update is written directly, against the version after the pending changes.
+        adjust(id, -5).andExpect(status().isAccepted());
+        Article stored = articleRepository.findById(id).orElseThrow();
+        mockMvc.perform(patch("/articles/{id}/quantity/delta", id)
+                        .header("If-Match", "\"" + (stored.getVersion() + 1) + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AdjustQuantityRequest(-1))))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.quantity").value(14));
+        assertFalse(writeBehind.hasPending());
+    }
+
+    @Test
+    void directWrites_writeOnlyTheirArticle_andKeepItPendingWhenRejected() throws Exception {
+        Article article = createArticle(30);
+        UUID id = article.getId();
+        UUID otherId = createArticle(30).getId();
+        adjust(id, -10).andExpect(status().isAccepted());
+        adjust(otherId, -10).andExpect(status().isAccepted());
+
+        // A stale If-Match rolls the direct write back, and the pending adjustment with it.
+        mockMvc.perform(patch("/articles/{id}/quantity/delta", id)
+                        .header("If-Match", "\"" + article.getVersion() + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AdjustQuantityRequest(-1))))
+                .andExpect(status().isPreconditionFailed());
+        assertEquals(30, articleRepository.findById(id).orElseThrow().getQuantity());
+        mockMvc.perform(get("/articles/{id}", id)).andExpect(jsonPath("$.quantity").value(20));
+
+        mockMvc.perform(patch("/articles/{id}/quantity/delta", id)
+                        .header("If-Match", "\"" + (article.getVersion() + 1) + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AdjustQuantityRequest(-1))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity").value(19));
+
+        // The other article was not written by the direct write.
+        assertEquals(30, articleRepository.findById(otherId).orElseThrow().getQuantity());
+        assertEquals(1, writeBehind.flush());
+        assertEquals(20, articleRepository.findById(otherId).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void concurrentUpdatesAndFlushes_loseNothing() throws Exception {
+        List<UUID> ids = List.of(createArticle(0).getId(), createArticle(0).getId(), createArticle(0).getId());
+        int threads = 50;
+        int updatesPerThread = 100;
+
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> flusher = executor.submit(() -> {
+                start.await();
+                // Pauses between flushes so it does not starve the writers when there is only one carrier thread.
+                while (!done.get()) {
+                    writeBehind.flush();
+                    Thread.sleep(1);
+                }
+                return null;
+            });
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < updatesPerThread; i++) {
+                        writeBehind.adjustQuantity(ids.get((thread + i) % ids.size()), 1);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            done.set(true);
+            flusher.get();
+        }
+        writeBehind.flush();
+
+        int total = ids.stream().mapToInt(id -> articleRepository.findById(id).orElseThrow().getQuantity()).sum();
+        assertEquals(threads * updatesPerThread, total);
+    }
+
+    @Test
+    void shutdown_flushesEverythingPending() throws Exception {
+        UUID id = createArticle(30).getId();
+        writeBehind.adjustQuantity(id, -12);
+
+        try {
+            writeBehind.shutdown();
+
+            assertEquals(18, articleRepository.findById(id).orElseThrow().getQuantity());
+            assertFalse(writeBehind.isAccepting());
+            adjust(id, -1).andExpect(status().isOk());
+        } finally {
+            writeBehind.start();
+        }
+    }
+
+    private ResultActions setQuantity(UUID id, int quantity) throws Exception {
+        return mockMvc.perform(patch("/articles/{id}/quantity", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"quantity\": " + quantity + "}"));
+    }
+
+    private ResultActions adjust(UUID id, int delta) throws Exception {
+        return mockMvc.perform(patch("/articles/{id}/quantity/delta", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AdjustQuantityRequest(delta))));
+    }
+
+    private Article createArticle(int quantity) throws Exception {
+        String json = mockMvc.perform(post("/articles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateArticleRequest("Sprutor", quantity, "pcs", 5))))
+                .andReturn().getResponse().getContentAsString();
+        Article article = objectMapper.readValue(json, Article.class);
+        created.add(article.getId());
+        return article;
+    }
+}